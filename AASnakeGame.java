@@ -1,39 +1,97 @@
 import javax.swing.*;
 import java.awt.*;
 import java.awt.event.*;
-import java.util.Random;
+import java.awt.image.BufferStrategy;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Paths;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
 
 /**
  * Main Snake Game Panel (Alby & Anusree's Snake Game)
  * Handles the game logic, rendering, input, and UI transitions.
  */
-public class AASnakeGame extends JPanel implements ActionListener, KeyListener {
+public class AASnakeGame extends JPanel implements KeyListener {
 
     // ==== GAME DIMENSIONS ====
-    private final int cellSize = 25;
-    private final int nCols = 40;
-    private final int nRows = 25;
-    private final int statsHeight = 50;
-    private final int widthPx = nCols * cellSize;
-    private final int heightPx = nRows * cellSize;
+    // -Dsnake.board=<cols>x<rows> (up to 10000x10000) and -Dsnake.cell=<px>; a board bigger
+    // than the 1000x625 px window scrolls with the head
+    private static final int MAX_SIDE = 10_000;
+    private static final int[] BOARD = parseBoard(System.getProperty("snake.board", "40x25"));
+    private static final int CELL_SIZE = Integer.getInteger("snake.cell", 25);
+    private static final int STATS_HEIGHT = 50;
+    private final int cellSize = CELL_SIZE;
+    private final int nCols = BOARD[0];
+    private final int nRows = BOARD[1];
+    private final int viewCols = viewCells(nCols, 1000);
+    private final int viewRows = viewCells(nRows, 625);
+    private final int statsHeight = STATS_HEIGHT;
+    private final int widthPx = viewCols * cellSize;
+    private final int heightPx = viewRows * cellSize;
 
     // ==== GAME SPEED SETTINGS ====
     private int baseDelay = 180;
     private final int minDelay = 40;
-    private int currentDelay = baseDelay;
+    private volatile int currentDelay = baseDelay; // Read by the loop thread every tick
     private final int levelCap = 30;
+    private SpeedCurve speed = new SpeedCurve(baseDelay, minDelay, levelCap);
 
-    // ==== TIMERS ====
-    private Timer gameTimer;
+    // ==== GAME LOOP ====
+    // Fixed-timestep loop thread; -Dsnake.interpolate=true renders between ticks
+    private static final boolean INTERPOLATE = Boolean.getBoolean("snake.interpolate");
+    private final GameLoop loop = new GameLoop(new LoopHost(), INTERPOLATE);
     private Timer countdownTimer;
 
+    // ==== INPUT PIPELINE ====
+    // keyPressed queues timestamped actions; each tick applies at most one, so quick presses are kept
+    private final InputQueue input = new InputQueue(16);
+    private final LatencyHistogram keyToTick = new LatencyHistogram();  // Press -> tick that applied it
+    private final LatencyHistogram keyToFrame = new LatencyHistogram(); // Press -> first frame showing it
+    private final AtomicLong unpaintedPress = new AtomicLong(); // Press time of an applied action not yet on screen, 0 if none
+
+    // ==== ACTIVE RENDERING ====
+    // Heavyweight canvas the loop thread draws into; null when headless (Swing repaints instead)
+    private Canvas canvas;
+    private BufferStrategy strategy;
+    private volatile boolean frameDirty;
+
+    // ==== REPLAYS ====
+    // -Dsnake.replayDir=<dir> records every game there (play back with ReplayFile)
+    private static final String REPLAY_DIR = System.getProperty("snake.replayDir");
+    private ReplayRecorder recorder;
+
+    // ==== QUICK SAVE ====
+    // F5 saves and F9 loads; the slot outlives restarts and trips to the menu
+    private static final int SAVE = 1, LOAD = 2;
+    private final SaveState quickSave = new SaveState(nCols, nRows);
+    private final AtomicInteger pendingSaveOp = new AtomicInteger(0); // Applied by the next tick
+
+    // ==== AUTOPILOT ====
+    // P toggles it; while on, the Autopilot picks every action instead of the keyboard.
+    // Created on first use, published to the loop thread by the volatile flag
+    private Autopilot autopilot;
+    private volatile boolean autopilotOn = false;
+
+    // ==== TELEMETRY ====
+    // F3 toggles the overlay in the stats bar; -Dsnake.telemetry=on|<file.csv|file.json> starts it enabled
+    // The sampler refreshes the overlay; under active rendering the loop thread's next frame does it
+    private final Telemetry telemetry = Telemetry.fromSystemProperties(() -> {
+        frameDirty = true;
+        if (!activeRendering()) repaint(0, 0, widthPx, statsHeight);
+    });
+
     // ==== GAME STATE FLAGS ====
-    // Uses the custom linked list logic
+    // Rules engine: the body is an int ring of packed cells, collisions a bitset lookup
     private CustomSnakeLogic snakeGame; 
-    private boolean isRunning = false;
+    private volatile boolean isRunning = false;
     private boolean inCountdown = false;
     private int countdown = 3;
     private boolean showGo = false;
+    private boolean gameWon = false;
 
     // ==== MENU CALLBACK ====
     private Runnable showMenuCallback;
@@ -45,55 +103,112 @@ public class AASnakeGame extends JPanel implements ActionListener, KeyListener {
     // ==== SCORE ====
     private int highScore = 0;
 
+    // ==== LEADERBOARD ====
+    // Every finished game goes to the persistent store (-Dsnake.scoreDir, default ~/.aasnake).
+    // Opened on its own thread when the first game starts, so recovery and fsync stay off the EDT;
+    // completes with null if it could not be opened, and the high score then only lives for this run
+    private static final String PLAYER = System.getProperty("snake.player", System.getProperty("user.name", "player"));
+    private CompletableFuture<Leaderboard> leaderboard; // Guarded by this
+    private String difficulty = "Normal";
+    private long playStartMillis;
+
+    // ==== CACHED PAINT RESOURCES ====
+    // Created once so a steady-state frame allocates nothing
+    private static final Font STATS_FONT = new Font("Arial", Font.PLAIN, 16);
+    private static final Font BUTTON_FONT = new Font("Consolas", Font.BOLD, 18);
+    private static final Font OVERLAY_FONT = new Font("Consolas", Font.PLAIN, 11);
+
+    // Cell, head, tail, food and the countdown/end texts are pre-rendered for the cell size and
+    // theme; T picks the next theme, which the loop thread applies on its next tick
+    private volatile SpriteAtlas atlas = SpriteAtlas.ensure(null, cellSize, SpriteAtlas.CLASSIC);
+    private volatile int themeIndex;
+
+    // Stats labels are formatted into reusable char buffers only when the numbers change
+    private int shownScore = -1;
+    private int shownHighScore = -1;
+    private final char[] scoreChars = new char[32];
+    private final char[] highScoreChars = new char[32];
+    private int scoreLen, highScoreLen;
+
+    // ==== START-UP ====
+    // Only the menu is built before the window shows. The game panel (engine, timers, leaderboard)
+    // is created on the first Start Game or High Scores click, while a background thread warms up
+    // fonts, the sprite atlas and the engine classes (-Dsnake.warmup=false skips it)
+    private static final boolean WARM_UP = !"false".equals(System.getProperty("snake.warmup"));
+    private static final Font TITLE_FONT = new Font("Consolas", Font.BOLD, 48);
+    private static final Font MENU_FONT = new Font("Consolas", Font.BOLD, 20);
+    private static final Font INSTRUCTIONS_FONT = new Font("Consolas", Font.PLAIN, 14);
+    private static final Font SCORES_FONT = new Font("Consolas", Font.PLAIN, 13);
+
+    // ==== BACK BUFFER ====
+    // Only the cells a tick changes are redrawn into it and repainted. Boards bigger than
+    // the window get a scrolling tile cache instead of one whole-board image
+    private final boolean scrolling = nCols > viewCols || nRows > viewRows;
+    private final BoardRenderer board = scrolling ? null : new BoardRenderer(nCols, nRows, cellSize);
+    private final TiledBoardRenderer tiles =
+            scrolling ? new TiledBoardRenderer(nCols, nRows, cellSize, widthPx, heightPx) : null;
+
     public AASnakeGame() {
         setPreferredSize(new Dimension(widthPx, heightPx + statsHeight));
         setBackground(Color.BLACK);
         setFocusable(true);
         addKeyListener(this);
-
-        gameTimer = new Timer(currentDelay, this);
-        gameTimer.setRepeats(true);
+        setLayout(null); // Canvas and end-screen buttons use absolute positioning
+
+        if (!GraphicsEnvironment.isHeadless()) {
+            canvas = new Canvas();
+            canvas.setIgnoreRepaint(true); // The loop thread presents every frame itself
+            canvas.setFocusable(false);
+            canvas.addKeyListener(this);
+            canvas.setBounds(0, 0, widthPx, heightPx + statsHeight);
+            canvas.setVisible(false);
+            add(canvas);
+        }
     }
 
     /** Starts a new game with the selected difficulty */
     public void startGame(String difficulty) {
         try {
-            switch (difficulty) {
-                case "Easy" -> baseDelay = 240;
-                case "Normal" -> baseDelay = 180;
-                case "Hard" -> baseDelay = 120;
-            }
+            baseDelay = SpeedCurve.baseDelayFor(difficulty);
+            speed = new SpeedCurve(baseDelay, minDelay, levelCap);
+            this.difficulty = difficulty;
+            int d = Leaderboard.difficultyIndex(difficulty);
+            leaderboard().thenAccept(board -> {
+                if (board != null) SwingUtilities.invokeLater(() -> highScore = Math.max(highScore, board.bestScore(d)));
+            });
 
+            loop.stop();
             currentDelay = baseDelay;
-            gameTimer.setDelay(currentDelay);
 
-            // Using the new custom logic class
-            snakeGame = new CustomSnakeLogic(nCols, nRows, cellSize);
-            snakeGame.createSnake(3);
-            snakeGame.spawnFood();
+            newEngine();
 
             inCountdown = true;
             isRunning = false;
+            gameWon = false;
             countdown = 3;
             showGo = false;
 
             requestFocusInWindow();
 
             if (countdownTimer != null && countdownTimer.isRunning()) countdownTimer.stop();
-            countdownTimer = new Timer(1000, e -> {
-                countdown--;
-                if (countdown <= 0) showGo = true;
-                repaint();
-                if (countdown < 0) {
-                    ((Timer) e.getSource()).stop();
-                    inCountdown = false;
-                    showGo = false;
-                    isRunning = true;
-                    gameTimer.start();
-                    requestFocusInWindow();
-                }
-            });
-            countdownTimer.start();
+            if (StartupProfile.enabled()) {
+                // The profile times start-up up to the first game frame, not the countdown
+                enterPlay();
+                loop.start();
+            } else {
+                countdownTimer = new Timer(1000, e -> {
+                    countdown--;
+                    if (countdown <= 0) showGo = true;
+                    repaint();
+                    if (countdown < 0) {
+                        ((Timer) e.getSource()).stop();
+                        enterPlay();
+                        loop.start();
+                        requestFocusInWindow();
+                    }
+                });
+                countdownTimer.start();
+            }
 
             revalidate();
             repaint();
@@ -107,95 +222,518 @@ public class AASnakeGame extends JPanel implements ActionListener, KeyListener {
         this.showMenuCallback = callback;
     }
 
-    /** Draw everything (snake, food, UI, etc.) */
+    /** Leaves the countdown, rebuilds the back buffer and shows the active-rendering canvas */
+    private void enterPlay() {
+        inCountdown = false;
+        showGo = false;
+        input.clear(); // The loop is stopped here, so the EDT may act as the consumer
+        unpaintedPress.set(0);
+        applyTheme();
+        redrawBoard();
+        frameDirty = true;
+        playStartMillis = System.currentTimeMillis();
+        isRunning = true;
+        if (canvas != null) {
+            canvas.setVisible(true);
+            if (strategy == null && canvas.isDisplayable()) {
+                canvas.createBufferStrategy(2);
+                strategy = canvas.getBufferStrategy();
+            }
+        }
+        repaint();
+    }
+
+    /** True while the loop thread presents frames itself through the canvas */
+    private boolean activeRendering() {
+        return strategy != null && canvas.isVisible();
+    }
+
+    /**
+     * Draw everything (snake, food, UI, etc.). While a game runs, the board
+     * comes from the back buffer and only the clipped (dirty) area is copied.
+     */
     @Override
     protected void paintComponent(Graphics g) {
-        super.paintComponent(g);
+        // The paint histogram has one writer: under active rendering renderFrame times the frames
+        long t0 = activeRendering() ? 0 : telemetry.paintStart();
         try {
-            // Draw Stats Bar
-            g.setColor(Color.DARK_GRAY);
-            g.fillRect(0, 0, widthPx, statsHeight);
-
-            g.setColor(Color.WHITE);
-            g.setFont(new Font("Arial", Font.PLAIN, 16));
-            int score = (snakeGame != null) ? snakeGame.score : 0;
-            g.drawString("Score: " + score, 8, 30);
-            g.drawString("High Score: " + highScore, widthPx - 180, 30);
+            // Stats bar only when it is part of the repainted area
+            if (g.hitClip(0, 0, widthPx, statsHeight)) paintStats(g);
+
+            // Running game: copy the back buffer, Java2D honours the clip
+            if (isRunning && snakeGame != null) {
+                drawBoard(g);
+                paintFieldBorder(g);
+                // keyToFrame has one writer: the thread that presents frames
+                if (!activeRendering()) {
+                    recordPressPainted();
+                    StartupProfile.mark(StartupProfile.FIRST_GAME_FRAME); // Headless: Swing presents the game
+                }
+                return;
+            }
 
-            // Draw Game Border
-            g.setColor(Color.WHITE);
-            g.drawRect(0, statsHeight, widthPx - 1, heightPx - 1);
+            // Clear the field; super.paintComponent() would copy the Graphics every frame
+            g.setColor(getBackground());
+            g.fillRect(0, statsHeight, getWidth(), getHeight() - statsHeight);
+            paintFieldBorder(g);
 
             // Handle Countdown Display
             if (inCountdown) {
-                Graphics2D g2 = (Graphics2D) g;
-                g2.setColor(new Color(255, 255, 0, 180));
-                g2.setFont(new Font("Consolas", Font.BOLD, 80));
-                if (showGo) drawCentered(g2, "GO!", statsHeight + heightPx / 2);
-                else drawCentered(g2, String.valueOf(Math.max(0, countdown)), statsHeight + heightPx / 2);
+                int text = showGo ? SpriteAtlas.TEXT_GO : Math.max(0, Math.min(3, countdown));
+                atlas.drawText(g, text, widthPx / 2, statsHeight + heightPx / 2);
                 return;
             }
 
-            // Handle Game Over Display
-            if (!isRunning && snakeGame != null) {
+            // Handle Game Over / Win Display
+            if (snakeGame != null) {
                 g.setColor(Color.BLACK);
                 g.fillRect(0, statsHeight, widthPx, heightPx);
-                g.setColor(Color.RED.darker());
-                g.setFont(new Font("Consolas", Font.BOLD, 46));
-                drawCentered(g, "GAME OVER", statsHeight + heightPx / 2 - 40);
+                atlas.drawText(g, gameWon ? SpriteAtlas.TEXT_WIN : SpriteAtlas.TEXT_GAME_OVER,
+                        widthPx / 2, statsHeight + heightPx / 2 - 40);
+            }
+        } catch (Exception ex) {
+            telemetry.error(ex);
+        } finally {
+            telemetry.paintDone(t0);
+        }
+    }
+
+    /** Draw Stats Bar */
+    private void paintStats(Graphics g) {
+        g.setColor(Color.DARK_GRAY);
+        g.fillRect(0, 0, widthPx, statsHeight);
+
+        g.setColor(Color.WHITE);
+        g.setFont(STATS_FONT);
+        int score = (snakeGame != null) ? snakeGame.score : 0;
+        if (score != shownScore) {
+            shownScore = score;
+            scoreLen = formatLabel(scoreChars, "Score: ", score);
+        }
+        if (highScore != shownHighScore) {
+            shownHighScore = highScore;
+            highScoreLen = formatLabel(highScoreChars, "High Score: ", highScore);
+        }
+        g.drawChars(scoreChars, 0, scoreLen, 8, 30);
+        g.drawChars(highScoreChars, 0, highScoreLen, widthPx - 180, 30);
+        if (telemetry.enabled) paintOverlay(g);
+    }
+
+    /** Telemetry summary between the score labels, refreshed once a second by the sampler */
+    private void paintOverlay(Graphics g) {
+        String line1 = telemetry.overlayLine1(), line2 = telemetry.overlayLine2();
+        if (line1 == null) return;
+        g.setColor(Color.LIGHT_GRAY);
+        g.setFont(OVERLAY_FONT);
+        g.drawString(line1, 170, 20);
+        g.drawString(line2, 170, 38);
+    }
+
+    /** Writes prefix + non-negative value into buf without creating Strings; returns the length */
+    private static int formatLabel(char[] buf, String prefix, int value) {
+        int len = prefix.length();
+        prefix.getChars(0, len, buf, 0);
+        int digits = 1;
+        for (int v = value; v >= 10; v /= 10) digits++;
+        for (int i = len + digits - 1; i >= len; i--) {
+            buf[i] = (char) ('0' + value % 10);
+            value /= 10;
+        }
+        return len + digits;
+    }
+
+    /** Draw Game Border */
+    private void paintFieldBorder(Graphics g) {
+        g.setColor(Color.WHITE);
+        g.drawRect(0, statsHeight, widthPx - 1, heightPx - 1);
+    }
+
+    /**
+     * Bridges the loop thread to the panel. With active rendering the tick and
+     * the frame both run on the loop thread; without a canvas (headless) the
+     * tick is handed to the EDT and Swing repaints the dirty cells. The
+     * handoff never waits for the EDT, since the EDT may itself be joining
+     * the loop thread in loop.stop(); at most one tick is pending, and one
+     * posted by a run that has since stopped is dropped.
+     */
+    private class LoopHost implements GameLoop.Host {
+        private final AtomicBoolean tickPending = new AtomicBoolean();
+        private volatile int pendingRun;
+        private final Runnable edtTick = () -> {
+            tickPending.set(false);
+            if (loop.isRunning() && loop.runs() == pendingRun) tick();
+        };
+
+        @Override
+        public long stepNanos() {
+            return currentDelay * 1_000_000L;
+        }
+
+        @Override
+        public void update() {
+            if (activeRendering()) {
+                tick();
                 return;
             }
+            if (tickPending.compareAndSet(false, true)) { // The EDT is behind: skip rather than queue up
+                pendingRun = loop.runs();
+                SwingUtilities.invokeLater(edtTick);
+            }
+        }
 
-            // Draw Game Content
-            if (snakeGame != null) snakeGame.draw(g, statsHeight);
-        } catch (Exception ex) {
-            ex.printStackTrace();
+        @Override
+        public void render(double alpha) {
+            if (activeRendering() && (frameDirty || INTERPOLATE)) renderFrame(alpha);
+        }
+    }
+
+    /** Presents one full frame through the canvas buffer strategy (loop thread only) */
+    private void renderFrame(double alpha) {
+        long t0 = telemetry.paintStart();
+        try {
+            do {
+                do {
+                    Graphics g = strategy.getDrawGraphics();
+                    try {
+                        paintStats(g);
+                        drawBoard(g);
+                        if (INTERPOLATE && isRunning && !scrolling) paintInterpolation(g, alpha);
+                        paintFieldBorder(g);
+                    } finally {
+                        g.dispose();
+                    }
+                } while (strategy.contentsRestored());
+                strategy.show();
+            } while (strategy.contentsLost());
+            Toolkit.getDefaultToolkit().sync();
+            frameDirty = false;
+            recordPressPainted();
+            if (isRunning) StartupProfile.mark(StartupProfile.FIRST_GAME_FRAME); // Exits on the first one
+        } catch (IllegalStateException ex) {
+            // Canvas was hidden or removed between ticks; the next frame recovers
+            frameDirty = true;
+        } finally {
+            telemetry.paintDone(t0);
         }
     }
 
-    /** Helper to draw text centered horizontally */
-    private void drawCentered(Graphics g, String s, int y) {
-        FontMetrics fm = g.getFontMetrics();
-        int x = (widthPx - fm.stringWidth(s)) / 2;
-        g.drawString(s, x, y);
+    /** Closes the press-to-frame measurement once a frame with the applied press has been drawn */
+    private void recordPressPainted() {
+        long pressed = unpaintedPress.getAndSet(0);
+        if (pressed != 0) keyToFrame.record(System.nanoTime() - pressed);
     }
 
-    /** Main game update loop */
-    @Override
-    public void actionPerformed(ActionEvent e) {
+    /**
+     * Slides the head into the next cell and the tail out of its cell by
+     * alpha of a cell, so movement looks continuous between ticks.
+     */
+    private void paintInterpolation(Graphics g, double alpha) {
+        int px = (int) (alpha * cellSize);
+        if (px <= 0 || snakeGame.length() < 2) return;
+
+        // Head: grow into the cell ahead if it is on the board and free
+        int h = snakeGame.headCell();
+        int hx = snakeGame.cellX(h), hy = snakeGame.cellY(h);
+        int dx = snakeGame.dirX, dy = snakeGame.dirY;
+        int nx = hx + dx, ny = hy + dy;
+        if (nx >= 0 && ny >= 0 && nx < nCols && ny < nRows && !snakeGame.isOccupied(nx, ny)) {
+            g.setColor(atlas.theme.body);
+            fillEdge(g, nx, ny, -dx, -dy, px);
+        }
+
+        // Tail: shrink away from the segment it follows unless the snake grows this tick
+        if (!snakeGame.willGrow()) {
+            int t = snakeGame.tailCell(), s = snakeGame.segmentAt(snakeGame.length() - 2);
+            int tx = snakeGame.cellX(t), ty = snakeGame.cellY(t);
+            g.setColor(Color.BLACK);
+            fillEdge(g, tx, ty, tx - snakeGame.cellX(s), ty - snakeGame.cellY(s), px);
+        }
+    }
+
+    /** Fills a strip of the given depth along the side of cell (x, y) that faces (sx, sy) */
+    private void fillEdge(Graphics g, int x, int y, int sx, int sy, int depth) {
+        int px = x * cellSize, py = statsHeight + y * cellSize;
+        if (sx > 0) g.fillRect(px + cellSize - depth, py, depth, cellSize);
+        else if (sx < 0) g.fillRect(px, py, depth, cellSize);
+        else if (sy > 0) g.fillRect(px, py + cellSize - depth, cellSize, depth);
+        else g.fillRect(px, py, cellSize, depth);
+    }
+
+    /** Advances the game one step and redraws only the cells that changed */
+    void tick() {
+        long t0 = telemetry.tickStart();
         try {
             if (!isRunning || snakeGame == null) return;
+            if (atlas.theme != SpriteAtlas.THEMES[themeIndex]) {
+                applyTheme();
+                redrawBoard();
+                if (!activeRendering()) repaint();
+            }
 
-            snakeGame.move();
+            int oldFood = snakeGame.food;
+            int oldScore = snakeGame.score;
 
-            if (snakeGame.checkCollision()) {
-                if (snakeGame.score > highScore) highScore = snakeGame.score;
-                isRunning = false;
-                gameTimer.stop();
-                SwingUtilities.invokeLater(this::showGameOverButtons);
-                repaint();
+            // The engine applies the latest key press (180-degree turns are still rejected)
+            int op = pendingSaveOp.getAndSet(0);
+            if (op == SAVE) {
+                quickSave.save(snakeGame, baseDelay, currentDelay, speed.level(snakeGame.score));
+            } else if (op == LOAD && !quickSave.isEmpty()) {
+                loadQuickSave();
                 return;
             }
 
-            if (snakeGame.snakeHead().equals(snakeGame.food)) {
-                snakeGame.grow();
-                snakeGame.score += 5;
+            int action = input.poll();
+            if (autopilotOn) {
+                // Presses are drained but never applied, so they stay out of the latency histograms
+                action = autopilot.decide(snakeGame);
+            } else if (action != CustomSnakeLogic.NONE) {
+                long pressed = input.polledStamp();
+                keyToTick.record(System.nanoTime() - pressed);
+                unpaintedPress.set(pressed);
+            }
+            int outcome = snakeGame.step(action);
+            if (recorder != null) recordTick(action, outcome);
 
+            if (outcome == CustomSnakeLogic.DIED) {
+                endGame(false);
+                return;
+            }
+
+            // No free cell left: the snake filled the board
+            if (outcome == CustomSnakeLogic.WON) {
+                endGame(true);
+                return;
+            }
+
+            if (outcome == CustomSnakeLogic.ATE) {
                 // Speed up logic
-                int level = Math.min(levelCap, snakeGame.score / 5);
-                int newDelay = baseDelay - level * 5;
-                if (newDelay < minDelay) newDelay = minDelay;
+                int newDelay = speed.delayFor(snakeGame.score);
                 if (newDelay != currentDelay) {
-                    currentDelay = newDelay;
-                    gameTimer.setDelay(currentDelay);
+                    currentDelay = newDelay; // Picked up by the loop after this tick
                 }
-                snakeGame.spawnFood();
             }
 
-            repaint();
+            // Dirty cells: new head, the old head (now body), the vacated cell and the new tail
+            // (both change sprite), and the food if it moved
+            repaintCell(snakeGame.headCell());
+            if (snakeGame.length() > 1) repaintCell(snakeGame.segmentAt(1));
+            repaintCell(snakeGame.vacatedCell());
+            repaintCell(snakeGame.tailCell());
+            if (snakeGame.food != oldFood) {
+                repaintCell(oldFood);
+                repaintCell(snakeGame.food);
+            }
+            if (snakeGame.score != oldScore && !activeRendering()) repaint(0, 0, widthPx, statsHeight);
+            if (scrolling) {
+                tiles.follow(snakeGame);
+                if (!activeRendering()) repaint(0, statsHeight, widthPx, heightPx);
+            }
+            frameDirty = true;
         } catch (Exception ex) {
+            telemetry.error(ex);
+        } finally {
+            telemetry.tickDone(t0, currentDelay);
+        }
+    }
+
+    /** Puts the running game back into the quick-save slot, speed included (loop thread) */
+    private void loadQuickSave() {
+        quickSave.restore(snakeGame);
+        baseDelay = quickSave.baseDelay();
+        speed = new SpeedCurve(baseDelay, minDelay, levelCap);
+        currentDelay = quickSave.currentDelay();
+        closeRecorder(); // The inputs no longer follow from the recorded seed
+        input.clear();
+        redrawBoard();
+        if (!activeRendering()) repaint();
+        frameDirty = true;
+    }
+
+    /** Creates the engine for a new game and starts recording it if replays are enabled */
+    private void newEngine() {
+        closeRecorder();
+        snakeGame = new CustomSnakeLogic(nCols, nRows);
+        snakeGame.createSnake(3);
+        snakeGame.spawnFood();
+        if (REPLAY_DIR == null) return;
+        try {
+            recorder = new ReplayRecorder(Paths.get(REPLAY_DIR, "snake-" + System.currentTimeMillis() + ".snkr"),
+                    snakeGame, 3, ReplayFormat.DEFAULT_SNAPSHOT_INTERVAL);
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    /** Appends the tick just played to the replay; a failing recorder is dropped, the game goes on */
+    private void recordTick(int action, int outcome) {
+        try {
+            recorder.record(action, snakeGame, outcome);
+        } catch (IOException ex) {
+            ex.printStackTrace();
+            closeRecorder();
+        }
+    }
+
+    private void closeRecorder() {
+        if (recorder == null) return;
+        try {
+            recorder.close();
+        } catch (IOException ex) {
             ex.printStackTrace();
         }
+        recorder = null;
+    }
+
+    /** Redraws one cell into the back buffer and, without a canvas, schedules just its screen rectangle */
+    private void repaintCell(int c) {
+        if (c < 0) return;
+        if (scrolling) {
+            tiles.paintCell(snakeGame, c); // The whole viewport moves with the head anyway
+            return;
+        }
+        board.paintCell(snakeGame, c);
+        if (!activeRendering()) {
+            repaint((c % nCols) * cellSize, statsHeight + (c / nCols) * cellSize, cellSize, cellSize);
+        }
+    }
+
+    /** Rebuilds the back buffer (or drops the tile cache) from the model, e.g. for a new game */
+    private void redrawBoard() {
+        if (scrolling) tiles.redrawAll(snakeGame);
+        else board.redrawAll(snakeGame);
+    }
+
+    /** Rebuilds the atlas if the theme changed and hands it to the renderer (loop stopped, or loop thread) */
+    private void applyTheme() {
+        atlas = SpriteAtlas.ensure(atlas, cellSize, SpriteAtlas.THEMES[themeIndex]);
+        if (scrolling) tiles.setAtlas(atlas);
+        else board.setAtlas(atlas);
+    }
+
+    /** Copies the field below the stats bar: the back buffer, or the viewport around the head */
+    private void drawBoard(Graphics g) {
+        if (scrolling) tiles.drawViewport(g, snakeGame, 0, statsHeight);
+        else g.drawImage(board.image(), 0, statsHeight, null);
+    }
+
+    /** Switches the autopilot on or off, creating it the first time (EDT) */
+    private void toggleAutopilot() {
+        if (autopilotOn) {
+            autopilotOn = false;
+            return;
+        }
+        if (autopilot == null) {
+            if ((long) nCols * nRows > Autopilot.MAX_CELLS) {
+                System.out.println("Autopilot is limited to boards of " + Autopilot.MAX_CELLS + " cells");
+                return;
+            }
+            autopilot = new Autopilot(nCols, nRows);
+        }
+        autopilotOn = true;
+    }
+
+    /** Parses -Dsnake.board ("<cols>x<rows>", each side 2 .. MAX_SIDE) */
+    private static int[] parseBoard(String spec) {
+        int x = spec.indexOf('x');
+        int cols = Integer.parseInt(spec.substring(0, Math.max(0, x)).trim());
+        int rows = Integer.parseInt(spec.substring(x + 1).trim());
+        if (cols < 2 || rows < 2 || cols > MAX_SIDE || rows > MAX_SIDE) {
+            throw new IllegalArgumentException("Board must be between 2x2 and " + MAX_SIDE + "x" + MAX_SIDE + ": " + spec);
+        }
+        return new int[] {cols, rows};
+    }
+
+    /** Cells of a board side that fit in px pixels of window */
+    private static int viewCells(int cells, int px) {
+        return Math.min(cells, px / CELL_SIZE);
+    }
+
+    /** Size of the game panel (and so of the menu), known before any panel is built */
+    static Dimension panelSize() {
+        return new Dimension(viewCells(BOARD[0], 1000) * CELL_SIZE, viewCells(BOARD[1], 625) * CELL_SIZE + STATS_HEIGHT);
+    }
+
+    /** Stops the game, records the high score and shows the end screen (any thread) */
+    private void endGame(boolean won) {
+        if (snakeGame.score > highScore) highScore = snakeGame.score;
+        saveScore();
+        gameWon = won;
+        isRunning = false;
+        loop.requestStop(); // Usually called from inside a tick, so never join here
+        closeRecorder();
+        if (telemetry.enabled) { // Latency reports are for profiling, not for players
+            if (autopilot != null && autopilot.decisions() > 0) System.out.println(autopilot.latencyReport());
+            System.out.println(keyToTick.summary("Key to tick"));
+            System.out.println(keyToFrame.summary("Key to frame"));
+            System.out.println(loop.jitterReport());
+        }
+        SwingUtilities.invokeLater(() -> {
+            if (canvas != null) canvas.setVisible(false);
+            showGameOverButtons();
+        });
+        repaint();
+    }
+
+    /** Queues the finished game for the leaderboard; the write happens on its own thread */
+    private void saveScore() {
+        long now = System.currentTimeMillis();
+        Leaderboard.Entry e = new Leaderboard.Entry(Leaderboard.difficultyIndex(difficulty), snakeGame.score,
+                snakeGame.length(), (int) Math.min(Integer.MAX_VALUE, now - playStartMillis), snakeGame.seed, now, PLAYER);
+        leaderboard().thenAccept(board -> {
+            if (board != null && !board.submit(e)) System.out.println("Leaderboard busy, score not saved");
+        });
+    }
+
+    /** The score store, opened on a background thread on first use (any thread) */
+    private synchronized CompletableFuture<Leaderboard> leaderboard() {
+        if (leaderboard == null) {
+            leaderboard = new CompletableFuture<>();
+            Thread opener = new Thread(() -> leaderboard.complete(openLeaderboard()), "leaderboard-open");
+            opener.setDaemon(true);
+            opener.start();
+        }
+        return leaderboard;
+    }
+
+    /** Opens the score store and closes it cleanly on exit; null (and a stack trace) on failure */
+    private static Leaderboard openLeaderboard() {
+        try {
+            Leaderboard board = Leaderboard.openDefault();
+            if (board.recoveryNote() != null) System.out.println("Leaderboard repaired: " + board.recoveryNote());
+            Runtime.getRuntime().addShutdownHook(new Thread(() -> {
+                try {
+                    board.close();
+                } catch (IOException ex) {
+                    ex.printStackTrace();
+                }
+            }, "leaderboard-close"));
+            return board;
+        } catch (IOException ex) {
+            ex.printStackTrace();
+            return null;
+        }
+    }
+
+    /** Top five per difficulty plus this player's bests, for the menu's High Scores dialog */
+    String leaderboardText() {
+        Leaderboard leaderboard = leaderboard().join(); // Only waits if the dialog is opened before any game
+        if (leaderboard == null) return "The leaderboard could not be opened.";
+        StringBuilder sb = new StringBuilder();
+        try {
+            for (int d = 0; d < Leaderboard.DIFFICULTIES.length; d++) {
+                sb.append(Leaderboard.DIFFICULTIES[d]).append('\n');
+                List<Leaderboard.Entry> top = leaderboard.top(d, 5);
+                if (top.isEmpty()) sb.append("   no games yet\n");
+                for (int i = 0; i < top.size(); i++) sb.append("  ").append(i + 1).append(". ").append(top.get(i)).append('\n');
+                Leaderboard.Entry best = leaderboard.personalBest(PLAYER, d);
+                if (best != null) sb.append("  Your best: ").append(best.score).append('\n');
+                sb.append('\n');
+            }
+        } catch (IOException ex) {
+            ex.printStackTrace();
+            return "Error reading the leaderboard: " + ex.getMessage();
+        }
+        return sb.toString();
     }
 
     /** Show restart + menu buttons after game over */
@@ -213,7 +751,7 @@ public class AASnakeGame extends JPanel implements ActionListener, KeyListener {
             // Restart Button
             restartBtn = new JButton("Restart");
             restartBtn.setBounds(x, y, btnW, btnH);
-            restartBtn.setFont(new Font("Consolas", Font.BOLD, 18));
+            restartBtn.setFont(BUTTON_FONT);
             restartBtn.addActionListener(evt -> {
                 remove(restartBtn);
                 remove(menuBtn);
@@ -226,13 +764,13 @@ public class AASnakeGame extends JPanel implements ActionListener, KeyListener {
             // Main Menu Button
             menuBtn = new JButton("Main Menu");
             menuBtn.setBounds(x, y + btnH + 12, btnW, btnH);
-            menuBtn.setFont(new Font("Consolas", Font.BOLD, 18));
+            menuBtn.setFont(BUTTON_FONT);
             menuBtn.addActionListener(evt -> {
                 remove(restartBtn);
                 remove(menuBtn);
                 revalidate();
                 repaint();
-                gameTimer.stop();
+                loop.stop();
                 inCountdown = false;
                 isRunning = false;
                 if (showMenuCallback != null) showMenuCallback.run();
@@ -250,16 +788,15 @@ public class AASnakeGame extends JPanel implements ActionListener, KeyListener {
     /** Restart logic */
     private void restartGame() {
         try {
+            loop.stop();
             currentDelay = baseDelay;
-            gameTimer.setDelay(currentDelay);
 
-            // Resetting game state
-            snakeGame.createSnake(3);
-            snakeGame.spawnFood();
-            snakeGame.score = 0;
+            // Fresh engine and seed, so every recorded game starts from its own header
+            newEngine();
 
             inCountdown = true;
             isRunning = false;
+            gameWon = false;
             countdown = 3;
             showGo = false;
 
@@ -271,9 +808,8 @@ public class AASnakeGame extends JPanel implements ActionListener, KeyListener {
                 repaint();
                 if (countdown < 0) {
                     ((Timer) ev.getSource()).stop();
-                    inCountdown = false;
-                    isRunning = true;
-                    gameTimer.start();
+                    enterPlay();
+                    loop.start();
                     requestFocusInWindow();
                 }
             });
@@ -284,17 +820,33 @@ public class AASnakeGame extends JPanel implements ActionListener, KeyListener {
         }
     }
 
+    /**
+     * Shows a game that is driven from outside (benchmarks, tools) without the
+     * countdown or the Swing timer.
+     */
+    void attachGame(CustomSnakeLogic game) {
+        snakeGame = game;
+        gameWon = false;
+        enterPlay();
+    }
+
     @Override
     public void keyPressed(KeyEvent e) {
         try {
             if (snakeGame == null || !isRunning) return;
             int code = e.getKeyCode();
-            // Directional input handling
+            long pressed = System.nanoTime();
+            // Directional input handling; the loop thread applies one queued press per tick
             switch (code) {
-                case KeyEvent.VK_UP, KeyEvent.VK_W -> snakeGame.changeDirection(0, -1);
-                case KeyEvent.VK_DOWN, KeyEvent.VK_S -> snakeGame.changeDirection(0, 1);
-                case KeyEvent.VK_LEFT, KeyEvent.VK_A -> snakeGame.changeDirection(-1, 0);
-                case KeyEvent.VK_RIGHT, KeyEvent.VK_D -> snakeGame.changeDirection(1, 0);
+                case KeyEvent.VK_UP, KeyEvent.VK_W -> input.offer(CustomSnakeLogic.UP, pressed);
+                case KeyEvent.VK_DOWN, KeyEvent.VK_S -> input.offer(CustomSnakeLogic.DOWN, pressed);
+                case KeyEvent.VK_LEFT, KeyEvent.VK_A -> input.offer(CustomSnakeLogic.LEFT, pressed);
+                case KeyEvent.VK_RIGHT, KeyEvent.VK_D -> input.offer(CustomSnakeLogic.RIGHT, pressed);
+                case KeyEvent.VK_F5 -> pendingSaveOp.set(SAVE);
+                case KeyEvent.VK_F9 -> pendingSaveOp.set(LOAD);
+                case KeyEvent.VK_P -> toggleAutopilot();
+                case KeyEvent.VK_T -> themeIndex = (themeIndex + 1) % SpriteAtlas.THEMES.length;
+                case KeyEvent.VK_F3 -> telemetry.setEnabled(!telemetry.enabled);
             }
         } catch (Exception ex) {
             ex.printStackTrace();
@@ -304,297 +856,211 @@ public class AASnakeGame extends JPanel implements ActionListener, KeyListener {
     @Override public void keyReleased(KeyEvent e) {}
     @Override public void keyTyped(KeyEvent e) {}
 
+    /** Client mode: joins an ArenaServer at host:port and shows the shared board instead of the menu. */
+    private static void connectToArena(String address) {
+        try {
+            int colon = address.lastIndexOf(':');
+            ArenaClient client = ArenaClient.connect(address.substring(0, colon),
+                    Integer.parseInt(address.substring(colon + 1)));
+            SwingUtilities.invokeLater(() -> {
+                JFrame frame = new JFrame("Alby & Anusree's Snake Game - Arena");
+                frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+                ArenaPanel panel = new ArenaPanel(client);
+                frame.add(panel);
+                frame.pack();
+                frame.setResizable(false);
+                frame.setLocationRelativeTo(null);
+                frame.setVisible(true);
+                panel.requestFocusInWindow();
+                client.start(panel::repaint);
+            });
+        } catch (Exception ex) {
+            ex.printStackTrace();
+        }
+    }
+
     /** Main launcher */
     public static void main(String[] args) {
+        if (args.length > 0 && args[0].equals("--connect")) {
+            connectToArena(args.length > 1 ? args[1] : "localhost:" + ArenaServer.DEFAULT_PORT);
+            return;
+        }
+        boolean profile = args.length > 0 && args[0].equals("--startup-profile");
+        if (profile) StartupProfile.enable();
         try {
-            SwingUtilities.invokeLater(() -> {
-                try {
-                    JFrame frame = new JFrame("Alby & Anusree's Snake Game");
-                    frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
-
-                    CardLayout cards = new CardLayout();
-                    Container cp = frame.getContentPane();
-                    cp.setLayout(cards);
-
-                    AASnakeGame gamePanel = new AASnakeGame();
-
-                    // Main Menu Panel setup
-                    JPanel menu = new JPanel(null);
-                    menu.setBackground(Color.BLACK);
-                    menu.setPreferredSize(new Dimension(gamePanel.widthPx, gamePanel.heightPx + gamePanel.statsHeight));
-
-                    // Title
-                    JLabel title = new JLabel("SNAKE GAME");
-                    title.setForeground(Color.WHITE);
-                    title.setFont(new Font("Consolas", Font.BOLD, 48));
-                    title.setHorizontalAlignment(SwingConstants.CENTER);
-                    title.setBounds(0, 30, gamePanel.widthPx, 60);
-                    menu.add(title);
-
-                    // Menu Buttons
-                    int btnW = 220, btnH = 50;
-                    int cx = (gamePanel.widthPx - btnW) / 2;
-                    int sy = 140;
-
-                    JButton start = new JButton("Start Game");
-                    start.setBounds(cx, sy, btnW, btnH);
-                    start.setFont(new Font("Consolas", Font.BOLD, 20));
-                    menu.add(start);
-
-                    JButton credits = new JButton("Credits");
-                    credits.setBounds(cx, sy + 70, btnW, btnH);
-                    credits.setFont(new Font("Consolas", Font.BOLD, 20));
-                    menu.add(credits);
-
-                    JButton quit = new JButton("Quit");
-                    quit.setBounds(cx, sy + 140, btnW, btnH);
-                    quit.setFont(new Font("Consolas", Font.BOLD, 20));
-                    menu.add(quit);
-
-                    // Instructions
-                    JLabel instr = new JLabel("<html><div style='text-align:center'>Use Arrow Keys or WASD to move.<br>" +
-                            "Avoid hitting yourself or the wall.<br>Press Restart or Main Menu after Game Over.</div></html>");
-                    instr.setForeground(Color.WHITE);
-                    instr.setFont(new Font("Consolas", Font.PLAIN, 14));
-                    instr.setHorizontalAlignment(SwingConstants.CENTER);
-                    instr.setBounds(0, sy + 210, gamePanel.widthPx, 80);
-                    menu.add(instr);
-
-                    // Button Listeners
-                    start.addActionListener(evt -> {
-                        String[] options = {"Easy", "Normal", "Hard", "Cancel"};
-                        int choice = JOptionPane.showOptionDialog(frame, "Select difficulty:", "Difficulty",
-                                JOptionPane.DEFAULT_OPTION, JOptionPane.PLAIN_MESSAGE, null, options, options[1]);
-                        if (choice >= 0 && choice <= 2) {
-                            cards.show(cp, "GAME");
-                            gamePanel.setShowMenuCallback(() -> cards.show(cp, "MENU"));
-                            gamePanel.startGame(options[choice]);
-                            SwingUtilities.invokeLater(gamePanel::requestFocusInWindow);
-                        }
-                    });
-
-                    credits.addActionListener(evt -> JOptionPane.showMessageDialog(frame,
-                            "Credits:\nALBY MATHEW BIJU\nANUSREE BABU", "Credits", JOptionPane.INFORMATION_MESSAGE));
-
-                    quit.addActionListener(evt -> System.exit(0));
-
-                    // Add panels to card layout
-                    cp.add(menu, "MENU");
-                    cp.add(gamePanel, "GAME");
-
-                    frame.pack();
-                    frame.setResizable(false);
-                    frame.setLocationRelativeTo(null);
-                    frame.setVisible(true);
-
-                    cards.show(cp, "MENU");
-                } catch (Exception ex) {
-                    ex.printStackTrace();
+            if (WARM_UP) {
+                Thread warmUp = new Thread(AASnakeGame::warmUp, "warm-up");
+                warmUp.setDaemon(true);
+                warmUp.setPriority(Thread.MIN_PRIORITY);
+                warmUp.start();
+            }
+            // Without a display there is no window; the profile still times the menu and the first game frame offscreen
+            if (profile && GraphicsEnvironment.isHeadless()) SwingUtilities.invokeLater(AASnakeGame::profileOffscreen);
+            else SwingUtilities.invokeLater(() -> createWindow(profile));
+        } catch (Exception ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    /** Shows the window with just the menu; the game panel is added as a card when first needed (EDT) */
+    private static void createWindow(boolean profile) {
+        try {
+            JFrame frame = new JFrame("Alby & Anusree's Snake Game");
+            frame.setDefaultCloseOperation(JFrame.EXIT_ON_CLOSE);
+
+            CardLayout cards = new CardLayout();
+            Container cp = frame.getContentPane();
+            cp.setLayout(cards);
+
+            AASnakeGame[] game = new AASnakeGame[1];
+            java.util.function.Supplier<AASnakeGame> gamePanel = () -> {
+                if (game[0] == null) {
+                    game[0] = new AASnakeGame();
+                    game[0].setShowMenuCallback(() -> cards.show(cp, "MENU"));
+                    cp.add(game[0], "GAME");
+                    StartupProfile.mark(StartupProfile.GAME_PANEL);
                 }
+                return game[0];
+            };
+            // The profile starts a Normal game as soon as the menu is on screen
+            Runnable startNormal = () -> startGame(gamePanel.get(), cards, cp, "Normal");
+            JButton[] buttons = new JButton[4];
+            JPanel menu = createMenu(buttons, profile ? startNormal : null);
+            JButton start = buttons[0], scores = buttons[1], credits = buttons[2], quit = buttons[3];
+
+            // Button Listeners
+            start.addActionListener(evt -> {
+                String[] options = {"Easy", "Normal", "Hard", "Cancel"};
+                int choice = JOptionPane.showOptionDialog(frame, "Select difficulty:", "Difficulty",
+                        JOptionPane.DEFAULT_OPTION, JOptionPane.PLAIN_MESSAGE, null, options, options[1]);
+                if (choice >= 0 && choice <= 2) startGame(gamePanel.get(), cards, cp, options[choice]);
             });
+
+            scores.addActionListener(evt -> {
+                JTextArea text = new JTextArea(gamePanel.get().leaderboardText());
+                text.setFont(SCORES_FONT);
+                text.setEditable(false);
+                JOptionPane.showMessageDialog(frame, text, "High Scores", JOptionPane.PLAIN_MESSAGE);
+            });
+
+            credits.addActionListener(evt -> JOptionPane.showMessageDialog(frame,
+                    "Credits:\nALBY MATHEW BIJU\nANUSREE BABU", "Credits", JOptionPane.INFORMATION_MESSAGE));
+
+            quit.addActionListener(evt -> System.exit(0));
+
+            cp.add(menu, "MENU");
+            frame.pack();
+            frame.setResizable(false);
+            frame.setLocationRelativeTo(null);
+            frame.addWindowListener(new WindowAdapter() {
+                @Override
+                public void windowOpened(WindowEvent e) {
+                    StartupProfile.mark(StartupProfile.WINDOW_SHOWN);
+                }
+            });
+            frame.setVisible(true);
+
+            cards.show(cp, "MENU");
         } catch (Exception ex) {
             ex.printStackTrace();
         }
     }
-}
 
-/**
- * Core Snake Logic refactored to use a custom Singly Linked List (SLL) 
- * defined internally using the SegmentNode class.
- */
-class CustomSnakeLogic {
-    final int cols, rows, cell;
-    int score = 0;
-    Point food;
-    
-    // Custom Linked List Structure (Singly Linked List)
-    private SegmentNode head;    // Pointer to the first segment (head of the snake)
-    private SegmentNode tail;    // Pointer to the last segment (tail of the snake)
-    private int snakeLength;     // Total number of segments
-    
-    // Flag to control growth: prevents tail removal on the next move cycle
-    private boolean shouldGrowNextMove = false;
-    
-    Point dir;
-    final Random rand = new Random();
+    /** Switches to the game card and starts the countdown (EDT) */
+    private static void startGame(AASnakeGame panel, CardLayout cards, Container cp, String difficulty) {
+        cards.show(cp, "GAME");
+        panel.startGame(difficulty);
+        SwingUtilities.invokeLater(panel::requestFocusInWindow);
+    }
 
     /**
-     * Node structure for the custom Singly Linked List.
-     * Each node represents one segment of the snake.
+     * Builds the main menu; buttons receives Start Game, High Scores, Credits
+     * and Quit. If onFirstPaint is given it runs (once, later on the EDT)
+     * after the menu has been painted, which is how the profile starts a game.
      */
-    static class SegmentNode {
-        Point position;
-        SegmentNode next;
-
-        SegmentNode(Point p) {
-            this.position = p;
-            this.next = null;
-        }
-    }
-
-    CustomSnakeLogic(int cols, int rows, int cell) {
-        this.cols = cols;
-        this.rows = rows;
-        this.cell = cell;
-    }
-
-    /** Initializes or resets the snake's body using manual Linked List creation. */
-    void createSnake(int len) {
-        head = null;
-        tail = null;
-        snakeLength = 0;
-        
-        int startX = cols / 2;
-        int startY = rows / 2;
-        
-        // Manual Linked List construction
-        for (int i = 0; i < len; i++) {
-            Point p = new Point(startX - i, startY);
-            SegmentNode newNode = new SegmentNode(p);
-            
-            if (head == null) {
-                head = newNode;
-                tail = newNode;
-            } else {
-                tail.next = newNode;
-                tail = newNode;
-            }
-            snakeLength++;
-        }
-        
-        dir = new Point(1, 0); // Start moving right
-        score = 0;
-        shouldGrowNextMove = false;
-    }
-
-    /** Generates food at a location not occupied by the snake. */
-    void spawnFood() {
-        while (true) {
-            Point f = new Point(rand.nextInt(cols), rand.nextInt(rows));
-            boolean onSnake = false;
-            
-            // Manual traversal check for collision with snake body
-            SegmentNode current = head;
-            while (current != null) {
-                if (current.position.equals(f)) { 
-                    onSnake = true; 
-                    break; 
+    private static JPanel createMenu(JButton[] buttons, Runnable onFirstPaint) {
+        Dimension size = panelSize();
+        JPanel menu = new JPanel(null) {
+            private Runnable pending = onFirstPaint;
+
+            @Override
+            protected void paintComponent(Graphics g) {
+                super.paintComponent(g);
+                StartupProfile.mark(StartupProfile.MENU_PAINTED);
+                if (pending != null) {
+                    SwingUtilities.invokeLater(pending);
+                    pending = null;
                 }
-                current = current.next;
-            }
-            
-            if (!onSnake) { 
-                food = f; 
-                return; 
             }
+        };
+        menu.setBackground(Color.BLACK);
+        menu.setPreferredSize(size);
+        menu.setSize(size);
+
+        // Title
+        JLabel title = new JLabel("SNAKE GAME");
+        title.setForeground(Color.WHITE);
+        title.setFont(TITLE_FONT);
+        title.setHorizontalAlignment(SwingConstants.CENTER);
+        title.setBounds(0, 30, size.width, 60);
+        menu.add(title);
+
+        // Menu Buttons
+        int btnW = 220, btnH = 50;
+        int cx = (size.width - btnW) / 2;
+        int sy = 140;
+        String[] labels = {"Start Game", "High Scores", "Credits", "Quit"};
+        for (int i = 0; i < labels.length; i++) {
+            buttons[i] = new JButton(labels[i]);
+            buttons[i].setBounds(cx, sy + 70 * i, btnW, btnH);
+            buttons[i].setFont(MENU_FONT);
+            menu.add(buttons[i]);
         }
+
+        // Instructions
+        JLabel instr = new JLabel("<html><div style='text-align:center'>Use Arrow Keys or WASD to move.<br>" +
+                "Avoid hitting yourself or the wall.<br>Press Restart or Main Menu after Game Over.</div></html>");
+        instr.setForeground(Color.WHITE);
+        instr.setFont(INSTRUCTIONS_FONT);
+        instr.setHorizontalAlignment(SwingConstants.CENTER);
+        instr.setBounds(0, sy + 280, size.width, 80);
+        menu.add(instr);
+        return menu;
     }
 
-    /** * Moves the snake by prepending a new head and deleting the tail.
-     * This is the linked list equivalent of shifting the body.
-     */
-    void move() {
+    /** Headless --startup-profile: paints the menu, then a new game's first frame, into offscreen images (EDT) */
+    private static void profileOffscreen() {
         try {
-            if (head == null) return;
-
-            // 1. Calculate new head position
-            Point currentHeadPos = head.position;
-            Point newHeadPos = new Point(currentHeadPos.x + dir.x, currentHeadPos.y + dir.y);
-            
-            // 2. Prepend a new head node (O(1) operation)
-            SegmentNode newHead = new SegmentNode(newHeadPos);
-            newHead.next = head;
-            head = newHead;
-            snakeLength++;
-            
-            // 3. Delete the tail node (O(N) operation for SLL)
-            if (!shouldGrowNextMove) {
-                // Traverse to the node BEFORE the current tail
-                SegmentNode current = head;
-                // Stop when current.next is the tail (current.next.next == null)
-                while (current.next != null && current.next.next != null) {
-                    current = current.next;
-                }
-                
-                // If snake has only 1 segment, head.next will be null, and we do nothing here.
-                if (current.next != null) {
-                    current.next = null; // Detach the old tail
-                    tail = current;       // Update the new tail
-                    snakeLength--;
-                }
-            } else {
-                // If we are growing, we skip tail deletion and reset the flag
-                shouldGrowNextMove = false; 
-            }
-
+            JPanel menu = createMenu(new JButton[4], null);
+            BufferedImage img = new BufferedImage(menu.getWidth(), menu.getHeight(), BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = img.createGraphics();
+            menu.paint(g); // Marks MENU_PAINTED
+
+            AASnakeGame panel = new AASnakeGame();
+            panel.setSize(panel.getPreferredSize());
+            StartupProfile.mark(StartupProfile.GAME_PANEL);
+            panel.startGame("Normal"); // No countdown while profiling
+            panel.paint(g); // Marks FIRST_GAME_FRAME, which prints the timeline and exits
+            g.dispose();
         } catch (Exception ex) {
             ex.printStackTrace();
         }
     }
 
-    /** Signals to the next move cycle that the snake should grow. */
-    void grow() {
-        shouldGrowNextMove = true;
-    }
-
-    /** Returns the position of the head segment. */
-    Point snakeHead() { 
-        // Note: The head is guaranteed to be non-null when game is running.
-        return head.position; 
-    }
-
-    /** Checks for collision with walls or self. */
-    boolean checkCollision() {
-        if (head == null) return true;
-        
-        Point headPos = head.position;
-        
-        // Wall collision
-        if (headPos.x < 0 || headPos.y < 0 || headPos.x >= cols || headPos.y >= rows) return true;
-        
-        // Self collision (Start check from the second segment: head.next)
-        SegmentNode current = head.next; 
-        while (current != null) {
-            if (current.position.equals(headPos)) return true;
-            current = current.next;
-        }
-        return false;
-    }
-
-    /** Changes the direction, preventing immediate 180-degree turns. */
-    void changeDirection(int dx, int dy) {
-        if (head == null) return;
-        
-        // We only check for a 180 turn if the snake has more than one segment.
-        if (head.next != null) { 
-            Point nextPos = head.next.position;
-            Point headPos = head.position;
-            
-            // If the potential new position is the same as the second segment's current position, 
-            // it means we are trying to reverse (180 degree turn).
-            if (nextPos.x == headPos.x + dx && nextPos.y == headPos.y + dy) return;
-        }
-        dir = new Point(dx, dy);
-    }
-
-    /** Draws the snake and food via manual list traversal. */
-    void draw(Graphics g, int offsetY) {
-        // Draw snake
-        SegmentNode current = head;
-        while (current != null) {
-            Point p = current.position;
-            g.setColor(new Color(0, 150, 0)); // Snake outline
-            g.fillRect(p.x * cell, offsetY + p.y * cell, cell, cell);
-            g.setColor(new Color(0, 200, 0)); // Main body
-            g.fillRect(p.x * cell + 2, offsetY + p.y * cell + 2, cell - 4, cell - 4);
-            
-            current = current.next;
-        }
-
-        // Draw food
-        g.setColor(Color.RED.darker());
-        g.fillOval(food.x * cell + 3, offsetY + food.y * cell + 3, cell - 6, cell - 6);
-        g.setColor(Color.PINK);
-        g.fillOval(food.x * cell + 4, offsetY + food.y * cell + 4, 3, 3);
+    /** Background warm-up: font lookup and glyph rasterization, the sprite atlas and the engine classes */
+    private static void warmUp() {
+        try {
+            BufferedImage img = new BufferedImage(64, 64, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = img.createGraphics();
+            for (Font f : new Font[] {TITLE_FONT, MENU_FONT, INSTRUCTIONS_FONT, STATS_FONT, BUTTON_FONT}) {
+                g.setFont(f);
+                g.drawString("SNAKE GAME Score: 0123456789", 0, 40);
+            }
+            g.dispose();
+            SpriteAtlas.ensure(null, CELL_SIZE, SpriteAtlas.CLASSIC); // Kept for the first renderer to pick up
+            new CustomSnakeLogic(8, 8, 1L).createSnake(3);
+        } catch (Exception ex) {
+            ex.printStackTrace();
+        }
     }
 }
\ No newline at end of file
@@ -0,0 +1,517 @@
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Shared board for the multiplayer arena: up to maxSnakes snakes, one per
+ * slot, competing for foodCount food items under the single-player rules.
+ * Slots are held by network players or by bots (ArenaBot).
+ *
+ * A tick turns every live snake (reversals ignored), pops the tails of the
+ * ones that are not growing, then moves all heads at once: a head that
+ * lands on a body, a wall or another head kills its snake, whose cells
+ * become free. Eaten food respawns on a random free cell, and dead snakes
+ * respawn RESPAWN_TICKS later where there is room. Slots are processed in
+ * ascending order with one seeded SnakeRandom, so a seed and the same
+ * steering give the same arena.
+ *
+ * With a ForkJoinPool (useThreads) the per-snake and per-cell work of a
+ * tick runs in parallel phases: intent (bots decide from the board as the
+ * last tick left it, everyone turns, tails are popped), conflicts and moves.
+ * Conflicts and moves split the board into stripes of whole occupancy words,
+ * so every cell, claim and food item has one owning thread. Everything
+ * order-sensitive (the free-cell set, the random numbers, events) is then
+ * committed serially in slot order, so any thread count plays exactly the
+ * same arena as one thread.
+ *
+ * The server records what each tick changed (moves, deaths, spawns, food)
+ * for ArenaProtocol to broadcast; clients keep a mirror Arena and replay
+ * those changes through the apply methods instead of calling tick().
+ * Not thread-safe: only tick() uses the pool's threads, internally.
+ */
+final class Arena {
+    static final int START_LENGTH = 3;
+    static final int RESPAWN_TICKS = 20;
+    private static final int SPAWN_TRIES = 16;
+    private static final int CHUNK_SLOTS = 64;      // Slots per intent task
+    private static final int TARGET_STRIPES = 64;   // Board stripes for the conflict and move phases
+    private static final int INTENT = 0, CONFLICTS = 1, MOVES = 2;
+
+    final int cols, rows, maxSnakes, foodCount;
+
+    // ==== SLOTS ====
+    private final SnakeBody[] bodies;
+    private final int[] heading;      // Current heading as an action (UP .. RIGHT)
+    private final int[] steer;        // Latest action received since the last tick, NONE if none
+    private final boolean[] joined;   // A client holds the slot
+    private final boolean[] bot;      // ...and it is an ArenaBot, which steers itself every tick
+    private final boolean[] alive;    // The snake is on the board
+    private final boolean[] growNext; // Keep the tail on the next move
+    private final long[] respawnAt;   // Tick at which a joined, dead snake comes back
+
+    // ==== BOARD ====
+    private final OccupancyGrid occupancy;
+    private final FreeCellSet free;
+    private final int[] foods;   // Food cell per food item, -1 while there is none
+    private final int[] foodAt;  // Food item + 1 per cell, 0 if no food
+    private final SnakeRandom rand;
+    private long tick;
+
+    // ==== TICK SCRATCH ====
+    private final int[] target;    // Cell each live snake moves into, -1 if it leaves the board
+    private final int[] claimTick; // Per cell: tick stamp of the first head that claimed it
+    private final int[] claimSlot; // Per cell: slot of that head
+    private final boolean[] dies;
+    private final int[] tailCell;  // Tail popped this tick, -1 if none
+    private final int[] code;      // Move event code of each survivor
+
+    // ==== PARALLEL PHASES ====
+    // Slot chunks and board stripes depend on the arena's size only, never on the thread count.
+    // Per chunk, heads and tails are counting-sorted by stripe (stably, so slots stay ascending)
+    private final int chunks, stripes, stripeCells;
+    private final int[] headOrder, tailOrder; // Slots of each chunk, grouped by the stripe of their target / tail
+    private final int[] headStart, tailStart; // chunk * (stripes + 1) + stripe: where a group starts; + 1 ends it
+    private final int[] fill;                 // Cursor per chunk and stripe while sorting
+    private final int[] stripeDelta;          // Occupied-count change per stripe, summed after each phase
+    private ForkJoinPool pool;                // null: phases run on the calling thread
+    private int stamp;
+
+    // ==== EVENTS OF THE LAST TICK (read by ArenaProtocol) ====
+    final int[] moveSlot, moveCode; // Code: heading - 1, plus 4 if the tail stayed (growing)
+    final int[] deadSlot, spawnSlot, foodChanged;
+    int moveCount, deadCount, spawnCount, foodChangedCount;
+
+    Arena(int cols, int rows, int maxSnakes, int foodCount, long seed) {
+        // The wire format (ArenaProtocol) has 16-bit sizes and slots and 8-bit food items
+        if (cols < 8 || rows < 8 || cols > 0xFFFF || rows > 0xFFFF || (long) cols * rows > FreeCellSet.MAX_CELLS) {
+            throw new IllegalArgumentException("Arena board must be 8x8 to " + FreeCellSet.MAX_CELLS + " cells: " + cols + "x" + rows);
+        }
+        if (maxSnakes < 1 || maxSnakes > 0xFFFF || foodCount < 1 || foodCount > 0xFF) {
+            throw new IllegalArgumentException("Bad arena limits: " + maxSnakes + " snakes, " + foodCount + " food");
+        }
+        this.cols = cols;
+        this.rows = rows;
+        this.maxSnakes = maxSnakes;
+        this.foodCount = foodCount;
+        int cells = cols * rows;
+        bodies = new SnakeBody[maxSnakes];
+        for (int s = 0; s < maxSnakes; s++) bodies[s] = new SnakeBody(16);
+        heading = new int[maxSnakes];
+        steer = new int[maxSnakes];
+        joined = new boolean[maxSnakes];
+        bot = new boolean[maxSnakes];
+        alive = new boolean[maxSnakes];
+        growNext = new boolean[maxSnakes];
+        respawnAt = new long[maxSnakes];
+        occupancy = new OccupancyGrid(cols, rows);
+        free = new FreeCellSet(cells);
+        foods = new int[foodCount];
+        java.util.Arrays.fill(foods, -1);
+        foodAt = new int[cells];
+        rand = new SnakeRandom(seed);
+        target = new int[maxSnakes];
+        claimTick = new int[cells];
+        claimSlot = new int[cells];
+        dies = new boolean[maxSnakes];
+        tailCell = new int[maxSnakes];
+        code = new int[maxSnakes];
+        chunks = (maxSnakes + CHUNK_SLOTS - 1) / CHUNK_SLOTS;
+        int words = (cells + 63) >>> 6;
+        stripeCells = 64 * ((words + TARGET_STRIPES - 1) / TARGET_STRIPES);
+        stripes = (cells + stripeCells - 1) / stripeCells;
+        headOrder = new int[maxSnakes];
+        tailOrder = new int[maxSnakes];
+        headStart = new int[chunks * (stripes + 1)];
+        tailStart = new int[chunks * (stripes + 1)];
+        fill = new int[chunks * stripes];
+        stripeDelta = new int[stripes];
+        moveSlot = new int[maxSnakes];
+        moveCode = new int[maxSnakes];
+        deadSlot = new int[maxSnakes];
+        spawnSlot = new int[maxSnakes];
+        foodChanged = new int[foodCount];
+    }
+
+    // ==== SERVER SIDE ====
+
+    /** Takes a free slot for a new player, whose snake spawns on the next tick; -1 if the arena is full. */
+    int join() {
+        for (int s = 0; s < maxSnakes; s++) {
+            if (joined[s] || alive[s]) continue; // A leaver's snake stays until the next tick removes it
+            joined[s] = true;
+            bot[s] = false;
+            steer[s] = CustomSnakeLogic.NONE;
+            respawnAt[s] = tick + 1;
+            return s;
+        }
+        return -1;
+    }
+
+    /** Takes a free slot for a bot; -1 if the arena is full. */
+    int joinBot() {
+        int s = join();
+        if (s >= 0) bot[s] = true;
+        return s;
+    }
+
+    /** Runs the parallel phases of tick() on the pool, or on the calling thread with null. */
+    void useThreads(ForkJoinPool pool) {
+        this.pool = pool;
+    }
+
+    /** Gives the slot up; its snake is removed on the next tick. */
+    void leave(int slot) {
+        joined[slot] = false;
+    }
+
+    /** Records an action for the slot's next move; the latest one before a tick wins. */
+    void steer(int slot, int action) {
+        if (action >= CustomSnakeLogic.UP && action <= CustomSnakeLogic.RIGHT) steer[slot] = action;
+    }
+
+    /** Plays one tick and records its events. */
+    void tick() {
+        tick++;
+        moveCount = deadCount = spawnCount = foodChangedCount = 0;
+        stamp = (int) tick;
+
+        // 1. Intent: bots decide, snakes turn and pick a target cell, tails leave
+        //    (so following another snake's tail is safe)
+        runPhase(INTENT, chunks);
+
+        // Leavers go (serially: their bodies may cross stripes)
+        for (int s = 0; s < maxSnakes; s++) {
+            if (alive[s] && !joined[s]) {
+                kill(s);
+                deadSlot[deadCount++] = s;
+            }
+        }
+
+        // 2. Conflicts: walls were found above; bodies and head-on collisions per stripe
+        runPhase(CONFLICTS, stripes);
+        // 3. Survivors move and eat
+        runPhase(MOVES, stripes);
+
+        // 4. Commit in slot order: the free-cell set, deaths and events
+        for (int s = 0; s < maxSnakes; s++) {
+            if (tailCell[s] >= 0) free.add(tailCell[s]);
+        }
+        for (int s = 0; s < maxSnakes; s++) {
+            if (!alive[s]) continue;
+            if (dies[s]) {
+                kill(s);
+                deadSlot[deadCount++] = s;
+                continue;
+            }
+            moveSlot[moveCount] = s;
+            moveCode[moveCount++] = code[s];
+            free.remove(target[s]);
+        }
+
+        // 5. Respawns, then food for every empty food item
+        for (int s = 0; s < maxSnakes; s++) {
+            if (joined[s] && !alive[s] && tick >= respawnAt[s] && spawn(s)) spawnSlot[spawnCount++] = s;
+        }
+        for (int f = 0; f < foodCount; f++) {
+            if (foods[f] < 0 && placeFood(f)) foodChanged[foodChangedCount++] = f;
+        }
+    }
+
+    /** Runs a phase over n chunks or stripes, split across the pool if there is one. */
+    private void runPhase(int phase, int n) {
+        if (pool == null) runRange(phase, 0, n);
+        else pool.invoke(new PhaseTask(phase, 0, n));
+        if (phase == INTENT) return;
+        int delta = 0;
+        for (int st = 0; st < stripes; st++) delta += stripeDelta[st];
+        occupancy.addCount(delta);
+    }
+
+    private void runRange(int phase, int from, int to) {
+        for (int i = from; i < to; i++) {
+            switch (phase) {
+                case INTENT -> intent(i);
+                case CONFLICTS -> conflicts(i);
+                default -> moves(i);
+            }
+        }
+    }
+
+    /** Splits a phase in halves down to single chunks or stripes. */
+    private final class PhaseTask extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final int phase, from, to;
+
+        PhaseTask(int phase, int from, int to) {
+            this.phase = phase;
+            this.from = from;
+            this.to = to;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= 1) {
+                runRange(phase, from, to);
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new PhaseTask(phase, from, mid), new PhaseTask(phase, mid, to));
+        }
+    }
+
+    /** Intent for one chunk of slots; only reads the board, writes per-slot state. */
+    private void intent(int chunk) {
+        int lo = chunk * CHUNK_SLOTS, hi = Math.min(maxSnakes, lo + CHUNK_SLOTS);
+        for (int s = lo; s < hi; s++) {
+            target[s] = -1;
+            tailCell[s] = -1;
+            dies[s] = false;
+            if (!alive[s] || !joined[s]) continue;
+            int a = bot[s] ? ArenaBot.decide(this, s) : steer[s];
+            steer[s] = CustomSnakeLogic.NONE;
+            if (a != CustomSnakeLogic.NONE && !reverses(s, a)) heading[s] = a;
+            target[s] = neighbour(bodies[s].headCell(), heading[s]);
+            if (target[s] < 0) dies[s] = true;
+            if (!growNext[s]) tailCell[s] = bodies[s].popTail();
+        }
+        group(chunk, lo, hi, target, headOrder, headStart);
+        group(chunk, lo, hi, tailCell, tailOrder, tailStart);
+    }
+
+    /** Stable counting sort of a chunk's slots with a cell >= 0 by the stripe of that cell. */
+    private void group(int chunk, int lo, int hi, int[] cellOf, int[] order, int[] start) {
+        int base = chunk * (stripes + 1), cursor = chunk * stripes;
+        for (int st = 0; st <= stripes; st++) start[base + st] = 0;
+        for (int s = lo; s < hi; s++) {
+            if (cellOf[s] >= 0) start[base + cellOf[s] / stripeCells + 1]++;
+        }
+        start[base] = lo;
+        for (int st = 0; st < stripes; st++) {
+            start[base + st + 1] += start[base + st];
+            fill[cursor + st] = start[base + st];
+        }
+        for (int s = lo; s < hi; s++) {
+            if (cellOf[s] >= 0) order[fill[cursor + cellOf[s] / stripeCells]++] = s;
+        }
+    }
+
+    /** Frees the stripe's popped tails, then settles its target cells in slot order. */
+    private void conflicts(int st) {
+        int delta = 0;
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int base = chunk * (stripes + 1) + st;
+            for (int i = tailStart[base]; i < tailStart[base + 1]; i++) delta -= occupancy.clearOwned(tailCell[tailOrder[i]]);
+        }
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int base = chunk * (stripes + 1) + st;
+            for (int i = headStart[base]; i < headStart[base + 1]; i++) {
+                int s = headOrder[i], c = target[s];
+                if (occupancy.isOccupied(c)) {
+                    dies[s] = true;
+                } else if (claimTick[c] == stamp) {
+                    dies[s] = true;
+                    dies[claimSlot[c]] = true; // Same cell, so the same stripe
+                } else {
+                    claimTick[c] = stamp;
+                    claimSlot[c] = s;
+                }
+            }
+        }
+        stripeDelta[st] = delta;
+    }
+
+    /** Moves the survivors whose target lies in the stripe; eaten food belongs to the stripe too. */
+    private void moves(int st) {
+        int delta = 0;
+        for (int chunk = 0; chunk < chunks; chunk++) {
+            int base = chunk * (stripes + 1) + st;
+            for (int i = headStart[base]; i < headStart[base + 1]; i++) {
+                int s = headOrder[i], c = target[s];
+                if (dies[s]) continue;
+                code[s] = heading[s] - 1 + (growNext[s] ? 4 : 0);
+                bodies[s].pushHead(c);
+                delta += occupancy.setOwned(c);
+                growNext[s] = foodAt[c] != 0;
+                if (growNext[s]) {
+                    int f = foodAt[c] - 1;
+                    foodAt[c] = 0;
+                    foods[f] = -1;
+                }
+            }
+        }
+        stripeDelta[st] = delta;
+    }
+
+    private boolean reverses(int s, int action) {
+        SnakeBody b = bodies[s];
+        return b.length() > 1 && neighbour(b.headCell(), action) == b.segmentAt(1);
+    }
+
+    /** Removes a snake's cells from the board and schedules its respawn. */
+    private void kill(int s) {
+        SnakeBody b = bodies[s];
+        for (int i = 0, n = b.length(); i < n; i++) {
+            int c = b.segmentAt(i);
+            occupancy.clear(c);
+            free.add(c);
+        }
+        b.clear();
+        alive[s] = false;
+        growNext[s] = false;
+        respawnAt[s] = tick + RESPAWN_TICKS;
+    }
+
+    /** Tries a few random spots with room for the body and two cells ahead of it. */
+    private boolean spawn(int s) {
+        for (int i = 0; i < SPAWN_TRIES; i++) {
+            int head = free.sample(rand);
+            if (head < 0) return false;
+            int dir = CustomSnakeLogic.UP + rand.nextInt(4);
+            int back = opposite(dir);
+            if (!roomy(neighbour(head, dir), dir, 2) || !roomy(head, back, START_LENGTH)) continue;
+            SnakeBody b = bodies[s];
+            for (int k = 0, c = head; k < START_LENGTH; k++, c = neighbour(c, back)) {
+                b.pushTail(c);
+                occupancy.set(c);
+                free.remove(c);
+            }
+            heading[s] = dir;
+            alive[s] = true;
+            return true;
+        }
+        return false;
+    }
+
+    /** True if n cells from c onwards in direction dir are on the board, free and without food. */
+    private boolean roomy(int c, int dir, int n) {
+        for (int k = 0; k < n; k++, c = neighbour(c, dir)) {
+            if (c < 0 || occupancy.isOccupied(c) || foodAt[c] != 0) return false;
+        }
+        return true;
+    }
+
+    private boolean placeFood(int f) {
+        for (int i = 0; i < SPAWN_TRIES; i++) {
+            int c = free.sample(rand);
+            if (c < 0) return false;
+            if (foodAt[c] != 0) continue;
+            setFood(f, c);
+            return true;
+        }
+        return false;
+    }
+
+    // ==== MIRROR SIDE (ArenaProtocol.apply) ====
+
+    /** Drops every snake and food, e.g. before reading a snapshot. */
+    void clear() {
+        for (int s = 0; s < maxSnakes; s++) {
+            bodies[s].clear();
+            alive[s] = false;
+        }
+        occupancy.clearAll();
+        free.reset();
+        for (int f = 0; f < foodCount; f++) setFood(f, -1);
+    }
+
+    void setTick(long tick) { this.tick = tick; }
+
+    /** Pops a moving snake's tail; done for every move before any head moves, as in tick(). */
+    void applyTail(int slot) {
+        int t = bodies[slot].popTail();
+        occupancy.clear(t);
+        free.add(t);
+    }
+
+    /** Pushes a moving snake's head one cell in the given heading. */
+    void applyHead(int slot, int action) {
+        int c = neighbour(bodies[slot].headCell(), action);
+        heading[slot] = action;
+        bodies[slot].pushHead(c);
+        occupancy.set(c);
+        free.remove(c);
+        if (foodAt[c] != 0) setFood(foodAt[c] - 1, -1);
+    }
+
+    /** Removes a snake; a no-op if it is already gone. */
+    void applyDeath(int slot) {
+        if (alive[slot]) kill(slot);
+    }
+
+    /** Starts a snake at the given cell; applyPlace adds the rest of the body behind it. */
+    void applySpawn(int slot, int action) {
+        if (alive[slot]) kill(slot);
+        alive[slot] = true;
+        heading[slot] = action;
+    }
+
+    /** Appends one body cell behind the tail of a snake being placed. */
+    void applyPlace(int slot, int cell) {
+        bodies[slot].pushTail(cell);
+        occupancy.set(cell);
+        free.remove(cell);
+    }
+
+    /** Moves food item f to a cell, or removes it with -1. */
+    void setFood(int f, int cell) {
+        if (foods[f] >= 0 && foodAt[foods[f]] == f + 1) foodAt[foods[f]] = 0;
+        foods[f] = cell;
+        if (cell >= 0) foodAt[cell] = f + 1;
+    }
+
+    // ==== QUERIES ====
+
+    long currentTick() { return tick; }
+
+    boolean isAlive(int slot) { return alive[slot]; }
+
+    int heading(int slot) { return heading[slot]; }
+
+    int length(int slot) { return bodies[slot].length(); }
+
+    /** Points scored by the snake's current life: 5 per segment grown. */
+    int score(int slot) { return Math.max(0, bodies[slot].length() - START_LENGTH) * 5; }
+
+    /** Packed cell of the i-th segment from the head. */
+    int segmentAt(int slot, int i) { return bodies[slot].segmentAt(i); }
+
+    int food(int f) { return foods[f]; }
+
+    boolean isOccupiedCell(int c) { return occupancy.isOccupied(c); }
+
+    /** Live snakes on the board. */
+    int aliveCount() {
+        int n = 0;
+        for (int s = 0; s < maxSnakes; s++) if (alive[s]) n++;
+        return n;
+    }
+
+    /** Hash of the visible state (tick, bodies, food), for checking a mirror against the server. */
+    long checksum() {
+        long h = tick;
+        for (int s = 0; s < maxSnakes; s++) {
+            if (!alive[s]) continue;
+            h = h * 31 + s;
+            SnakeBody b = bodies[s];
+            for (int i = 0, n = b.length(); i < n; i++) h = h * 31 + b.segmentAt(i);
+        }
+        for (int f = 0; f < foodCount; f++) h = h * 31 + foods[f];
+        return h;
+    }
+
+    /** Cell next to c in the direction of an action, -1 off the board. */
+    int neighbour(int c, int action) {
+        int x = c % cols + CustomSnakeLogic.ACTION_DX[action];
+        int y = c / cols + CustomSnakeLogic.ACTION_DY[action];
+        if (x < 0 || y < 0 || x >= cols || y >= rows) return -1;
+        return y * cols + x;
+    }
+
+    private static int opposite(int action) {
+        return switch (action) {
+            case CustomSnakeLogic.UP -> CustomSnakeLogic.DOWN;
+            case CustomSnakeLogic.DOWN -> CustomSnakeLogic.UP;
+            case CustomSnakeLogic.LEFT -> CustomSnakeLogic.RIGHT;
+            default -> CustomSnakeLogic.LEFT;
+        };
+    }
+}
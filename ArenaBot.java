@@ -0,0 +1,67 @@
+/**
+ * Steering for computer-controlled arena snakes.
+ *
+ * Heads for the nearest food item (Manhattan distance) and, among the moves
+ * that do not run into a wall or a body, prefers the one that gets closest
+ * while keeping room around the new head: cells with no free neighbour are
+ * dead ends and only taken when nothing else is left. Other snakes' next
+ * moves are not predicted, so head-on collisions still happen.
+ *
+ * decide() only reads the arena, so Arena can call it for many snakes at
+ * once from several threads. Ties go to the current heading, then to the
+ * lower action, so the choice depends on nothing but the board.
+ */
+final class ArenaBot {
+    private static final int DEAD_END = 1 << 20;
+
+    private ArenaBot() {}
+
+    /** The action the bot in slot s takes on the next tick. */
+    static int decide(Arena a, int s) {
+        int head = a.segmentAt(s, 0), neck = a.length(s) > 1 ? a.segmentAt(s, 1) : -1;
+        int target = nearestFood(a, head);
+        int heading = a.heading(s);
+
+        int best = heading, bestCost = Integer.MAX_VALUE;
+        for (int action = CustomSnakeLogic.UP; action <= CustomSnakeLogic.RIGHT; action++) {
+            int c = a.neighbour(head, action);
+            if (c < 0 || c == neck || a.isOccupiedCell(c)) continue;
+            int room = room(a, c);
+            int cost = (target < 0 ? 0 : distance(a, c, target)) * 4 - room + (room == 0 ? DEAD_END : 0);
+            if (cost < bestCost || (cost == bestCost && action == heading)) {
+                best = action;
+                bestCost = cost;
+            }
+        }
+        return best;
+    }
+
+    /** Food cell closest to c, -1 if there is no food on the board. */
+    private static int nearestFood(Arena a, int c) {
+        int best = -1, bestDist = Integer.MAX_VALUE;
+        for (int f = 0; f < a.foodCount; f++) {
+            int fc = a.food(f);
+            if (fc < 0) continue;
+            int d = distance(a, c, fc);
+            if (d < bestDist) {
+                best = fc;
+                bestDist = d;
+            }
+        }
+        return best;
+    }
+
+    /** Free cells next to c (0 to 4). */
+    private static int room(Arena a, int c) {
+        int n = 0;
+        for (int action = CustomSnakeLogic.UP; action <= CustomSnakeLogic.RIGHT; action++) {
+            int nb = a.neighbour(c, action);
+            if (nb >= 0 && !a.isOccupiedCell(nb)) n++;
+        }
+        return n;
+    }
+
+    private static int distance(Arena a, int c1, int c2) {
+        return Math.abs(c1 % a.cols - c2 % a.cols) + Math.abs(c1 / a.cols - c2 / a.cols);
+    }
+}
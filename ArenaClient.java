@@ -0,0 +1,109 @@
+import java.io.EOFException;
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Connection to an ArenaServer for the game's client mode: a blocking
+ * socket read by one thread that applies every frame to a mirror Arena.
+ *
+ * The reader holds the arena's monitor while it applies a frame, so the
+ * painter can lock the same monitor to see whole ticks only. Key presses
+ * go out as single action bytes from whatever thread calls steer().
+ */
+final class ArenaClient implements Runnable {
+    final Arena arena;
+    final int slot;
+
+    private final SocketChannel ch;
+    private final ByteBuffer header = ByteBuffer.allocate(4);
+    private ByteBuffer body = ByteBuffer.allocate(64 * 1024); // Grows to the largest frame
+    private final ByteBuffer out = ByteBuffer.allocate(1);
+    private Runnable onFrame;
+    private volatile boolean closed;
+
+    /** Connects and reads the SNAPSHOT, so the arena is ready when this returns. */
+    static ArenaClient connect(String host, int port) throws IOException {
+        SocketChannel ch = SocketChannel.open(new InetSocketAddress(host, port));
+        ch.setOption(StandardSocketOptions.TCP_NODELAY, true);
+        return new ArenaClient(ch);
+    }
+
+    private ArenaClient(SocketChannel ch) throws IOException {
+        this.ch = ch;
+        byte type = readFrame();
+        if (type != ArenaProtocol.SNAPSHOT) throw new IOException("Expected a snapshot, got frame type " + type);
+        int[] size = ArenaProtocol.peekSnapshot(body);
+        arena = new Arena(size[0], size[1], size[2], size[3], 0);
+        slot = size[4];
+        ArenaProtocol.apply(arena, type, body);
+    }
+
+    /** Starts the reader thread; onFrame runs on it after every applied frame. */
+    void start(Runnable onFrame) {
+        this.onFrame = onFrame;
+        Thread t = new Thread(this, "arena-client");
+        t.setDaemon(true);
+        t.start();
+    }
+
+    @Override
+    public void run() {
+        try {
+            while (!closed) {
+                byte type = readFrame();
+                synchronized (arena) {
+                    ArenaProtocol.apply(arena, type, body);
+                }
+                onFrame.run();
+            }
+        } catch (IOException ex) {
+            if (!closed) System.out.println("Arena connection lost: " + ex.getMessage());
+            closed = true;
+            onFrame.run();
+        }
+    }
+
+    /** Sends a steering action (CustomSnakeLogic.UP .. RIGHT). */
+    synchronized void steer(int action) {
+        if (closed) return;
+        try {
+            out.clear();
+            out.put((byte) action).flip();
+            ch.write(out);
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    boolean isClosed() { return closed; }
+
+    void close() {
+        closed = true;
+        try {
+            ch.close();
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    /** Reads one whole frame into body (positioned after the type byte) and returns its type. */
+    private byte readFrame() throws IOException {
+        header.clear();
+        fill(header);
+        int len = header.getInt(0);
+        if (len > body.capacity()) body = ByteBuffer.allocate(Integer.highestOneBit(len) << 1);
+        body.clear().limit(len);
+        fill(body);
+        body.flip();
+        return body.get();
+    }
+
+    private void fill(ByteBuffer buf) throws IOException {
+        while (buf.hasRemaining()) {
+            if (ch.read(buf) < 0) throw new EOFException("server closed the connection");
+        }
+    }
+}
@@ -0,0 +1,93 @@
+import javax.swing.*;
+import java.awt.*;
+import java.awt.event.KeyAdapter;
+import java.awt.event.KeyEvent;
+import java.awt.image.BufferedImage;
+
+/**
+ * Client-mode view of a shared arena (AASnakeGame --connect host:port).
+ *
+ * Paints the mirror Arena of an ArenaClient whenever a frame arrives: the
+ * player's own snake in the usual greens, everyone else in a colour picked
+ * by slot, and the food. Arrow keys and WASD steer through the client. The
+ * whole board is repainted per frame; arena boards are small enough that a
+ * back buffer like BoardRenderer's would not pay for itself here.
+ */
+class ArenaPanel extends JPanel {
+    private static final long serialVersionUID = 1L;
+    private static final int STATS_HEIGHT = 30;
+    private static final Font STATS_FONT = new Font("Arial", Font.PLAIN, 16);
+    private static final Color[] OTHERS = new Color[12];
+
+    static {
+        for (int i = 0; i < OTHERS.length; i++) OTHERS[i] = Color.getHSBColor(0.55f + i / 16f, 0.6f, 0.9f);
+    }
+
+    private final ArenaClient client;
+    private final int cell;
+    private final BufferedImage foodSprite;
+
+    ArenaPanel(ArenaClient client) {
+        this.client = client;
+        Arena a = client.arena;
+        this.cell = Math.max(2, Math.min(25, Math.min(1000 / a.cols, 625 / a.rows)));
+        this.foodSprite = BoardRenderer.createFoodSprite(cell);
+        setPreferredSize(new Dimension(a.cols * cell, a.rows * cell + STATS_HEIGHT));
+        setBackground(Color.BLACK);
+        setFocusable(true);
+        addKeyListener(new KeyAdapter() {
+            @Override
+            public void keyPressed(KeyEvent e) {
+                switch (e.getKeyCode()) {
+                    case KeyEvent.VK_UP, KeyEvent.VK_W -> client.steer(CustomSnakeLogic.UP);
+                    case KeyEvent.VK_DOWN, KeyEvent.VK_S -> client.steer(CustomSnakeLogic.DOWN);
+                    case KeyEvent.VK_LEFT, KeyEvent.VK_A -> client.steer(CustomSnakeLogic.LEFT);
+                    case KeyEvent.VK_RIGHT, KeyEvent.VK_D -> client.steer(CustomSnakeLogic.RIGHT);
+                    default -> { }
+                }
+            }
+        });
+    }
+
+    @Override
+    protected void paintComponent(Graphics g) {
+        super.paintComponent(g);
+        Arena a = client.arena;
+        int players, score;
+        long tick;
+        boolean alive;
+        synchronized (a) {
+            for (int f = 0; f < a.foodCount; f++) {
+                int c = a.food(f);
+                if (c >= 0) g.drawImage(foodSprite, (c % a.cols) * cell, STATS_HEIGHT + (c / a.cols) * cell, null);
+            }
+            for (int s = 0; s < a.maxSnakes; s++) {
+                if (!a.isAlive(s)) continue;
+                Color outline = s == client.slot ? BoardRenderer.SNAKE_OUTLINE : OTHERS[s % OTHERS.length].darker();
+                Color fill = s == client.slot ? BoardRenderer.SNAKE_BODY : OTHERS[s % OTHERS.length];
+                for (int i = 0, n = a.length(s); i < n; i++) {
+                    int c = a.segmentAt(s, i);
+                    int px = (c % a.cols) * cell, py = STATS_HEIGHT + (c / a.cols) * cell;
+                    g.setColor(i == 0 ? Color.WHITE : outline);
+                    g.fillRect(px, py, cell, cell);
+                    if (cell > 4) {
+                        g.setColor(fill);
+                        g.fillRect(px + 1, py + 1, cell - 2, cell - 2);
+                    }
+                }
+            }
+            players = a.aliveCount();
+            score = a.score(client.slot);
+            tick = a.currentTick();
+            alive = a.isAlive(client.slot);
+        }
+
+        g.setColor(Color.DARK_GRAY);
+        g.fillRect(0, 0, getWidth(), STATS_HEIGHT);
+        g.setColor(Color.WHITE);
+        g.setFont(STATS_FONT);
+        String status = client.isClosed() ? "disconnected" : alive ? "score " + score : "respawning...";
+        g.drawString("Arena  |  slot " + client.slot + "  |  " + status + "  |  " + players + " snakes  |  tick " + tick,
+                10, 21);
+    }
+}
@@ -0,0 +1,142 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Binary wire format between ArenaServer and its clients, big-endian.
+ *
+ * Every server message is a frame: an int length (of what follows) and a
+ * type byte. A client gets one SNAPSHOT when it joins, then a TICK per
+ * arena tick carrying only what that tick changed:
+ *
+ *   SNAPSHOT  cols u16, rows u16, maxSnakes u16, foodCount u8, yourSlot u16, tick i32,
+ *             foodCount x food cell i32, live u16, live x (slot u16, heading u8, length i32, cells i32 head first)
+ *   TICK      tick i32, server nanoTime i64,
+ *             deaths u16 x slot u16,
+ *             moves u16 x (slot u16, code u8: heading - 1, +4 if the tail stayed),
+ *             spawns u16 x (slot u16, heading u8, START_LENGTH cells i32 head first),
+ *             food u8 x (item u8, cell i32)
+ *
+ * A move is 3 bytes: the client pushes the head one cell in the heading and
+ * pops the tail unless the growth bit is set, so a steady arena costs 3
+ * bytes per snake per tick plus the 20-byte header. Clients send single
+ * action bytes (CustomSnakeLogic.UP .. RIGHT).
+ */
+final class ArenaProtocol {
+    static final byte SNAPSHOT = 1, TICK = 2;
+    static final int FRAME_HEADER = 5; // Length + type
+    private static final int SPAWN_BYTES = 3 + 4 * Arena.START_LENGTH;
+
+    private ArenaProtocol() {}
+
+    /** Largest TICK frame for an arena: everyone moves, dies or spawns at once. */
+    static int maxTickBytes(Arena a) {
+        return FRAME_HEADER + 4 + 8 + 2 + 2 * a.maxSnakes + 2 + 3 * a.maxSnakes
+                + 2 + SPAWN_BYTES * a.maxSnakes + 1 + 5 * a.foodCount;
+    }
+
+    /** Largest SNAPSHOT frame for an arena: the board full of snakes. */
+    static int maxSnapshotBytes(Arena a) {
+        return FRAME_HEADER + 15 + 4 * a.foodCount + 2 + 7 * a.maxSnakes + 4 * a.cols * a.rows;
+    }
+
+    /** Writes the events of the arena's last tick as one TICK frame. */
+    static void writeTick(Arena a, ByteBuffer out, long nanos) {
+        int start = out.position();
+        out.putInt(0).put(TICK);
+        out.putInt((int) a.currentTick()).putLong(nanos);
+        out.putShort((short) a.deadCount);
+        for (int i = 0; i < a.deadCount; i++) out.putShort((short) a.deadSlot[i]);
+        out.putShort((short) a.moveCount);
+        for (int i = 0; i < a.moveCount; i++) {
+            out.putShort((short) a.moveSlot[i]).put((byte) a.moveCode[i]);
+        }
+        out.putShort((short) a.spawnCount);
+        for (int i = 0; i < a.spawnCount; i++) {
+            int s = a.spawnSlot[i];
+            out.putShort((short) s).put((byte) a.heading(s));
+            for (int k = 0; k < Arena.START_LENGTH; k++) out.putInt(a.segmentAt(s, k));
+        }
+        out.put((byte) a.foodChangedCount);
+        for (int i = 0; i < a.foodChangedCount; i++) {
+            int f = a.foodChanged[i];
+            out.put((byte) f).putInt(a.food(f));
+        }
+        out.putInt(start, out.position() - start - 4);
+    }
+
+    /** Writes the whole arena as one SNAPSHOT frame for a client in the given slot. */
+    static void writeSnapshot(Arena a, int yourSlot, ByteBuffer out) {
+        int start = out.position();
+        out.putInt(0).put(SNAPSHOT);
+        out.putShort((short) a.cols).putShort((short) a.rows).putShort((short) a.maxSnakes);
+        out.put((byte) a.foodCount).putShort((short) yourSlot).putInt((int) a.currentTick());
+        for (int f = 0; f < a.foodCount; f++) out.putInt(a.food(f));
+        out.putShort((short) a.aliveCount());
+        for (int s = 0; s < a.maxSnakes; s++) {
+            if (!a.isAlive(s)) continue;
+            int n = a.length(s);
+            out.putShort((short) s).put((byte) a.heading(s)).putInt(n);
+            for (int i = 0; i < n; i++) out.putInt(a.segmentAt(s, i));
+        }
+        out.putInt(start, out.position() - start - 4);
+    }
+
+    /**
+     * Reads the arena size from a SNAPSHOT frame body (positioned after the
+     * type byte) without consuming it: {cols, rows, maxSnakes, foodCount, yourSlot}.
+     */
+    static int[] peekSnapshot(ByteBuffer in) {
+        int p = in.position();
+        return new int[] {in.getShort(p) & 0xFFFF, in.getShort(p + 2) & 0xFFFF, in.getShort(p + 4) & 0xFFFF,
+                in.get(p + 6) & 0xFF, in.getShort(p + 7) & 0xFFFF};
+    }
+
+    /**
+     * Applies one frame body (positioned after the type byte) to a mirror
+     * arena of the right size. Deaths go first so a freed cell is never
+     * cleared after a head moved into it.
+     */
+    static void apply(Arena a, byte type, ByteBuffer in) {
+        if (type == SNAPSHOT) {
+            in.position(in.position() + 9);
+            a.clear();
+            a.setTick(in.getInt());
+            for (int f = 0; f < a.foodCount; f++) a.setFood(f, in.getInt());
+            for (int k = 0, live = in.getShort() & 0xFFFF; k < live; k++) {
+                int s = in.getShort() & 0xFFFF;
+                a.applySpawn(s, in.get());
+                for (int i = 0, n = in.getInt(); i < n; i++) a.applyPlace(s, in.getInt());
+            }
+            return;
+        }
+        a.setTick(in.getInt());
+        in.getLong();
+        for (int i = 0, n = in.getShort() & 0xFFFF; i < n; i++) a.applyDeath(in.getShort() & 0xFFFF);
+
+        // Moves: all tails, then all heads, the same order as Arena.tick()
+        int moves = in.getShort() & 0xFFFF, p = in.position();
+        for (int i = 0; i < moves; i++) {
+            int s = in.getShort() & 0xFFFF, code = in.get();
+            if ((code & 4) == 0) a.applyTail(s);
+        }
+        in.position(p);
+        for (int i = 0; i < moves; i++) {
+            int s = in.getShort() & 0xFFFF, code = in.get();
+            a.applyHead(s, (code & 3) + 1);
+        }
+
+        for (int i = 0, n = in.getShort() & 0xFFFF; i < n; i++) {
+            int s = in.getShort() & 0xFFFF;
+            a.applySpawn(s, in.get());
+            for (int k = 0; k < Arena.START_LENGTH; k++) a.applyPlace(s, in.getInt());
+        }
+        for (int i = 0, n = in.get() & 0xFF; i < n; i++) {
+            int f = in.get() & 0xFF;
+            a.setFood(f, in.getInt());
+        }
+    }
+
+    /** Server nanoTime stamped into a TICK frame body (positioned after the type byte). */
+    static long tickNanos(ByteBuffer in) {
+        return in.getLong(in.position() + 4);
+    }
+}
@@ -0,0 +1,286 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.ServerSocketChannel;
+import java.nio.channels.SocketChannel;
+import java.util.concurrent.ForkJoinPool;
+import java.util.function.Consumer;
+
+/**
+ * Hosts one Arena for clients on loopback TCP, on a single thread around
+ * an NIO Selector: accepts, non-blocking reads of action bytes, the tick
+ * itself and the broadcast all happen on that thread, so the arena needs
+ * no locks.
+ *
+ * Each tick is encoded once (ArenaProtocol TICK) into a direct buffer and
+ * written to every client. Whatever a socket does not take right away is
+ * copied to that client's backlog and flushed on OP_WRITE; a client whose
+ * backlog passes MAX_BACKLOG_BYTES is dropped rather than slowing everyone
+ * else. A steady single-threaded tick allocates nothing. Run with
+ *   java -cp out ArenaServer [port] [cols]x[rows] [maxSnakes] [tickMs] [bots] [threads]
+ * and join with java -cp out AASnakeGame --connect localhost:7777. Bots
+ * take slots up front; threads above 1 run the arena's tick phases on a
+ * ForkJoinPool.
+ */
+final class ArenaServer implements Runnable {
+    static final int DEFAULT_PORT = 7777;
+    private static final int MAX_BACKLOG_BYTES = 1 << 20;
+    private static final long REPORT_NANOS = 10_000_000_000L;
+
+    final Arena arena;
+    private final long tickNanos;
+    private final Selector selector;
+    private final ServerSocketChannel server;
+    private final Client[] clients; // By slot
+    private volatile boolean running = true;
+    boolean printReports; // Print report() every 10 s, set before run()
+
+    // ==== BUFFERS (reused) ====
+    private final ByteBuffer frame;    // The current TICK frame, sent to everyone
+    private final ByteBuffer snapshot; // A SNAPSHOT for the client that just joined
+    private final ByteBuffer readBuf = ByteBuffer.allocateDirect(256);
+    private final Consumer<SelectionKey> onKey = this::handle;
+
+    // ==== STATS (server thread; read after stop() or in reports) ====
+    final LatencyHistogram tickTime = new LatencyHistogram(); // arena.tick + encode + broadcast
+    private long ticks, bytesSent, startNanos;
+    private int connected, dropped;
+    private volatile boolean resetRequested;
+
+    private static final class Client {
+        final SocketChannel ch;
+        final SelectionKey key;
+        final int slot;
+        ByteBuffer backlog; // Bytes the socket has not taken yet (write mode), created on first use
+
+        Client(SocketChannel ch, SelectionKey key, int slot) {
+            this.ch = ch;
+            this.key = key;
+            this.slot = slot;
+        }
+    }
+
+    /** Binds to the loopback port (0 picks a free one, see {@link #port()}). */
+    ArenaServer(Arena arena, int port, int tickMillis) throws IOException {
+        this.arena = arena;
+        this.tickNanos = tickMillis * 1_000_000L;
+        this.clients = new Client[arena.maxSnakes];
+        this.frame = ByteBuffer.allocateDirect(ArenaProtocol.maxTickBytes(arena));
+        this.snapshot = ByteBuffer.allocateDirect(ArenaProtocol.maxSnapshotBytes(arena));
+        this.selector = Selector.open();
+        this.server = ServerSocketChannel.open();
+        server.bind(new InetSocketAddress(InetAddress.getLoopbackAddress(), port), 1024);
+        server.configureBlocking(false);
+        server.register(selector, SelectionKey.OP_ACCEPT);
+    }
+
+    int port() throws IOException {
+        return ((InetSocketAddress) server.getLocalAddress()).getPort();
+    }
+
+    /** Asks the loop to finish; it closes every connection on the way out. */
+    void stop() {
+        running = false;
+        selector.wakeup();
+    }
+
+    @Override
+    public void run() {
+        startNanos = System.nanoTime();
+        long next = startNanos + tickNanos, nextReport = startNanos + REPORT_NANOS;
+        try {
+            while (running) {
+                long wait = next - System.nanoTime();
+                if (wait > 0) selector.select(onKey, Math.max(1, wait / 1_000_000));
+                else selector.selectNow(onKey);
+
+                long now = System.nanoTime();
+                if (now - next >= 0) {
+                    tick(now);
+                    next += tickNanos;
+                    if (now - next > tickNanos) next = now + tickNanos; // Too far behind; drop ticks
+                }
+                if (printReports && now - nextReport >= 0) {
+                    System.out.println(report());
+                    nextReport += REPORT_NANOS;
+                }
+            }
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        } finally {
+            for (Client c : clients) if (c != null) close(c);
+            try {
+                server.close();
+                selector.close();
+            } catch (IOException ex) {
+                ex.printStackTrace();
+            }
+        }
+    }
+
+    private void tick(long start) {
+        if (resetRequested) {
+            tickTime.reset();
+            ticks = bytesSent = 0;
+            startNanos = start;
+            resetRequested = false;
+        }
+        arena.tick();
+        frame.clear();
+        ArenaProtocol.writeTick(arena, frame, start);
+        frame.flip();
+        int size = frame.limit();
+        for (Client c : clients) {
+            if (c == null) continue;
+            frame.position(0);
+            send(c, frame);
+            bytesSent += size;
+        }
+        ticks++;
+        tickTime.record(System.nanoTime() - start);
+    }
+
+    private void handle(SelectionKey key) {
+        try {
+            if (key.isAcceptable()) {
+                accept();
+                return;
+            }
+            Client c = (Client) key.attachment();
+            if (key.isReadable()) read(c);
+            if (key.isValid() && key.isWritable()) flush(c);
+        } catch (IOException ex) {
+            // A reset connection is a normal way for a client to go
+            if (key.attachment() != null) close((Client) key.attachment());
+        }
+    }
+
+    private void accept() throws IOException {
+        SocketChannel ch;
+        while ((ch = server.accept()) != null) {
+            int slot = arena.join();
+            if (slot < 0) {
+                ch.close(); // Arena full
+                continue;
+            }
+            ch.configureBlocking(false);
+            ch.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            Client c = new Client(ch, ch.register(selector, SelectionKey.OP_READ), slot);
+            c.key.attach(c);
+            clients[slot] = c;
+            connected++;
+            snapshot.clear();
+            ArenaProtocol.writeSnapshot(arena, slot, snapshot);
+            snapshot.flip();
+            bytesSent += snapshot.limit();
+            send(c, snapshot);
+        }
+    }
+
+    /** Takes every action byte the client sent; the latest valid one steers its snake. */
+    private void read(Client c) throws IOException {
+        readBuf.clear();
+        int n = c.ch.read(readBuf);
+        if (n < 0) {
+            close(c);
+            return;
+        }
+        for (int i = 0; i < n; i++) arena.steer(c.slot, readBuf.get(i));
+    }
+
+    /** Writes data to the client, queueing what the socket does not take. */
+    private void send(Client c, ByteBuffer data) {
+        if (!c.key.isValid()) return;
+        try {
+            if (c.backlog == null || c.backlog.position() == 0) c.ch.write(data); // Otherwise keep the order
+            if (!data.hasRemaining()) return;
+            ByteBuffer b = c.backlog;
+            if (b == null || b.remaining() < data.remaining()) {
+                int need = (b == null ? 0 : b.position()) + data.remaining();
+                if (need > MAX_BACKLOG_BYTES) {
+                    dropped++;
+                    close(c);
+                    return;
+                }
+                ByteBuffer grown = ByteBuffer.allocate(Math.min(MAX_BACKLOG_BYTES, Math.max(need * 2, 16 * 1024)));
+                if (b != null) grown.put(b.flip());
+                c.backlog = b = grown;
+            }
+            b.put(data);
+            c.key.interestOps(SelectionKey.OP_READ | SelectionKey.OP_WRITE);
+        } catch (IOException ex) {
+            close(c);
+        }
+    }
+
+    private void flush(Client c) throws IOException {
+        ByteBuffer b = c.backlog;
+        b.flip();
+        c.ch.write(b);
+        b.compact();
+        if (b.position() == 0) c.key.interestOps(SelectionKey.OP_READ);
+    }
+
+    private void close(Client c) {
+        if (clients[c.slot] != c) return;
+        clients[c.slot] = null;
+        arena.leave(c.slot);
+        connected--;
+        c.key.cancel();
+        try {
+            c.ch.close();
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    // ==== STATS ====
+
+    long ticks() { return ticks; }
+
+    long bytesSent() { return bytesSent; }
+
+    int connected() { return connected; }
+
+    int dropped() { return dropped; }
+
+    /** Restarts the tick, byte and time counters on the next tick, e.g. after a warm-up. */
+    void resetStats() {
+        resetRequested = true;
+    }
+
+    String report() {
+        double secs = (System.nanoTime() - startNanos) / 1e9;
+        return String.format("%d clients (%d dropped), %d ticks, %.1f KB/s out (%.0f B/tick/client)%n%s",
+                connected, dropped, ticks, bytesSent / secs / 1e3,
+                ticks == 0 || connected == 0 ? 0.0 : (double) bytesSent / ticks / connected, tickTime.summary("Tick"));
+    }
+
+    /** Food items for an arena of maxSnakes: one per four snakes, within the protocol's limit. */
+    static int defaultFood(int maxSnakes) {
+        return Math.max(1, Math.min(255, maxSnakes / 4));
+    }
+
+    public static void main(String[] args) throws IOException {
+        int port = args.length > 0 ? Integer.parseInt(args[0]) : DEFAULT_PORT;
+        String board = args.length > 1 ? args[1] : "100x60";
+        int maxSnakes = args.length > 2 ? Integer.parseInt(args[2]) : 64;
+        int tickMs = args.length > 3 ? Integer.parseInt(args[3]) : 100;
+        int bots = args.length > 4 ? Integer.parseInt(args[4]) : 0;
+        int threads = args.length > 5 ? Integer.parseInt(args[5]) : 1;
+        int x = board.indexOf('x');
+        Arena arena = new Arena(Integer.parseInt(board.substring(0, x)), Integer.parseInt(board.substring(x + 1)),
+                maxSnakes, defaultFood(maxSnakes), System.nanoTime());
+        for (int i = 0; i < bots; i++) arena.joinBot();
+        if (threads > 1) arena.useThreads(new ForkJoinPool(threads));
+        ArenaServer s = new ArenaServer(arena, port, tickMs);
+        s.printReports = true;
+        System.out.printf("Arena %s for %d snakes (%d bots) on port %d, tick %d ms, %d thread(s)%n",
+                board, maxSnakes, bots, s.port(), tickMs, threads);
+        s.run();
+    }
+}
@@ -0,0 +1,306 @@
+/**
+ * Built-in AI driver: plans a shortest path to the food with A* and only
+ * takes it if the tail is still reachable once the food is eaten, so the
+ * snake does not box itself in. Otherwise it chases its own tail. Once the
+ * snake covers a good part of the board it switches to a Hamiltonian cycle
+ * (when the board has one) as soon as a whole lap of the cycle is clear,
+ * which wins every game from there.
+ *
+ * The searches are time-aware: a body segment blocks its cell only until
+ * the tail has moved past it, so paths may run through cells that will be
+ * free by the time the head gets there. Every search structure (queue,
+ * parent and distance arrays, visited and free-time marks) is a primitive
+ * array allocated once for the board and reused; marks carry a generation
+ * stamp instead of being cleared, so a decision costs only the cells it
+ * visits and never allocates. Every pass over the body or the board checks
+ * the per-decision budget as it goes, and a decision that runs past it is
+ * abandoned in favour of the cycle move (or the greedy move if that one
+ * dies), so games are only reproducible from their seed with an unlimited
+ * budget (Long.MAX_VALUE).
+ * Decision latency is recorded for {@link #latencyReport()}.
+ */
+final class Autopilot implements SnakePolicy {
+    static final long DEFAULT_BUDGET_NANOS = 500_000L;
+    static final double DEFAULT_CYCLE_FILL = 0.25; // Board fill ratio from which the cycle may take over
+    static final int MAX_CELLS = 1_000_000; // Eight ints per cell of scratch; 32 MB at the limit
+
+    private static final int NOT_FOUND = -1, OVER_BUDGET = -2;
+    private static final int CLOCK_MASK = 255; // Passes read the clock every 256 cells
+
+    final int cols, rows;
+    private final long budgetNanos;
+    private final HamiltonianCycle cycle; // null on odd x odd boards
+    private final int cycleLength;        // Snake length from which the cycle is followed
+
+    // ==== SEARCH SCRATCH ====
+    private final int[] queue, queue2, parent, dist, path;
+    private final int[] seen;              // == seenGen: visited in the current search
+    private final int[] freeAt, freeMark;  // Moves until a body cell is free, valid where freeMark == freeGen
+    private int seenGen, freeGen;
+    private long deadline;
+    private boolean late; // A pass gave up at the deadline; its marks are incomplete
+
+    private final SnakePolicy fallback = new SnakePolicy.Greedy();
+
+    // ==== LATENCY STATS ====
+    private long decisions, overBudget, cycleMoves;
+    private final LatencyHistogram latency = new LatencyHistogram();
+
+    Autopilot(int cols, int rows) {
+        this(cols, rows, DEFAULT_BUDGET_NANOS, DEFAULT_CYCLE_FILL);
+    }
+
+    Autopilot(int cols, int rows, long budgetNanos, double cycleFill) {
+        this.cols = cols;
+        this.rows = rows;
+        this.budgetNanos = budgetNanos;
+        if ((long) cols * rows > MAX_CELLS) {
+            throw new IllegalArgumentException("Autopilot supports boards up to " + MAX_CELLS + " cells");
+        }
+        int cells = cols * rows;
+        this.cycle = HamiltonianCycle.supports(cols, rows) ? new HamiltonianCycle(cols, rows) : null;
+        this.cycleLength = (int) Math.min(cells, Math.ceil(cells * cycleFill));
+        queue = new int[cells];
+        queue2 = new int[cells];
+        parent = new int[cells];
+        dist = new int[cells];
+        path = new int[cells];
+        seen = new int[cells];
+        freeAt = new int[cells];
+        freeMark = new int[cells];
+    }
+
+    @Override
+    public int decide(CustomSnakeLogic game) {
+        if (game.cols != cols || game.rows != rows) {
+            throw new IllegalArgumentException("Autopilot is for a " + cols + "x" + rows + " board, not "
+                    + game.cols + "x" + game.rows);
+        }
+        long t0 = System.nanoTime();
+        deadline = t0 + budgetNanos;
+        late = false;
+        int action = plan(game);
+        decisions++;
+        latency.record(System.nanoTime() - t0);
+        return action;
+    }
+
+    private int plan(CustomSnakeLogic game) {
+        int head = game.headCell();
+        int n = game.length();
+
+        int grow = game.willGrow() ? 1 : 0;
+        markBody(game, n, grow);
+        if (late) return budgetFallback(game);
+
+        // Long snake: ride the cycle whenever its next step keeps the tail reachable. A whole lap
+        // without a detour leaves the body laid along the cycle, and from then on it can no longer lose
+        if (cycle != null && n >= cycleLength) {
+            int next = cycle.next(head);
+            boolean clear = cycleIsClear(head, n + grow);
+            if (late) return budgetFallback(game);
+            if (clear) {
+                cycleMoves++;
+                return actionTo(game, head, next);
+            }
+            if (n > 1 && next != game.segmentAt(1) && (freeMark[next] != freeGen || freeAt[next] <= 1)) {
+                path[0] = next;
+                boolean safe = tailReachableAfter(game, 1, n + grow);
+                if (late) return budgetFallback(game);
+                if (safe) {
+                    cycleMoves++;
+                    return actionTo(game, head, next);
+                }
+                markBody(game, n, grow);
+                if (late) return budgetFallback(game);
+            }
+        }
+
+        // 1. Shortest path to the food, taken only if the tail stays reachable afterwards
+        if (game.food >= 0) {
+            int k = search(head, game.food, game.segmentAt(Math.min(1, n - 1)));
+            if (k == OVER_BUDGET) return budgetFallback(game);
+            if (k > 0) {
+                int c = game.food;
+                for (int i = 0; i < k; i++) {
+                    path[i] = c;
+                    c = parent[c];
+                }
+                boolean safe = tailReachableAfter(game, k, n + grow);
+                if (late) return budgetFallback(game);
+                if (safe) return actionTo(game, head, path[k - 1]);
+                markBody(game, n, grow); // The check overwrote the free times
+                if (late) return budgetFallback(game);
+            }
+        }
+
+        // 2. No safe path: follow the tail, which always opens up again
+        if (n > 1) {
+            int tail = game.tailCell();
+            int k = search(head, tail, game.segmentAt(1));
+            if (k == OVER_BUDGET) return budgetFallback(game);
+            if (k > 0) {
+                int c = tail;
+                while (parent[c] != head) c = parent[c];
+                return actionTo(game, head, c);
+            }
+        }
+
+        // 3. Boxed in: survive this tick if at all possible
+        return fallback.decide(game);
+    }
+
+    /**
+     * Builds the body as it will be right after eating: the k path cells
+     * (head first) followed by the front of the current body, len cells in
+     * all, with the tail held one extra move for the growth. True if the
+     * head can then still reach the tail; false with late set when out of time.
+     */
+    private boolean tailReachableAfter(CustomSnakeLogic game, int k, int len) {
+        nextFreeGen();
+        for (int i = 0; i < len; i++) {
+            if (outOfTime(i)) return false;
+            int c = i < k ? path[i] : game.segmentAt(i - k);
+            freeAt[c] = len - i + 1;
+            freeMark[c] = freeGen;
+        }
+        int tail = len - 1 < k ? path[len - 1] : game.segmentAt(len - 1 - k);
+        int neck = len > 1 ? (k > 1 ? path[1] : game.segmentAt(0)) : -1;
+        int r = search(path[0], tail, neck);
+        return r > 0;
+    }
+
+    /**
+     * True if following the cycle for the next moves never enters a
+     * body cell before its segment has left. After that many moves the body
+     * lies along the cycle, and from then on the check keeps passing.
+     * False with late set when out of time.
+     */
+    private boolean cycleIsClear(int head, int moves) {
+        int idx = cycle.indexOf(head);
+        for (int j = 1; j <= moves; j++) {
+            if (outOfTime(j)) return false;
+            int c = cycle.cellAt(idx + j);
+            if (freeMark[c] == freeGen && freeAt[c] > j) return false;
+        }
+        return true;
+    }
+
+    /**
+     * Stamps the free time of every body segment: segment i leaves after
+     * len - i moves (+1 while growing). Stops with late set when out of time.
+     */
+    private void markBody(CustomSnakeLogic game, int len, int grow) {
+        nextFreeGen();
+        for (int i = 0; i < len; i++) {
+            if (outOfTime(i)) return;
+            int c = game.segmentAt(i);
+            freeAt[c] = len - i + grow;
+            freeMark[c] = freeGen;
+        }
+    }
+
+    /**
+     * Time-aware A* from start to goal over 4-neighbours with the Manhattan
+     * distance as heuristic. With unit steps f only ever stays or grows by 2,
+     * so the open set is two FIFO buckets (current f and f + 2) instead of a
+     * heap. A cell is passable at distance d if it is not body or its
+     * segment has left by then; blocked (usually the neck) is never entered.
+     * Returns the path length with parent[] filled, NOT_FOUND or OVER_BUDGET.
+     */
+    private int search(int start, int goal, int blocked) {
+        nextSeenGen();
+        int gx = goal % cols, gy = goal / cols;
+        int[] cur = queue, next = queue2;
+        int ch = 0, ct = 0, nt = 0;
+        seen[start] = seenGen;
+        dist[start] = 0;
+        cur[ct++] = start;
+        if (blocked >= 0 && blocked != goal) seen[blocked] = seenGen;
+
+        int popped = 0;
+        while (true) {
+            if (ch == ct) {
+                if (nt == 0) return NOT_FOUND;
+                int[] t = cur; cur = next; next = t; // Move on to the next f level
+                ch = 0; ct = nt; nt = 0;
+            }
+            if (outOfTime(++popped)) return OVER_BUDGET;
+            int c = cur[ch++];
+            int d = dist[c] + 1;
+            int x = c % cols, y = c / cols;
+            for (int dir = 0; dir < 4; dir++) {
+                int nc;
+                boolean closer; // Step towards the goal keeps f, a step away adds 2
+                switch (dir) {
+                    case 0: if (y == 0) continue; nc = c - cols; closer = gy < y; break;
+                    case 1: if (y == rows - 1) continue; nc = c + cols; closer = gy > y; break;
+                    case 2: if (x == 0) continue; nc = c - 1; closer = gx < x; break;
+                    default: if (x == cols - 1) continue; nc = c + 1; closer = gx > x; break;
+                }
+                if (seen[nc] == seenGen) continue;
+                if (freeMark[nc] == freeGen && freeAt[nc] > d) continue; // Still body at that time; may open later
+                seen[nc] = seenGen;
+                parent[nc] = c;
+                dist[nc] = d;
+                if (nc == goal) return d;
+                if (closer) cur[ct++] = nc;
+                else next[nt++] = nc;
+            }
+        }
+    }
+
+    /** Reads the clock on every 256th step i of a pass and sets late once the deadline has passed. */
+    private boolean outOfTime(int i) {
+        if ((i & CLOCK_MASK) != CLOCK_MASK) return false;
+        if (System.nanoTime() > deadline) late = true;
+        return late;
+    }
+
+    /** Out of time: the cycle move if it does not die this tick, else the greedy move, which avoids that too. */
+    private int budgetFallback(CustomSnakeLogic game) {
+        overBudget++;
+        if (cycle != null) {
+            int head = game.headCell();
+            int a = actionTo(game, head, cycle.next(head));
+            if (!game.isFatal(a)) return a;
+        }
+        return fallback.decide(game);
+    }
+
+    /** Action that moves the head from one cell to a 4-neighbour. */
+    private int actionTo(CustomSnakeLogic game, int from, int to) {
+        int dx = game.cellX(to) - game.cellX(from), dy = game.cellY(to) - game.cellY(from);
+        if (dx < 0) return CustomSnakeLogic.LEFT;
+        if (dx > 0) return CustomSnakeLogic.RIGHT;
+        return dy < 0 ? CustomSnakeLogic.UP : CustomSnakeLogic.DOWN;
+    }
+
+    private void nextSeenGen() {
+        if (++seenGen == Integer.MAX_VALUE) {
+            java.util.Arrays.fill(seen, 0);
+            seenGen = 1;
+        }
+    }
+
+    private void nextFreeGen() {
+        if (++freeGen == Integer.MAX_VALUE) {
+            java.util.Arrays.fill(freeMark, 0);
+            freeGen = 1;
+        }
+    }
+
+    long decisions() { return decisions; }
+
+    /**
+     * Human-readable decision latency summary. The tail percentiles show the
+     * budget at work; the max also includes the thread being descheduled.
+     */
+    String latencyReport() {
+        if (decisions == 0) return "Autopilot: no decisions";
+        return String.format("Autopilot over %d decisions: mean %.1f us, p99 %.1f us, p99.9 %.1f us, max %.1f us, "
+                        + "over budget %d, cycle moves %d",
+                decisions, latency.mean() / 1e3, latency.percentile(0.99) / 1e3, latency.percentile(0.999) / 1e3,
+                latency.max() / 1e3, overBudget, cycleMoves);
+    }
+}
@@ -0,0 +1,129 @@
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.function.Supplier;
+
+/**
+ * Plays large batches of independent seeded games across all cores, for
+ * tuning the difficulty settings (base delay, level cap and the score / 5
+ * speed-up curve).
+ *
+ * The seed range is split recursively on a work-stealing ForkJoinPool. Each
+ * worker thread gets its own policy instance and its own GameStats
+ * accumulator, and these are merged once at the end. Game i always uses
+ * seed + i and the totals are exact integers, so results are identical for
+ * any thread count. Usage:
+ *   java -cp out BatchSimulator [games] [maxThreads] [difficulty] [cols] [rows] [seed]
+ */
+public class BatchSimulator {
+
+    private static final int LEAF_GAMES = 32; // Games per task before it stops splitting
+
+    private final int cols, rows;
+    private final SpeedCurve speed;
+    private final Supplier<SnakePolicy> policies;
+
+    BatchSimulator(int cols, int rows, SpeedCurve speed, Supplier<SnakePolicy> policies) {
+        this.cols = cols;
+        this.rows = rows;
+        this.speed = speed;
+        this.policies = policies;
+    }
+
+    /** Plays games seed .. seed + games - 1 on the given number of threads and returns the merged totals. */
+    GameStats run(int games, long seed, int threads) {
+        // Thread-local accumulators, registered so they can be merged after the pool finishes
+        ConcurrentLinkedQueue<Worker> workers = new ConcurrentLinkedQueue<>();
+        ThreadLocal<Worker> local = ThreadLocal.withInitial(() -> {
+            Worker w = new Worker(policies.get());
+            workers.add(w);
+            return w;
+        });
+
+        ForkJoinPool pool = new ForkJoinPool(threads);
+        try {
+            pool.invoke(new Range(seed, 0, games, local));
+        } finally {
+            pool.shutdown();
+        }
+
+        GameStats total = new GameStats();
+        for (Worker w : workers) total.merge(w.stats);
+        return total;
+    }
+
+    /** Per-thread policy and stats; never shared between threads. */
+    private static final class Worker {
+        final SnakePolicy policy;
+        final GameStats stats = new GameStats();
+
+        Worker(SnakePolicy policy) {
+            this.policy = policy;
+        }
+    }
+
+    /** Half-open range of game indices, split in two until small enough to play directly. */
+    private final class Range extends RecursiveAction {
+        private static final long serialVersionUID = 1L;
+        private final long seed;
+        private final int from, to;
+        private final ThreadLocal<Worker> local;
+
+        Range(long seed, int from, int to, ThreadLocal<Worker> local) {
+            this.seed = seed;
+            this.from = from;
+            this.to = to;
+            this.local = local;
+        }
+
+        @Override
+        protected void compute() {
+            if (to - from <= LEAF_GAMES) {
+                Worker w = local.get();
+                for (int i = from; i < to; i++) {
+                    HeadlessRunner.playOut(cols, rows, seed + i, w.policy, speed, w.stats);
+                }
+                return;
+            }
+            int mid = (from + to) >>> 1;
+            invokeAll(new Range(seed, from, mid, local), new Range(seed, mid, to, local));
+        }
+    }
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 20_000;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        String difficulty = args.length > 2 ? args[2] : "Normal";
+        int cols = args.length > 3 ? Integer.parseInt(args[3]) : 40;
+        int rows = args.length > 4 ? Integer.parseInt(args[4]) : 25;
+        long seed = args.length > 5 ? Long.parseLong(args[5]) : 1L;
+
+        SpeedCurve speed = new SpeedCurve(SpeedCurve.baseDelayFor(difficulty), 40, 30);
+        BatchSimulator sim = new BatchSimulator(cols, rows, speed, SnakePolicy.Greedy::new);
+
+        // Warm up the JIT on all threads before timing
+        sim.run(Math.max(LEAF_GAMES, games / 10), seed ^ 0x5DEECE66DL, maxThreads);
+
+        System.out.printf("%d games per run on %dx%d, %s (base delay %d ms), seed %d%n",
+                games, cols, rows, difficulty, speed.baseDelay, seed);
+        System.out.printf("%8s %10s %14s %10s %14s%n", "threads", "seconds", "ticks/s", "speedup", "deterministic");
+
+        GameStats reference = null;
+        double baseline = 0;
+        // Thread counts 1, 2, 4, ... up to maxThreads
+        for (int threads = 1; ; threads = Math.min(maxThreads, threads * 2)) {
+            long t0 = System.nanoTime();
+            GameStats stats = sim.run(games, seed, threads);
+            double secs = (System.nanoTime() - t0) / 1e9;
+            double tps = stats.ticks / secs;
+            if (reference == null) {
+                reference = stats;
+                baseline = tps;
+            }
+            System.out.printf("%8d %10.2f %14.0f %9.2fx %14s%n", threads, secs, tps, tps / baseline,
+                    stats.sameAs(reference) ? "yes" : "NO");
+            if (threads >= maxThreads) break;
+        }
+        System.out.println(reference.summary());
+    }
+}
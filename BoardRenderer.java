@@ -0,0 +1,110 @@
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Persistent back buffer of the playing field.
+ *
+ * Instead of redrawing every segment each frame, the game panel repaints
+ * only the cells a tick changed (new head, vacated tail, old and new food)
+ * into this image and then copies the matching screen rectangles from it.
+ * Cells are blitted from a SpriteAtlas rather than filled with primitives.
+ * All drawing of the game lives here; CustomSnakeLogic has no AWT types.
+ */
+class BoardRenderer {
+
+    // Shared paint colors, created once instead of per segment
+    static final Color SNAKE_OUTLINE = new Color(0, 150, 0);
+    static final Color SNAKE_BODY = new Color(0, 200, 0);
+    static final Color FOOD = Color.RED.darker();
+    static final Color FOOD_SHINE = Color.PINK;
+
+    final int cols, rows, cell;
+    private final BufferedImage board;
+    private final Graphics2D g;
+    private final BufferedImage foodSprite;
+    private SpriteAtlas atlas;
+
+    BoardRenderer(int cols, int rows, int cell) {
+        this.cols = cols;
+        this.rows = rows;
+        this.cell = cell;
+        this.board = new BufferedImage(cols * cell, rows * cell, BufferedImage.TYPE_INT_RGB);
+        this.g = board.createGraphics();
+        // fillOval allocates a shape per call, so the food is rendered once and blitted
+        this.foodSprite = createFoodSprite(cell);
+        this.atlas = SpriteAtlas.ensure(null, cell, SpriteAtlas.CLASSIC);
+    }
+
+    /** Switches to another atlas (theme) of the same cell size; call redrawAll afterwards. */
+    void setAtlas(SpriteAtlas atlas) {
+        if (atlas.cell != cell) throw new IllegalArgumentException("atlas is for cell " + atlas.cell + ", not " + cell);
+        this.atlas = atlas;
+    }
+
+    /** The back buffer, board pixel (0, 0) being the top-left cell. */
+    BufferedImage image() { return board; }
+
+    /** Repaints the whole field from the model, used when a game (re)starts. */
+    void redrawAll(CustomSnakeLogic game) {
+        g.setColor(Color.BLACK);
+        g.fillRect(0, 0, board.getWidth(), board.getHeight());
+        for (int c = 0, n = cols * rows; c < n; c++) {
+            if (game.isOccupiedCell(c) || c == game.food) paintCell(game, c);
+        }
+    }
+
+    /** Repaints a single cell to whatever the model says is on it now. */
+    void paintCell(CustomSnakeLogic game, int c) {
+        if (c < 0) return;
+        g.drawImage(atlas.sprite(game, c), (c % cols) * cell, (c / cols) * cell, null);
+    }
+
+    /**
+     * Draws the whole snake and the food straight onto g, one segment at a
+     * time with primitive fills. This is the classic per-frame path, kept
+     * as the baseline in RenderBenchmark and SpriteBenchmark.
+     */
+    void drawFull(Graphics g, CustomSnakeLogic game, int offsetY) {
+        // Draw snake
+        for (int i = 0, n = game.length(); i < n; i++) {
+            int c = game.segmentAt(i);
+            int px = game.cellX(c) * cell, py = offsetY + game.cellY(c) * cell;
+            g.setColor(SNAKE_OUTLINE); // Snake outline
+            g.fillRect(px, py, cell, cell);
+            g.setColor(SNAKE_BODY); // Main body
+            g.fillRect(px + 2, py + 2, cell - 4, cell - 4);
+        }
+
+        // Draw food (none left once the board is full)
+        if (game.food < 0) return;
+        g.drawImage(foodSprite, game.cellX(game.food) * cell, offsetY + game.cellY(game.food) * cell, null);
+    }
+
+    /** Same picture as drawFull (plus head and tail shapes), but every segment is one sprite blit. */
+    void drawSprites(Graphics g, CustomSnakeLogic game, int offsetY) {
+        int n = game.length();
+        for (int i = 0; i < n; i++) {
+            int c = game.segmentAt(i);
+            BufferedImage sprite = i == 0 ? atlas.head(game.currentAction())
+                    : i == n - 1 ? atlas.tail(SpriteAtlas.actionBetween(game, c, game.segmentAt(i - 1)))
+                    : atlas.body;
+            g.drawImage(sprite, game.cellX(c) * cell, offsetY + game.cellY(c) * cell, null);
+        }
+        if (game.food < 0) return;
+        g.drawImage(atlas.food, game.cellX(game.food) * cell, offsetY + game.cellY(game.food) * cell, null);
+    }
+
+    /** Renders the food (red apple with a pink shine) into a transparent cell-sized image. */
+    static BufferedImage createFoodSprite(int cell) {
+        BufferedImage img = new BufferedImage(cell, cell, BufferedImage.TYPE_INT_ARGB);
+        Graphics g = img.getGraphics();
+        g.setColor(FOOD);
+        g.fillOval(3, 3, cell - 6, cell - 6);
+        g.setColor(FOOD_SHINE);
+        g.fillOval(4, 4, 3, 3);
+        g.dispose();
+        return img;
+    }
+}
@@ -0,0 +1,416 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Core Snake Logic: the pure game rules, with no AWT or Swing types.
+ *
+ * The body lives in a SnakeBody ring buffer of packed cell indices
+ * (y * cols + x); the SegmentNode list is kept as a read-only compatibility
+ * view built by hand, still without java.util collections. Each game owns a
+ * seedable SnakeRandom, so the same seed and the same actions always give
+ * the same game. AASnakeGame is one consumer; HeadlessRunner is another.
+ */
+class CustomSnakeLogic {
+
+    // ==== ACTIONS for step() ====
+    static final int NONE = 0, UP = 1, DOWN = 2, LEFT = 3, RIGHT = 4;
+    static final int[] ACTION_DX = {0, 0, 0, -1, 1};
+    static final int[] ACTION_DY = {0, -1, 1, 0, 0};
+
+    // ==== OUTCOMES of step() ====
+    static final int MOVED = 0, ATE = 1, DIED = 2, WON = 3;
+
+    final int cols, rows;
+    int score = 0;
+
+    // Food cell as packed index, -1 when there is none (board full)
+    int food = -1;
+    
+    // Circular buffer of packed cells: O(1) push-head / pop-tail / grow
+    private final SnakeBody body;
+
+    // Bitset of cells covered by the body, kept in sync by move()
+    private final OccupancyGrid occupancy;
+
+    // Complement of the occupancy grid, used to pick food cells: a dense FreeCellSet
+    // up to FreeCellSet.MAX_CELLS, a FreeCellIndex over the grid's words beyond that
+    private final FreeCells freeCells;
+
+    // Giant boards keep only the body in save states; the grid and the index follow from it
+    private final boolean compactState;
+
+    // Set when spawnFood() finds no free cell left: the snake fills the board
+    private boolean boardFull = false;
+
+    // Enable with -Dsnake.debug=true to cross-check the grid against the body every move
+    static boolean debugChecks = Boolean.getBoolean("snake.debug");
+    
+    // Flag to control growth: prevents tail removal on the next move cycle
+    private boolean shouldGrowNextMove = false;
+
+    // Set when the last move tried to leave the board or ran into the body
+    private boolean collided = false;
+
+    // Cell the tail left on the last move, -1 if the snake grew or did not move
+    private int vacatedCell = -1;
+    
+    // Current heading as primitive deltas, so turning never allocates
+    int dirX = 1, dirY = 0;
+
+    // Per-game generator; food placement is the only randomness in the rules
+    final SnakeRandom rand;
+    final long seed;
+
+    /**
+     * Node structure for the custom Singly Linked List.
+     * Only used by {@link #segments()} as a snapshot of the body.
+     */
+    static class SegmentNode {
+        final int x, y;
+        SegmentNode next;
+
+        SegmentNode(int x, int y) {
+            this.x = x;
+            this.y = y;
+            this.next = null;
+        }
+    }
+
+    /** A game with a time-based seed, as used by the interactive panel. */
+    CustomSnakeLogic(int cols, int rows) {
+        this(cols, rows, System.nanoTime());
+    }
+
+    /** A reproducible game: the same seed and actions always play out the same way. */
+    CustomSnakeLogic(int cols, int rows, long seed) {
+        this.cols = cols;
+        this.rows = rows;
+        this.seed = seed;
+        this.rand = new SnakeRandom(seed);
+        this.body = new SnakeBody(Math.min(cols * rows, 1024));
+        this.occupancy = new OccupancyGrid(cols, rows);
+        this.compactState = (long) cols * rows > FreeCellSet.MAX_CELLS;
+        this.freeCells = compactState ? new FreeCellIndex(occupancy) : new FreeCellSet(cols * rows);
+    }
+
+    /** Packs grid coordinates into a single cell index. */
+    int cellOf(int x, int y) { return y * cols + x; }
+
+    int cellX(int c) { return c % cols; }
+
+    int cellY(int c) { return c / cols; }
+
+    /** Initializes or resets the snake's body, head first. */
+    void createSnake(int len) {
+        body.clear();
+        occupancy.clearAll();
+        freeCells.reset();
+        
+        int startX = cols / 2;
+        int startY = rows / 2;
+        
+        // Head first, each following segment one cell to the left
+        for (int i = 0; i < len; i++) {
+            int c = cellOf(startX - i, startY);
+            body.pushTail(c);
+            occupancy.set(c);
+            freeCells.remove(c);
+        }
+        
+        dirX = 1; // Start moving right
+        dirY = 0;
+        score = 0;
+        shouldGrowNextMove = false;
+        collided = false;
+        boardFull = false;
+        vacatedCell = -1;
+    }
+
+    /**
+     * Lays a snake of len segments along a Hamiltonian cycle, head first in
+     * the cycle direction, so following the cycle keeps it alive. Used by
+     * benchmarks and tools that need long snakes.
+     */
+    void layOnCycle(HamiltonianCycle cycle, int len) {
+        createSnake(0);
+        for (int i = 0; i < len; i++) {
+            int c = cycle.cellAt(i);
+            body.pushHead(c);
+            occupancy.set(c);
+            freeCells.remove(c);
+        }
+        int h = body.headCell(), n = cycle.next(h);
+        dirX = cellX(n) - cellX(h);
+        dirY = cellY(n) - cellY(h);
+    }
+
+    /**
+     * Places food on a uniformly random free cell in constant time.
+     * Returns false (and clears the food) when the snake covers the whole board.
+     */
+    boolean spawnFood() {
+        int c = freeCells.sample(rand);
+        if (c < 0) {
+            food = -1;
+            boardFull = true;
+            return false;
+        }
+        food = c;
+        return true;
+    }
+
+    /** True once the snake has filled every cell, i.e. the game is won. */
+    boolean isBoardFull() { return boardFull; }
+
+    /**
+     * Moves the snake by pushing a new head and popping the tail, both O(1).
+     * A fatal move (wall or body) only raises the collision flag and leaves
+     * the body as it was.
+     */
+    void move() {
+        try {
+            vacatedCell = -1;
+            if (body.length() == 0) return;
+
+            // 1. Calculate new head position
+            int h = body.headCell();
+            int nx = cellX(h) + dirX;
+            int ny = cellY(h) + dirY;
+
+            // Out-of-bounds heads cannot be packed; flag them for checkCollision
+            if (nx < 0 || ny < 0 || nx >= cols || ny >= rows) {
+                collided = true;
+                return;
+            }
+
+            // 2. Self-hit is a single lookup; the tail cell is free unless we are growing
+            int nc = cellOf(nx, ny);
+            boolean tailLeaves = !shouldGrowNextMove;
+            if (occupancy.isOccupied(nc) && !(tailLeaves && nc == body.tailCell())) {
+                collided = true;
+                return;
+            }
+
+            // 3. Pop the tail unless we are growing this move
+            if (tailLeaves) {
+                int t = body.popTail();
+                occupancy.clear(t);
+                freeCells.add(t);
+                vacatedCell = t;
+            } else {
+                shouldGrowNextMove = false; 
+            }
+
+            // 4. Push the new head
+            body.pushHead(nc);
+            occupancy.set(nc);
+            freeCells.remove(nc);
+
+            if (debugChecks) verifyOccupancy();
+
+        } catch (Exception ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    /**
+     * Plays one full tick of the rules: turn (if action is not NONE), move,
+     * then eat and respawn food. Returns MOVED, ATE, DIED or WON.
+     */
+    int step(int action) {
+        if (action != NONE) changeDirection(ACTION_DX[action], ACTION_DY[action]);
+        move();
+        if (checkCollision()) return DIED;
+        if (!headOnFood()) return MOVED;
+
+        grow();
+        score += 5;
+        return spawnFood() ? ATE : WON;
+    }
+
+    /**
+     * True if taking the action now would kill the snake (wall or body), using
+     * the same rules as move(). Reversals are rejected by changeDirection, so
+     * they are judged on the current heading instead.
+     */
+    boolean isFatal(int action) {
+        int dx = dirX, dy = dirY;
+        if (action != NONE) {
+            dx = ACTION_DX[action];
+            dy = ACTION_DY[action];
+            if (body.length() > 1 && body.segmentAt(1) == cellOf(headX() + dx, headY() + dy)) {
+                dx = dirX;
+                dy = dirY;
+            }
+        }
+        int nx = headX() + dx, ny = headY() + dy;
+        if (nx < 0 || ny < 0 || nx >= cols || ny >= rows) return true;
+        int nc = cellOf(nx, ny);
+        return occupancy.isOccupied(nc) && !(!shouldGrowNextMove && nc == body.tailCell());
+    }
+
+    /** The action that keeps the current heading. */
+    int currentAction() {
+        if (dirX < 0) return LEFT;
+        if (dirX > 0) return RIGHT;
+        return dirY < 0 ? UP : DOWN;
+    }
+
+    /** Signals to the next move cycle that the snake should grow. */
+    void grow() {
+        shouldGrowNextMove = true;
+    }
+
+    /** Column of the head segment. */
+    int headX() { return cellX(body.headCell()); }
+
+    /** Row of the head segment. */
+    int headY() { return cellY(body.headCell()); }
+
+    /** True if the head sits on the food cell. */
+    boolean headOnFood() {
+        // Note: The body is guaranteed to be non-empty when game is running.
+        return food >= 0 && body.headCell() == food;
+    }
+
+    /** Number of segments in the snake. */
+    int length() { return body.length(); }
+
+    /** Checks for collision with walls or self, as detected by the last move. */
+    boolean checkCollision() {
+        return body.length() == 0 || collided;
+    }
+
+    /** True if a snake segment covers the given cell. */
+    boolean isOccupied(int x, int y) { return occupancy.isOccupied(x, y); }
+
+    /** Same as {@link #isOccupied(int, int)} for a packed cell index. */
+    boolean isOccupiedCell(int c) { return occupancy.isOccupied(c); }
+
+    /** Packed cell of the head segment. */
+    int headCell() { return body.headCell(); }
+
+    /** Packed cell of the tail segment. */
+    int tailCell() { return body.tailCell(); }
+
+    /** Packed cell of the i-th segment counted from the head. */
+    int segmentAt(int i) { return body.segmentAt(i); }
+
+    /** True if the next move keeps the tail in place. */
+    boolean willGrow() { return shouldGrowNextMove; }
+
+    /** Cell freed by the tail on the last move, or -1 if the snake grew. */
+    int vacatedCell() { return vacatedCell; }
+
+    /** Number of board cells currently covered by the snake. */
+    int occupiedCells() { return occupancy.occupiedCount(); }
+
+    /** Debug-mode consistency check between the occupancy grid and the body ring. */
+    private void verifyOccupancy() {
+        int n = body.length();
+        if (occupancy.occupiedCount() != n) {
+            throw new IllegalStateException("Occupancy count " + occupancy.occupiedCount() + " != length " + n);
+        }
+        for (int i = 0; i < n; i++) {
+            int c = body.segmentAt(i);
+            if (!occupancy.isOccupied(c)) {
+                throw new IllegalStateException("Segment " + i + " at cell " + c + " missing from occupancy grid");
+            }
+        }
+        if (freeCells.size() + n != cols * rows) {
+            throw new IllegalStateException("Free cells " + freeCells.size() + " + length " + n + " != board size");
+        }
+    }
+
+    /** Changes the direction, preventing immediate 180-degree turns. */
+    void changeDirection(int dx, int dy) {
+        if (body.length() == 0) return;
+        
+        // We only check for a 180 turn if the snake has more than one segment.
+        if (body.length() > 1) { 
+            int h = body.headCell();
+            int next = body.segmentAt(1);
+            
+            // If the potential new position is the same as the second segment's current position, 
+            // it means we are trying to reverse (180 degree turn).
+            if (cellX(next) == cellX(h) + dx && cellY(next) == cellY(h) + dy) return;
+        }
+        dirX = dx;
+        dirY = dy;
+    }
+
+    /** Bytes {@link #writeState} needs for the current snake. */
+    int stateSize() {
+        if (compactState) return STATE_HEADER_BYTES + 4 * body.length();
+        return STATE_HEADER_BYTES + 4 * body.length() + freeCells.byteSize() + occupancy.byteSize();
+    }
+
+    /** Largest stateSize() on a cols x rows board (snake covering every cell). */
+    static long maxStateSize(int cols, int rows) {
+        long cells = (long) cols * rows;
+        if (cells > FreeCellSet.MAX_CELLS) return STATE_HEADER_BYTES + 4 * cells;
+        return STATE_HEADER_BYTES + 4 * cells + 4 + 4 * cells + 8 * ((cells + 63) >>> 6);
+    }
+
+    // cols, rows, rng, score, food, dirX, dirY, flags, length
+    static final int STATE_HEADER_BYTES = 4 + 4 + 8 + 4 + 4 + 4 + 4 + 1 + 4;
+
+    /**
+     * Writes the complete rule state in a fixed layout at the buffer's
+     * position: the header fields, the body from tail to head, the free-cell
+     * slots and the occupancy words. Everything but the header is a bulk copy
+     * through a short-lived buffer view.
+     * Giant boards (compactState) stop after the body, since a grid of
+     * millions of cells would dwarf it; readState rebuilds both from the body.
+     */
+    void writeState(ByteBuffer buf) {
+        buf.putInt(cols).putInt(rows);
+        buf.putLong(rand.getState());
+        buf.putInt(score).putInt(food).putInt(dirX).putInt(dirY);
+        buf.put((byte) ((shouldGrowNextMove ? 1 : 0) | (collided ? 2 : 0) | (boardFull ? 4 : 0)));
+        buf.putInt(body.length());
+        body.writeTo(buf);
+        if (compactState) return;
+        freeCells.writeTo(buf);
+        occupancy.writeTo(buf);
+    }
+
+    /** Restores a state written by {@link #writeState}; the board size must match. */
+    void readState(ByteBuffer buf) {
+        int c = buf.getInt(), r = buf.getInt();
+        if (c != cols || r != rows) {
+            throw new IllegalArgumentException("State is for a " + c + "x" + r + " board, not " + cols + "x" + rows);
+        }
+        rand.setState(buf.getLong());
+        score = buf.getInt();
+        food = buf.getInt();
+        dirX = buf.getInt();
+        dirY = buf.getInt();
+        int flags = buf.get();
+        shouldGrowNextMove = (flags & 1) != 0;
+        collided = (flags & 2) != 0;
+        boardFull = (flags & 4) != 0;
+        vacatedCell = -1;
+        body.readFrom(buf, buf.getInt());
+        if (compactState) {
+            occupancy.clearAll();
+            for (int i = 0, n = body.length(); i < n; i++) occupancy.set(body.segmentAt(i));
+            freeCells.readFrom(buf); // Recounted from the grid
+            return;
+        }
+        freeCells.readFrom(buf);
+        occupancy.readFrom(buf);
+    }
+
+    /** Builds a SegmentNode chain (head to tail) mirroring the current body. */
+    SegmentNode segments() {
+        SegmentNode first = null, last = null;
+        for (int i = 0, n = body.length(); i < n; i++) {
+            int c = body.segmentAt(i);
+            SegmentNode node = new SegmentNode(cellX(c), cellY(c));
+            if (first == null) first = node;
+            else last.next = node;
+            last = node;
+        }
+        return first;
+    }
+}
@@ -0,0 +1,108 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Free cells of a giant board, counted per 64-cell word of the occupancy
+ * bitset in a Fenwick tree instead of being listed.
+ *
+ * Add and remove adjust one word's count in O(log words); sampling picks a
+ * uniform rank among the free cells, walks the tree down to its word and
+ * selects the bit, also O(log words). It costs one int per 64 cells (about
+ * 6 MB on 10,000 x 10,000) and reads the occupancy grid it mirrors, so the
+ * grid must be updated together with this index. Nothing of it is stored
+ * in a save state: readFrom rebuilds it from the restored grid.
+ */
+class FreeCellIndex implements FreeCells {
+    private final OccupancyGrid grid;
+    private final int cellCount, words;
+    private final int[] tree; // 1-based Fenwick tree of free cells per word
+    private final int topStep; // Highest power of two <= words
+    private int size;
+
+    FreeCellIndex(OccupancyGrid grid) {
+        this.grid = grid;
+        this.cellCount = grid.cols * grid.rows;
+        this.words = (cellCount + 63) >>> 6;
+        this.tree = new int[words + 1];
+        this.topStep = Integer.highestOneBit(words);
+        reset();
+    }
+
+    /** Counts as free whatever the grid says is free, so reset the grid first. */
+    @Override
+    public void reset() {
+        rebuild();
+    }
+
+    @Override
+    public void remove(int cell) {
+        update(cell >>> 6, -1);
+        size--;
+    }
+
+    @Override
+    public void add(int cell) {
+        update(cell >>> 6, 1);
+        size++;
+    }
+
+    @Override
+    public int size() { return size; }
+
+    @Override
+    public int sample(SnakeRandom rand) {
+        if (size == 0) return -1;
+        int k = rand.nextInt(size);
+
+        // Descend to the word holding the k-th free cell
+        int pos = 0;
+        for (int step = topStep; step > 0; step >>>= 1) {
+            int next = pos + step;
+            if (next <= words && tree[next] <= k) {
+                pos = next;
+                k -= tree[next];
+            }
+        }
+
+        // Then the k-th free bit inside it
+        long free = ~grid.word(pos) & validBits(pos);
+        for (int i = 0; i < k; i++) free &= free - 1;
+        return (pos << 6) + Long.numberOfTrailingZeros(free);
+    }
+
+    /** Nothing to write: the index follows from the occupancy grid. */
+    @Override
+    public void writeTo(ByteBuffer buf) { }
+
+    /** Rebuilds from the grid, which the caller must have restored already. */
+    @Override
+    public void readFrom(ByteBuffer buf) {
+        rebuild();
+    }
+
+    @Override
+    public int byteSize() { return 0; }
+
+    /** Recounts every word from the grid and builds the tree in O(words). */
+    void rebuild() {
+        size = 0;
+        for (int w = 0; w < words; w++) {
+            int n = Long.bitCount(~grid.word(w) & validBits(w));
+            tree[w + 1] = n;
+            size += n;
+        }
+        for (int i = 1; i <= words; i++) {
+            int parent = i + (i & -i);
+            if (parent <= words) tree[parent] += tree[i];
+        }
+    }
+
+    private void update(int word, int delta) {
+        for (int i = word + 1; i <= words; i += i & -i) tree[i] += delta;
+    }
+
+    /** Bits of a word that are real cells (only the last word can be partial). */
+    private long validBits(int word) {
+        int n = cellCount - (word << 6);
+        return n >= 64 ? -1L : (1L << n) - 1;
+    }
+}
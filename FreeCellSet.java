@@ -0,0 +1,94 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Dense set of the board cells not covered by the snake.
+ *
+ * Free cells are packed at the front of {@code cells} and {@code pos} maps a
+ * cell back to its slot, so add and remove are O(1) swaps and a uniformly
+ * random free cell is a single array read. Two ints per cell, so the
+ * engine only uses it up to {@link #MAX_CELLS}.
+ */
+class FreeCellSet implements FreeCells {
+    private final int[] cells;  // cells[0 .. size) are free, the rest are taken
+    private final int[] pos;    // pos[cell] = slot of that cell inside cells
+    private int size;
+
+    static final int MAX_CELLS = 4_000_000; // 32 MB of slots; bigger boards use FreeCellIndex
+
+    FreeCellSet(int cellCount) {
+        cells = new int[cellCount];
+        pos = new int[cellCount];
+        reset();
+    }
+
+    /** Marks every cell as free again. */
+    @Override
+    public void reset() {
+        for (int i = 0; i < cells.length; i++) {
+            cells[i] = i;
+            pos[i] = i;
+        }
+        size = cells.length;
+    }
+
+    /** Takes a cell out of the free set (swap with the last free slot). */
+    @Override
+    public void remove(int cell) {
+        int p = pos[cell];
+        if (p >= size) return;
+        swap(p, --size);
+    }
+
+    /** Puts a cell back into the free set (swap with the first taken slot). */
+    @Override
+    public void add(int cell) {
+        int p = pos[cell];
+        if (p < size) return;
+        swap(p, size++);
+    }
+
+    boolean contains(int cell) { return pos[cell] < size; }
+
+    @Override
+    public int size() { return size; }
+
+    /** Uniformly random free cell, or -1 if the board is full. */
+    @Override
+    public int sample(SnakeRandom rand) {
+        if (size == 0) return -1;
+        return cells[rand.nextInt(size)];
+    }
+
+    /**
+     * Bulk-writes the size and the full slot order. The order is part of the
+     * game state: sample() indexes into it, so a restored game only spawns
+     * the same food as the original if the slots match exactly.
+     */
+    @Override
+    public void writeTo(ByteBuffer buf) {
+        buf.putInt(size);
+        buf.asIntBuffer().put(cells);
+        buf.position(buf.position() + 4 * cells.length);
+    }
+
+    /** Restores a set written by {@link #writeTo} and rebuilds the slot index. */
+    @Override
+    public void readFrom(ByteBuffer buf) {
+        size = buf.getInt();
+        buf.asIntBuffer().get(cells);
+        buf.position(buf.position() + 4 * cells.length);
+        for (int i = 0; i < cells.length; i++) pos[cells[i]] = i;
+    }
+
+    /** Bytes used by {@link #writeTo}. */
+    @Override
+    public int byteSize() { return 4 + 4 * cells.length; }
+
+    private void swap(int a, int b) {
+        int ca = cells[a], cb = cells[b];
+        cells[a] = cb;
+        pos[cb] = a;
+        cells[b] = ca;
+        pos[ca] = b;
+    }
+}
@@ -0,0 +1,33 @@
+import java.nio.ByteBuffer;
+
+/**
+ * The board cells not covered by the snake, with uniform sampling for food
+ * placement. FreeCellSet keeps them in dense arrays with O(1) sampling;
+ * FreeCellIndex counts them per bitset word instead, for boards too big to
+ * spend two ints per cell on.
+ */
+interface FreeCells {
+
+    /** Marks every cell as free again. */
+    void reset();
+
+    /** Takes a cell out of the set. */
+    void remove(int cell);
+
+    /** Puts a cell back into the set. */
+    void add(int cell);
+
+    int size();
+
+    /** Uniformly random free cell, or -1 if the board is full. */
+    int sample(SnakeRandom rand);
+
+    /** Writes whatever of the set is game state (see CustomSnakeLogic.writeState). */
+    void writeTo(ByteBuffer buf);
+
+    /** Restores a set written by {@link #writeTo}. */
+    void readFrom(ByteBuffer buf);
+
+    /** Bytes used by {@link #writeTo}. */
+    int byteSize();
+}
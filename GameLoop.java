@@ -0,0 +1,166 @@
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * Fixed-timestep game loop on its own thread, replacing the javax.swing.Timer
+ * that used to drive the game.
+ *
+ * Ticks are scheduled on System.nanoTime(). If the thread falls behind it runs
+ * up to MAX_CATCH_UP ticks back to back before the next frame and then drops
+ * the rest of the backlog instead of spiralling. The timestep is re-read from
+ * the host after every tick, so level speed-ups take effect immediately.
+ * Each tick's lateness against its schedule is recorded as jitter.
+ */
+class GameLoop implements Runnable {
+
+    /** What the loop drives. All callbacks run on the loop thread. */
+    interface Host {
+        /** Current simulation timestep in nanoseconds. */
+        long stepNanos();
+
+        /** Advances the simulation by exactly one step. */
+        void update();
+
+        /**
+         * Presents a frame. alpha in [0, 1) is how far the clock has moved from
+         * the last tick towards the next one, for interpolated drawing.
+         */
+        void render(double alpha);
+    }
+
+    private static final int MAX_CATCH_UP = 5;
+    private static final long FRAME_NANOS = 16_666_667L;  // Interpolated frames at ~60 Hz
+    private static final long SPIN_NANOS = 1_000_000L;    // Spin the last ms for a precise wakeup
+
+    private final Host host;
+    private final boolean interpolate;
+    private volatile boolean running;
+    private volatile int runs; // Bumped by every start(), so callbacks posted elsewhere can tell runs apart
+    private Thread thread;
+
+    // ==== JITTER STATS ====
+    // Lateness of each tick against its scheduled start, in nanoseconds
+    private long ticks;
+    private long dropped;
+    private double lateSum, lateSumSq;
+    private long lateMax;
+
+    GameLoop(Host host, boolean interpolate) {
+        this.host = host;
+        this.interpolate = interpolate;
+    }
+
+    /** Starts the loop thread; the first tick fires one timestep from now. */
+    synchronized void start() {
+        if (running) return;
+        ticks = dropped = lateMax = 0;
+        lateSum = lateSumSq = 0;
+        running = true;
+        runs++;
+        thread = new Thread(this, "snake-loop");
+        thread.setDaemon(true);
+        thread.start();
+    }
+
+    /** Asks the loop to exit after the current tick without waiting for it (safe from update()). */
+    synchronized void requestStop() {
+        running = false;
+        if (thread != null) LockSupport.unpark(thread);
+    }
+
+    /**
+     * Stops the loop and waits until the thread has exited, so no tick runs
+     * after it returns, and returns the run's {@link #jitterReport()} for the
+     * caller to print if it wants to. Must not be called from inside a host callback.
+     */
+    String stop() {
+        Thread t;
+        synchronized (this) {
+            running = false;
+            t = thread;
+        }
+        if (t != null && t != Thread.currentThread()) {
+            LockSupport.unpark(t);
+            try {
+                t.join();
+            } catch (InterruptedException ex) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        return jitterReport();
+    }
+
+    boolean isRunning() { return running; }
+
+    /** Number of start() calls so far; the current run's number while running. */
+    int runs() { return runs; }
+
+    @Override
+    public void run() {
+        try {
+            long step = host.stepNanos();
+            long next = System.nanoTime() + step;
+            long lastTick = next - step;
+            host.render(0.0); // Show the board right away instead of after the first step
+
+            while (running) {
+                long now = System.nanoTime();
+
+                // Run every tick that is due, bounded so rendering still happens
+                int caught = 0;
+                while (running && now >= next && caught < MAX_CATCH_UP) {
+                    recordLateness(now - next);
+                    host.update();
+                    lastTick = next;
+                    step = host.stepNanos();
+                    next += step;
+                    caught++;
+                    now = System.nanoTime();
+                }
+                if (!running) break;
+                if (now >= next) {
+                    // Still behind after catching up: drop the backlog
+                    dropped += (now - next) / step + 1;
+                    next = now + step;
+                    lastTick = now;
+                }
+
+                if (caught > 0 || interpolate) {
+                    double alpha = interpolate ? Math.min(1.0, (now - lastTick) / (double) step) : 0.0;
+                    host.render(alpha >= 1.0 ? 0.999 : alpha);
+                }
+
+                // Sleep until the next tick, or the next frame when interpolating
+                long wake = interpolate ? Math.min(next, System.nanoTime() + FRAME_NANOS) : next;
+                waitUntil(wake);
+            }
+        } catch (Exception ex) {
+            ex.printStackTrace();
+            running = false;
+        }
+    }
+
+    /** Parks until shortly before the deadline, then spins for the last stretch. */
+    private void waitUntil(long deadline) {
+        long remaining;
+        while (running && (remaining = deadline - System.nanoTime()) > 0) {
+            if (remaining > SPIN_NANOS) LockSupport.parkNanos(remaining - SPIN_NANOS);
+            else Thread.onSpinWait();
+        }
+    }
+
+    private void recordLateness(long lateNanos) {
+        ticks++;
+        lateSum += lateNanos;
+        lateSumSq += (double) lateNanos * lateNanos;
+        if (lateNanos > lateMax) lateMax = lateNanos;
+    }
+
+    /** Human-readable jitter summary of the current (or last) run; nothing prints it unasked. */
+    String jitterReport() {
+        if (ticks == 0) return "Tick jitter: no ticks";
+        double mean = lateSum / ticks;
+        double sd = Math.sqrt(Math.max(0, lateSumSq / ticks - mean * mean));
+        return String.format("Tick jitter over %d ticks: mean %.3f ms, stddev %.3f ms, max %.3f ms, dropped %d",
+                ticks, mean / 1e6, sd / 1e6, lateMax / 1e6, dropped);
+    }
+}
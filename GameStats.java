@@ -0,0 +1,97 @@
+/**
+ * Aggregated results of simulated games. Every field is an exact integer
+ * sum, count or max, so merging per-thread instances gives the same totals
+ * in any order, which keeps batch results independent of the thread count.
+ */
+final class GameStats {
+    // Foods eaten per game, log-linear as in LatencyHistogram: exact below 16, then 16 buckets per
+    // power of two, so quantiles stay within about 6% up to a full 10000x10000 board
+    private static final int SUB_BITS = 4;
+    private static final int SUB = 1 << SUB_BITS;
+    static final int HISTOGRAM_BUCKETS = (32 - SUB_BITS) * SUB;
+
+    long games, ticks, wins;
+    long scoreSum, scoreSqSum, lengthSum;
+    long simulatedMs; // Wall time the games would take at the speed curve's delays
+    int maxScore, maxLength;
+    final long[] foodsHistogram = new long[HISTOGRAM_BUCKETS];
+
+    /** Records one finished game. */
+    void add(CustomSnakeLogic game, long gameTicks, long gameMs, boolean won) {
+        games++;
+        ticks += gameTicks;
+        simulatedMs += gameMs;
+        scoreSum += game.score;
+        scoreSqSum += (long) game.score * game.score;
+        lengthSum += game.length();
+        if (won) wins++;
+        if (game.score > maxScore) maxScore = game.score;
+        if (game.length() > maxLength) maxLength = game.length();
+        foodsHistogram[indexOf(game.score / 5)]++;
+    }
+
+    /** Adds another instance's totals into this one. */
+    void merge(GameStats o) {
+        games += o.games;
+        ticks += o.ticks;
+        wins += o.wins;
+        scoreSum += o.scoreSum;
+        scoreSqSum += o.scoreSqSum;
+        lengthSum += o.lengthSum;
+        simulatedMs += o.simulatedMs;
+        maxScore = Math.max(maxScore, o.maxScore);
+        maxLength = Math.max(maxLength, o.maxLength);
+        for (int i = 0; i < HISTOGRAM_BUCKETS; i++) foodsHistogram[i] += o.foodsHistogram[i];
+    }
+
+    double meanScore() { return games == 0 ? 0 : scoreSum / (double) games; }
+
+    double scoreStdDev() {
+        if (games == 0) return 0;
+        double mean = meanScore();
+        return Math.sqrt(Math.max(0, scoreSqSum / (double) games - mean * mean));
+    }
+
+    /** Score at quantile q (0..1), as the upper edge of its foods-eaten bucket but never above the max. */
+    int scoreQuantile(double q) {
+        long target = (long) Math.ceil(q * games);
+        long seen = 0;
+        for (int i = 0; i < HISTOGRAM_BUCKETS; i++) {
+            seen += foodsHistogram[i];
+            if (seen >= Math.max(1, target)) return Math.min(maxScore, upperBound(i) * 5);
+        }
+        return maxScore;
+    }
+
+    /** Bucket of a food count: counts below SUB map to themselves, above that 16 buckets per power of two. */
+    private static int indexOf(int v) {
+        if (v < SUB) return v;
+        int shift = 31 - Integer.numberOfLeadingZeros(v) - SUB_BITS;
+        return (shift + 1) * SUB + (v >>> shift) - SUB;
+    }
+
+    /** Largest food count that falls into bucket i. */
+    private static int upperBound(int i) {
+        int row = i / SUB, off = i % SUB;
+        if (row == 0) return i;
+        int shift = row - 1;
+        return ((SUB + off) << shift) + (1 << shift) - 1;
+    }
+
+    /** Single-line summary used by the runners. */
+    String summary() {
+        return String.format("games %d, ticks %d, score mean %.1f sd %.1f p50 %d p90 %d max %d, "
+                        + "length mean %.1f max %d, wins %d, mean game %.1f s",
+                games, ticks, meanScore(), scoreStdDev(), scoreQuantile(0.5), scoreQuantile(0.9), maxScore,
+                games == 0 ? 0 : lengthSum / (double) games, maxLength, wins,
+                games == 0 ? 0 : simulatedMs / 1000.0 / games);
+    }
+
+    /** True if both hold identical totals (used to check determinism across thread counts). */
+    boolean sameAs(GameStats o) {
+        return games == o.games && ticks == o.ticks && wins == o.wins && scoreSum == o.scoreSum
+                && scoreSqSum == o.scoreSqSum && lengthSum == o.lengthSum && simulatedMs == o.simulatedMs
+                && maxScore == o.maxScore && maxLength == o.maxLength
+                && java.util.Arrays.equals(foodsHistogram, o.foodsHistogram);
+    }
+}
@@ -0,0 +1,66 @@
+/**
+ * A Hamiltonian cycle over the board: a closed path that visits every cell
+ * exactly once. A snake that always steps to {@link #next(int)} can never
+ * run into itself, which benchmarks and tools rely on to keep long snakes alive.
+ *
+ * The path is computed arithmetically (no per-cell tables): column 0 is the
+ * return lane and the remaining columns are swept row by row in a zig-zag.
+ * That needs an even number of rows; boards with an odd row count but an
+ * even column count use the transposed layout. Odd x odd boards have no
+ * Hamiltonian cycle at all.
+ */
+class HamiltonianCycle {
+    final int cols, rows;
+    private final boolean transposed;
+    private final int w, h; // Dimensions in the (possibly transposed) layout
+
+    HamiltonianCycle(int cols, int rows) {
+        if (!supports(cols, rows)) {
+            throw new IllegalArgumentException("No Hamiltonian cycle on a " + cols + "x" + rows + " board");
+        }
+        this.cols = cols;
+        this.rows = rows;
+        this.transposed = rows % 2 != 0;
+        this.w = transposed ? rows : cols;
+        this.h = transposed ? cols : rows;
+    }
+
+    /** True if a cycle exists (at least 2x2 and one even side). */
+    static boolean supports(int cols, int rows) {
+        return cols >= 2 && rows >= 2 && (cols % 2 == 0 || rows % 2 == 0);
+    }
+
+    /** Number of cells on the cycle, i.e. the board size. */
+    int length() { return cols * rows; }
+
+    /** Position of a packed cell (y * cols + x) along the cycle. */
+    int indexOf(int cell) {
+        int x = cell % cols, y = cell / cols;
+        if (transposed) { int t = x; x = y; y = t; }
+        if (x == 0) return h * (w - 1) + (h - 1 - y);
+        int base = y * (w - 1);
+        return (y & 1) == 0 ? base + x - 1 : base + (w - 1 - x);
+    }
+
+    /** Packed cell at a position along the cycle. */
+    int cellAt(int index) {
+        int n = w * h;
+        index = ((index % n) + n) % n;
+        int x, y;
+        int sweep = h * (w - 1);
+        if (index >= sweep) {
+            x = 0;
+            y = h - 1 - (index - sweep);
+        } else {
+            y = index / (w - 1);
+            int off = index % (w - 1);
+            x = (y & 1) == 0 ? off + 1 : w - 1 - off;
+        }
+        return transposed ? x * cols + y : y * cols + x;
+    }
+
+    /** The cell that follows the given one on the cycle. */
+    int next(int cell) {
+        return cellAt(indexOf(cell) + 1);
+    }
+}
@@ -0,0 +1,60 @@
+/**
+ * Plays seeded games of CustomSnakeLogic without any UI and reports engine
+ * throughput, for balancing and testing. Usage:
+ *   java -cp out HeadlessRunner [games] [cols] [rows] [seed]
+ */
+public class HeadlessRunner {
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 10_000;
+        int cols = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+        int rows = args.length > 2 ? Integer.parseInt(args[2]) : 25;
+        long seed = args.length > 3 ? Long.parseLong(args[3]) : 1L;
+
+        SnakePolicy policy = new SnakePolicy.Greedy();
+        SpeedCurve speed = new SpeedCurve(SpeedCurve.baseDelayFor("Normal"), 40, 30);
+
+        // Warm the JIT up on a separate batch so the timed run measures steady state
+        run(Math.max(1, games / 10), cols, rows, seed ^ 0x5DEECE66DL, policy, speed);
+
+        long t0 = System.nanoTime();
+        GameStats stats = run(games, cols, rows, seed, policy, speed);
+        double secs = (System.nanoTime() - t0) / 1e9;
+
+        System.out.printf("%d games on %dx%d (seed %d) in %.2f s, %.0f ticks/s%n",
+                stats.games, cols, rows, seed, secs, stats.ticks / secs);
+        System.out.println(stats.summary());
+    }
+
+    /** Plays games seeded seed, seed + 1, ... one after another. */
+    static GameStats run(int games, int cols, int rows, long seed, SnakePolicy policy, SpeedCurve speed) {
+        GameStats stats = new GameStats();
+        for (int i = 0; i < games; i++) {
+            playOut(cols, rows, seed + i, policy, speed, stats);
+        }
+        return stats;
+    }
+
+    /**
+     * Plays one seeded game until it dies, wins, or goes a whole board's worth
+     * of ticks twice over without eating (a policy stuck in a loop), and adds
+     * it to stats. The result depends only on the seed and the policy.
+     */
+    static void playOut(int cols, int rows, long seed, SnakePolicy policy, SpeedCurve speed, GameStats stats) {
+        CustomSnakeLogic game = new CustomSnakeLogic(cols, rows, seed);
+        game.createSnake(3);
+        game.spawnFood();
+
+        long ticks = 0, ms = 0;
+        long sinceFood = 0;
+        long starveLimit = 2L * cols * rows;
+        int outcome = CustomSnakeLogic.MOVED;
+        while (outcome != CustomSnakeLogic.DIED && outcome != CustomSnakeLogic.WON && sinceFood < starveLimit) {
+            ms += speed.delayFor(game.score);
+            outcome = game.step(policy.decide(game));
+            ticks++;
+            sinceFood = outcome == CustomSnakeLogic.ATE ? 0 : sinceFood + 1;
+        }
+        stats.add(game, ticks, ms, outcome == CustomSnakeLogic.WON);
+    }
+}
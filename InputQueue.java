@@ -0,0 +1,70 @@
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Bounded lock-free single-producer single-consumer ring of timestamped
+ * actions, carrying key presses from the key listener to the thread that
+ * steps the game.
+ *
+ * The producer (EDT) only writes the tail and the consumer (loop thread)
+ * only writes the head; each publishes with a release store (lazySet) and
+ * reads the other's counter with an acquire load, so no locks or CAS are
+ * needed. The producer caches the head and only re-reads it when the ring
+ * looks full. When the ring really is full the newest press is dropped.
+ * The same thread may also play both roles (headless ticks on the EDT).
+ */
+final class InputQueue {
+    private final int mask;
+    private final int[] actions;
+    private final long[] stamps;
+
+    private final AtomicLong head = new AtomicLong(); // Next slot to read, written by the consumer only
+    private final AtomicLong tail = new AtomicLong(); // Next slot to write, written by the producer only
+    private long cachedHead;  // Producer's last view of head
+    private long polledStamp; // Consumer: timestamp of the action returned by the last poll()
+
+    /** A ring of capacity slots, rounded up to a power of two. */
+    InputQueue(int capacity) {
+        int size = capacity <= 2 ? 2 : Integer.highestOneBit(capacity - 1) << 1;
+        mask = size - 1;
+        actions = new int[size];
+        stamps = new long[size];
+    }
+
+    /** Producer: queues an action pressed at nanos (System.nanoTime()); false if the ring is full. */
+    boolean offer(int action, long nanos) {
+        long t = tail.get();
+        if (t - cachedHead > mask) {
+            cachedHead = head.get();
+            if (t - cachedHead > mask) return false;
+        }
+        int i = (int) t & mask;
+        actions[i] = action;
+        stamps[i] = nanos;
+        tail.lazySet(t + 1); // Publishes the slot
+        return true;
+    }
+
+    /** Consumer: takes the oldest action, or CustomSnakeLogic.NONE if there is none. */
+    int poll() {
+        long h = head.get();
+        if (h == tail.get()) return CustomSnakeLogic.NONE;
+        int i = (int) h & mask;
+        int action = actions[i];
+        polledStamp = stamps[i];
+        head.lazySet(h + 1); // Hands the slot back to the producer
+        return action;
+    }
+
+    /** Consumer: press time of the action the last poll() returned. */
+    long polledStamp() { return polledStamp; }
+
+    /** Consumer: drops everything queued so far. */
+    void clear() {
+        head.lazySet(tail.get());
+    }
+
+    /** Number of queued actions (approximate while the other side is active). */
+    int size() {
+        return (int) (tail.get() - head.get());
+    }
+}
@@ -0,0 +1,78 @@
+/**
+ * Fixed-bucket histogram of durations in nanoseconds.
+ *
+ * Buckets are log-linear: 16 per power of two, so every recorded value is
+ * kept to within 1/16 (about 6%) whatever its magnitude, from 1 ns up to
+ * Long.MAX_VALUE, in one preallocated long[]. Recording is a few shifts and
+ * an increment and never allocates. Single writer; readers on other
+ * threads see slightly stale but usable numbers.
+ */
+final class LatencyHistogram {
+    private static final int SUB_BITS = 4;
+    private static final int SUB = 1 << SUB_BITS;
+
+    private final long[] counts = new long[(64 - SUB_BITS) * SUB];
+    private long count, sum, max;
+
+    void record(long nanos) {
+        if (nanos < 0) nanos = 0;
+        counts[indexOf(nanos)]++;
+        count++;
+        sum += nanos;
+        if (nanos > max) max = nanos;
+    }
+
+    /** Bucket of a value: values below SUB map to themselves, above that 16 buckets per power of two. */
+    private static int indexOf(long v) {
+        if (v < SUB) return (int) v;
+        int shift = 63 - Long.numberOfLeadingZeros(v) - SUB_BITS;
+        return (shift + 1) * SUB + (int) (v >>> shift) - SUB;
+    }
+
+    /** Largest value that falls into bucket i. */
+    private static long upperBound(int i) {
+        int row = i / SUB, off = i % SUB;
+        if (row == 0) return i;
+        int shift = row - 1;
+        return ((long) (SUB + off) << shift) + (1L << shift) - 1;
+    }
+
+    long count() { return count; }
+
+    long max() { return max; }
+
+    double mean() { return count == 0 ? 0 : sum / (double) count; }
+
+    /** Value at quantile q (0..1), as the upper edge of its bucket but never above the max. */
+    long percentile(double q) {
+        if (count == 0) return 0;
+        long target = Math.max(1, (long) Math.ceil(q * count));
+        long seen = 0;
+        for (int i = 0; i < counts.length; i++) {
+            seen += counts[i];
+            if (seen >= target) return Math.min(max, upperBound(i));
+        }
+        return max;
+    }
+
+    /** Adds another histogram's counts into this one. */
+    void merge(LatencyHistogram o) {
+        for (int i = 0; i < counts.length; i++) counts[i] += o.counts[i];
+        count += o.count;
+        sum += o.sum;
+        max = Math.max(max, o.max);
+    }
+
+    void reset() {
+        java.util.Arrays.fill(counts, 0);
+        count = sum = max = 0;
+    }
+
+    /** One-line summary in milliseconds. */
+    String summary(String name) {
+        if (count == 0) return name + ": no samples";
+        return String.format("%s over %d samples: mean %.3f ms, p50 %.3f ms, p90 %.3f ms, p99 %.3f ms, max %.3f ms",
+                name, count, mean() / 1e6, percentile(0.5) / 1e6, percentile(0.9) / 1e6,
+                percentile(0.99) / 1e6, max / 1e6);
+    }
+}
@@ -0,0 +1,478 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.zip.CRC32C;
+
+/**
+ * Persistent score store: every finished game is appended to scores.log as
+ * a fixed 48-byte record with a CRC32C, and scores.idx, a memory-mapped
+ * index next to it, keeps the top TOP_K records per difficulty plus a hash
+ * table of personal bests. Queries read the index and then only the few
+ * records they return, never the whole log.
+ *
+ *   log    "SNKL" magic, version, then records:
+ *          crc i32 (of bytes 4..47), difficulty u8, name length u8, reserved u16,
+ *          score i32, length i32, duration ms i32, replay seed i64, epoch ms i64,
+ *          player name (12 bytes, UTF-8 cut at a character boundary, zero padded)
+ *   index  header (magic, version, clean flag, personal-best capacity, records covered, personal-best count),
+ *          per difficulty: count i32, pad, TOP_K x (score i32, record i32), best first, ties oldest first,
+ *          then the personal-best table: open addressing of (key i64, score i32, record i32)
+ *
+ * submit() only queues; a writer thread appends whatever has queued up in
+ * one write (and one fsync when sync is on), then updates the index. The
+ * index is marked dirty while the store is open and clean on close(). On
+ * open, the log is cut back to its last whole record with a valid CRC (a torn
+ * tail from a crash), a dirty or stale index is rebuilt from the log, and a
+ * clean one only catches up on records past the ones it covers.
+ * Queries and submit() may be called from any thread.
+ *
+ * Several running games may share the files. Recovery and every batch hold
+ * an exclusive lock on the log, and a batch first indexes any records other
+ * games appended (picking up a personal-best table they grew), so records
+ * never interleave and the shared index stays complete. A rebuild clears a
+ * well-formed index in place instead of truncating a file another game has
+ * mapped.
+ */
+final class Leaderboard implements AutoCloseable {
+    static final String[] DIFFICULTIES = {"Easy", "Normal", "Hard"};
+    static final int TOP_K = 100;
+
+    static final int RECORD_BYTES = 48;
+    private static final int NAME_BYTES = 12;
+    private static final int LOG_MAGIC = 0x534E4B4C, INDEX_MAGIC = 0x534E4B49, VERSION = 1;
+    private static final int LOG_HEADER = 8;
+
+    // Index layout
+    private static final int IDX_CLEAN = 8, IDX_PB_CAPACITY = 12, IDX_COVERED = 16, IDX_PB_COUNT = 24;
+    private static final int TOP_OFFSET = 32, TOP_BYTES = 8 + 8 * TOP_K;
+    private static final int PB_OFFSET = TOP_OFFSET + DIFFICULTIES.length * TOP_BYTES;
+    private static final int PB_SLOT = 16, INITIAL_PB_CAPACITY = 1024;
+
+    private static final int MAX_BATCH = 4096;
+    private static final int SCAN_RECORDS = 4096; // Records per read while scanning the log
+
+    /** One finished game. */
+    static final class Entry {
+        final int difficulty, score, length, durationMs;
+        final long seed, timeMillis;
+        final String player;
+
+        Entry(int difficulty, int score, int length, int durationMs, long seed, long timeMillis, String player) {
+            this.difficulty = difficulty;
+            this.score = score;
+            this.length = length;
+            this.durationMs = durationMs;
+            this.seed = seed;
+            this.timeMillis = timeMillis;
+            this.player = player;
+        }
+
+        @Override
+        public String toString() {
+            return String.format("%5d  %-12s length %4d  %d:%02d  seed %016x", score, player, length,
+                    durationMs / 60_000, durationMs / 1000 % 60, seed);
+        }
+    }
+
+    private final Path indexPath;
+    private final FileChannel log, indexChannel;
+    private final boolean sync;
+    private MappedByteBuffer index;
+    private long records; // Whole records in the log, all of them indexed
+    private String recoveryNote;
+
+    // ==== WRITER ====
+    private final ArrayBlockingQueue<Entry> queue = new ArrayBlockingQueue<>(16 * 1024);
+    private final ArrayList<Entry> batch = new ArrayList<>(MAX_BATCH);
+    private final ByteBuffer out = ByteBuffer.allocateDirect(MAX_BATCH * RECORD_BYTES);
+    private final ByteBuffer one = ByteBuffer.allocate(RECORD_BYTES); // Query reads, under the monitor
+    private final CRC32C crc = new CRC32C();                           // Writer thread and open()
+    private final Thread writer;
+    private long submitted, written, batches; // Guarded by this
+    private boolean closed;
+
+    /** The store in -Dsnake.scoreDir (default ~/.aasnake), fsyncing each batch. */
+    static Leaderboard openDefault() throws IOException {
+        String dir = System.getProperty("snake.scoreDir",
+                Paths.get(System.getProperty("user.home"), ".aasnake").toString());
+        return open(Paths.get(dir), true);
+    }
+
+    static Leaderboard open(Path dir, boolean sync) throws IOException {
+        Files.createDirectories(dir);
+        return new Leaderboard(dir.resolve("scores.log"), dir.resolve("scores.idx"), sync);
+    }
+
+    private Leaderboard(Path logPath, Path indexPath, boolean sync) throws IOException {
+        this.indexPath = indexPath;
+        this.sync = sync;
+        this.log = FileChannel.open(logPath, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        this.indexChannel = FileChannel.open(indexPath, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE);
+        FileLock lock = log.lock(); // Another game may be appending
+        try {
+            recover();
+        } finally {
+            lock.release();
+        }
+        writer = new Thread(this::writeLoop, "leaderboard-writer");
+        writer.setDaemon(true);
+        writer.start();
+    }
+
+    // ==== RECOVERY (constructor) ====
+
+    private void recover() throws IOException {
+        StringBuilder note = new StringBuilder();
+        long size = log.size();
+        if (size < LOG_HEADER) {
+            ByteBuffer h = ByteBuffer.allocate(LOG_HEADER).putInt(LOG_MAGIC).putInt(VERSION).flip();
+            log.truncate(0);
+            log.write(h, 0);
+            size = LOG_HEADER;
+        } else {
+            ByteBuffer h = ByteBuffer.allocate(LOG_HEADER);
+            log.read(h, 0);
+            if (h.getInt(0) != LOG_MAGIC || h.getInt(4) != VERSION) throw new IOException("Not a score log: " + size + " bytes");
+        }
+        long whole = (size - LOG_HEADER) / RECORD_BYTES;
+        if (LOG_HEADER + whole * RECORD_BYTES != size) {
+            note.append("dropped a torn record of ").append(size - LOG_HEADER - whole * RECORD_BYTES).append(" bytes; ");
+        }
+
+        boolean fresh = indexChannel.size() < PB_OFFSET;
+        if (!fresh) {
+            index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, indexChannel.size());
+            fresh = index.getInt(0) != INDEX_MAGIC || index.getInt(4) != VERSION || index.getInt(IDX_CLEAN) != 1
+                    || index.getLong(IDX_COVERED) > whole
+                    || indexChannel.size() != PB_OFFSET + (long) index.getInt(IDX_PB_CAPACITY) * PB_SLOT;
+        }
+        long from = 0;
+        if (fresh) {
+            if (whole > 0) note.append("rebuilt the index; ");
+            mapIndex(INITIAL_PB_CAPACITY);
+        } else {
+            from = index.getLong(IDX_COVERED);
+        }
+
+        // Scan the records the index does not cover; the first bad CRC ends the log
+        long good = scan(from, whole);
+        records = good;
+        if (good < whole) note.append("dropped ").append(whole - good).append(" record(s) failing their checksum; ");
+        if (LOG_HEADER + good * RECORD_BYTES != size) {
+            log.truncate(LOG_HEADER + good * RECORD_BYTES);
+            log.force(true);
+        }
+        index.putInt(IDX_CLEAN, 0); // Dirty until close()
+        index.force();
+        recoveryNote = note.length() == 0 ? null : note.substring(0, note.length() - 2);
+    }
+
+    /** Indexes records [from, to) while their CRCs hold; returns the number of good records. */
+    private long scan(long from, long to) throws IOException {
+        ByteBuffer buf = ByteBuffer.allocateDirect(SCAN_RECORDS * RECORD_BYTES);
+        long r = from;
+        while (r < to) {
+            int n = (int) Math.min(SCAN_RECORDS, to - r);
+            buf.clear().limit(n * RECORD_BYTES);
+            long pos = LOG_HEADER + r * RECORD_BYTES;
+            while (buf.hasRemaining()) {
+                if (log.read(buf, pos + buf.position()) < 0) break;
+            }
+            for (int i = 0; i < n; i++) {
+                int p = i * RECORD_BYTES;
+                if (checksum(buf, p) != buf.getInt(p)) return r;
+                indexRecord(r, buf.get(p + 4), buf.getInt(p + 8), buf, p);
+                r++;
+            }
+        }
+        return r;
+    }
+
+    /**
+     * Maps an empty index. A mapped index with a consistent layout is zeroed
+     * in place and keeps its capacity, since another game may have the file
+     * mapped; anything else is recreated with the given personal-best capacity.
+     */
+    private void mapIndex(int pbCapacity) throws IOException {
+        if (index != null && index.capacity() == indexChannel.size()
+                && Integer.bitCount(index.getInt(IDX_PB_CAPACITY)) == 1
+                && index.capacity() == PB_OFFSET + (long) index.getInt(IDX_PB_CAPACITY) * PB_SLOT) {
+            pbCapacity = index.getInt(IDX_PB_CAPACITY);
+            for (int i = 0; i < index.capacity(); i += 8) index.putLong(i, 0);
+        } else {
+            indexChannel.truncate(0);
+            long bytes = PB_OFFSET + (long) pbCapacity * PB_SLOT;
+            indexChannel.write(ByteBuffer.allocate(1), bytes - 1); // Zero-filled up to the new size
+            index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+        }
+        index.putInt(0, INDEX_MAGIC).putInt(4, VERSION).putInt(IDX_CLEAN, 0).putInt(IDX_PB_CAPACITY, pbCapacity);
+        index.putLong(IDX_COVERED, 0).putInt(IDX_PB_COUNT, 0);
+    }
+
+    /** Maps the index again if another game has grown its personal-best table since it was mapped. */
+    private void remapIfGrown() throws IOException {
+        long bytes = PB_OFFSET + (long) index.getInt(IDX_PB_CAPACITY) * PB_SLOT;
+        if (bytes != index.capacity()) index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, bytes);
+    }
+
+    // ==== INDEX UPDATES (writer thread or constructor, under the monitor) ====
+
+    /** Adds record r to the top table of its difficulty and the personal bests. */
+    private void indexRecord(long r, int difficulty, int score, ByteBuffer rec, int p) throws IOException {
+        int top = TOP_OFFSET + difficulty * TOP_BYTES;
+        int count = index.getInt(top);
+        if (count < TOP_K || score > index.getInt(top + 8 + (count - 1) * 8)) {
+            int at = count < TOP_K ? count : count - 1; // The last one drops off when full
+            while (at > 0 && index.getInt(top + 8 + (at - 1) * 8) < score) {
+                index.putLong(top + 8 + at * 8, index.getLong(top + 8 + (at - 1) * 8));
+                at--;
+            }
+            index.putInt(top + 8 + at * 8, score).putInt(top + 12 + at * 8, (int) r);
+            if (count < TOP_K) index.putInt(top, count + 1);
+        }
+
+        long key = playerKey(rec, p + 36, rec.get(p + 5), difficulty);
+        int slot = findSlot(key);
+        if (index.getLong(slot) == 0) {
+            if (index.getInt(IDX_PB_COUNT) + 1 > index.getInt(IDX_PB_CAPACITY) / 2) {
+                growPersonalBests();
+                slot = findSlot(key);
+            }
+            index.putLong(slot, key).putInt(slot + 8, score).putInt(slot + 12, (int) r);
+            index.putInt(IDX_PB_COUNT, index.getInt(IDX_PB_COUNT) + 1);
+        } else if (score > index.getInt(slot + 8)) {
+            index.putInt(slot + 8, score).putInt(slot + 12, (int) r);
+        }
+        index.putLong(IDX_COVERED, r + 1);
+    }
+
+    /** Index offset of the key's slot, or of the empty slot where it would go. */
+    private int findSlot(long key) {
+        int mask = index.getInt(IDX_PB_CAPACITY) - 1;
+        int i = (int) (key ^ (key >>> 32)) & mask;
+        while (true) {
+            int slot = PB_OFFSET + i * PB_SLOT;
+            long k = index.getLong(slot);
+            if (k == 0 || k == key) return slot;
+            i = (i + 1) & mask;
+        }
+    }
+
+    /** Doubles the personal-best table, keeping the top tables. */
+    private void growPersonalBests() throws IOException {
+        int capacity = index.getInt(IDX_PB_CAPACITY);
+        ByteBuffer old = ByteBuffer.allocate(PB_OFFSET + capacity * PB_SLOT);
+        old.put(index.duplicate().position(0).limit(old.capacity())).flip();
+        index.force();
+        index = null;
+        indexChannel.write(ByteBuffer.allocate(1), PB_OFFSET + 2L * capacity * PB_SLOT - 1);
+        index = indexChannel.map(FileChannel.MapMode.READ_WRITE, 0, PB_OFFSET + 2L * capacity * PB_SLOT);
+        for (int i = PB_OFFSET; i < index.capacity(); i += 8) index.putLong(i, 0);
+        index.putInt(IDX_PB_CAPACITY, 2 * capacity);
+        for (int i = 0; i < capacity; i++) {
+            int s = PB_OFFSET + i * PB_SLOT;
+            long key = old.getLong(s);
+            if (key == 0) continue;
+            int slot = findSlot(key);
+            index.putLong(slot, key).putLong(slot + 8, old.getLong(s + 8));
+        }
+    }
+
+    // ==== WRITER THREAD ====
+
+    /** Queues a finished game; never blocks. False if the queue is full (the game is not recorded). */
+    boolean submit(Entry e) {
+        synchronized (this) {
+            if (closed) return false;
+            submitted++;
+        }
+        if (queue.offer(e)) return true;
+        synchronized (this) {
+            submitted--;
+            notifyAll();
+        }
+        return false;
+    }
+
+    private void writeLoop() {
+        try {
+            while (true) {
+                batch.clear();
+                batch.add(queue.take());
+                queue.drainTo(batch, MAX_BATCH - 1);
+                writeBatch();
+            }
+        } catch (InterruptedException ex) {
+            // close()
+        }
+    }
+
+    private void writeBatch() {
+        out.clear();
+        for (Entry e : batch) encode(e, out);
+        out.flip();
+        synchronized (this) {
+            try {
+                FileLock lock = log.lock(); // Other games may share the log
+                try {
+                    append();
+                } finally {
+                    lock.release();
+                }
+            } catch (IOException ex) {
+                ex.printStackTrace(); // The batch is lost, but later ones still go after the last good record
+            }
+            written += batch.size();
+            batches++;
+            notifyAll();
+        }
+    }
+
+    /** Appends out after the last record, indexing first whatever other games appended (under the log lock). */
+    private void append() throws IOException {
+        remapIfGrown();
+        long whole = (log.size() - LOG_HEADER) / RECORD_BYTES;
+        if (whole > records) records = scan(Math.min(whole, index.getLong(IDX_COVERED)), whole);
+        index.putInt(IDX_CLEAN, 0); // A game that closed meanwhile marked it clean
+
+        long pos = LOG_HEADER + records * RECORD_BYTES;
+        while (out.hasRemaining()) pos += log.write(out, pos);
+        if (sync) log.force(false);
+        for (int i = 0; i < batch.size(); i++) {
+            indexRecord(records, batch.get(i).difficulty, batch.get(i).score, out, i * RECORD_BYTES);
+            records++;
+        }
+    }
+
+    private void encode(Entry e, ByteBuffer buf) {
+        int p = buf.position();
+        byte[] name = e.player.getBytes(StandardCharsets.UTF_8);
+        int n = nameLength(name);
+        buf.putInt(0).put((byte) e.difficulty).put((byte) n).putShort((short) 0);
+        buf.putInt(e.score).putInt(e.length).putInt(e.durationMs).putLong(e.seed).putLong(e.timeMillis);
+        buf.put(name, 0, n);
+        for (int i = n; i < NAME_BYTES; i++) buf.put((byte) 0);
+        buf.putInt(p, checksum(buf, p));
+    }
+
+    /** CRC32C of bytes 4..47 of the record at p, leaving the buffer's position and limit as they were. */
+    private int checksum(ByteBuffer buf, int p) {
+        int position = buf.position(), limit = buf.limit();
+        buf.limit(p + RECORD_BYTES).position(p + 4);
+        crc.reset();
+        crc.update(buf);
+        buf.limit(limit).position(position);
+        return (int) crc.getValue();
+    }
+
+    /** Blocks until everything submitted so far is in the log and the index. */
+    synchronized void flush() throws InterruptedException {
+        while (written < submitted) wait();
+    }
+
+    /** Flushes, stops the writer and marks the index clean. */
+    @Override
+    public void close() throws IOException {
+        synchronized (this) {
+            if (closed) return;
+            closed = true; // No more submits
+        }
+        try {
+            flush();
+            writer.interrupt(); // Idle in take(), never inside a FileChannel call
+            writer.join();
+        } catch (InterruptedException ex) {
+            Thread.currentThread().interrupt();
+        }
+        synchronized (this) {
+            log.force(true);
+            index.force();
+            index.putInt(IDX_CLEAN, 1);
+            index.force();
+            log.close();
+            indexChannel.close();
+        }
+    }
+
+    // ==== QUERIES ====
+
+    /** Best first, at most k (up to TOP_K) games of a difficulty. */
+    synchronized List<Entry> top(int difficulty, int k) throws IOException {
+        int top = TOP_OFFSET + difficulty * TOP_BYTES;
+        int n = Math.min(k, index.getInt(top));
+        List<Entry> list = new ArrayList<>(n);
+        for (int i = 0; i < n; i++) list.add(read(index.getInt(top + 12 + i * 8)));
+        return list;
+    }
+
+    /** Best score of a difficulty straight from the index, 0 if none. */
+    synchronized int bestScore(int difficulty) {
+        int top = TOP_OFFSET + difficulty * TOP_BYTES;
+        return index.getInt(top) == 0 ? 0 : index.getInt(top + 8);
+    }
+
+    /** The player's best game of a difficulty, or null. */
+    synchronized Entry personalBest(String player, int difficulty) throws IOException {
+        byte[] name = player.getBytes(StandardCharsets.UTF_8);
+        ByteBuffer b = ByteBuffer.wrap(name);
+        remapIfGrown();
+        int slot = findSlot(playerKey(b, 0, nameLength(name), difficulty));
+        return index.getLong(slot) == 0 ? null : read(index.getInt(slot + 12));
+    }
+
+    /** Records in the log (all indexed once flushed). */
+    synchronized long size() { return records; }
+
+    /** Batches the writer has appended, each one write (and one fsync with sync on). */
+    synchronized long batches() { return batches; }
+
+    /** What open() had to repair, or null if the files were intact. */
+    String recoveryNote() { return recoveryNote; }
+
+    Path indexPath() { return indexPath; }
+
+    private Entry read(long r) throws IOException {
+        one.clear();
+        while (one.hasRemaining()) {
+            if (log.read(one, LOG_HEADER + r * RECORD_BYTES + one.position()) < 0) throw new IOException("Record " + r + " past the end of the log");
+        }
+        byte[] name = new byte[one.get(5)];
+        one.position(36);
+        one.get(name);
+        return new Entry(one.get(4), one.getInt(8), one.getInt(12), one.getInt(16), one.getLong(20), one.getLong(28),
+                new String(name, StandardCharsets.UTF_8));
+    }
+
+    /** Bytes of the UTF-8 name kept in a record: at most NAME_BYTES, cut before a continuation byte. */
+    private static int nameLength(byte[] name) {
+        if (name.length <= NAME_BYTES) return name.length;
+        int n = NAME_BYTES;
+        while (n > 0 && (name[n] & 0xC0) == 0x80) n--; // name[n] is the first byte left out
+        return n;
+    }
+
+    /** Non-zero 64-bit FNV-1a of the (truncated) name bytes and the difficulty. */
+    private static long playerKey(ByteBuffer buf, int p, int n, int difficulty) {
+        long h = 0xcbf29ce484222325L;
+        for (int i = 0; i < n; i++) h = (h ^ (buf.get(p + i) & 0xFF)) * 0x100000001b3L;
+        h = (h ^ difficulty) * 0x100000001b3L;
+        return h == 0 ? 1 : h;
+    }
+
+    /** Index into DIFFICULTIES of a menu name; unknown names count as Normal. */
+    static int difficultyIndex(String name) {
+        for (int i = 0; i < DIFFICULTIES.length; i++) if (DIFFICULTIES[i].equals(name)) return i;
+        return 1;
+    }
+}
@@ -0,0 +1,103 @@
+import java.nio.ByteBuffer;
+
+/**
+ * One bit per board cell telling whether a snake segment sits there.
+ * Cells are the same packed indices (y * cols + x) used by SnakeBody,
+ * and the occupied count is tracked incrementally so both lookups are O(1).
+ */
+class OccupancyGrid {
+    final int cols, rows;
+    private final long[] bits;
+    private int occupied;
+
+    OccupancyGrid(int cols, int rows) {
+        this.cols = cols;
+        this.rows = rows;
+        this.bits = new long[(cols * rows + 63) >>> 6];
+    }
+
+    /** Marks a cell as taken by the snake. */
+    void set(int cell) {
+        long mask = 1L << cell;
+        int w = cell >>> 6;
+        if ((bits[w] & mask) == 0) {
+            bits[w] |= mask;
+            occupied++;
+        }
+    }
+
+    /** Frees a cell that the snake has left. */
+    void clear(int cell) {
+        long mask = 1L << cell;
+        int w = cell >>> 6;
+        if ((bits[w] & mask) != 0) {
+            bits[w] &= ~mask;
+            occupied--;
+        }
+    }
+
+    /**
+     * set() without the shared count, for threads that each own a range of
+     * whole 64-cell words; returns 1 if the cell was free. The caller adds the
+     * results up with {@link #addCount} once the threads are done.
+     */
+    int setOwned(int cell) {
+        long mask = 1L << cell;
+        int w = cell >>> 6;
+        if ((bits[w] & mask) != 0) return 0;
+        bits[w] |= mask;
+        return 1;
+    }
+
+    /** clear() without the shared count, like {@link #setOwned}; returns 1 if the cell was taken. */
+    int clearOwned(int cell) {
+        long mask = 1L << cell;
+        int w = cell >>> 6;
+        if ((bits[w] & mask) == 0) return 0;
+        bits[w] &= ~mask;
+        return 1;
+    }
+
+    /** Adjusts the occupied count after setOwned / clearOwned calls. */
+    void addCount(int delta) { occupied += delta; }
+
+    /** Frees every cell. */
+    void clearAll() {
+        for (int i = 0; i < bits.length; i++) bits[i] = 0L;
+        occupied = 0;
+    }
+
+    boolean isOccupied(int cell) {
+        return (bits[cell >>> 6] & (1L << cell)) != 0;
+    }
+
+    /** Same as {@link #isOccupied(int)} but takes grid coordinates; off-board cells count as free. */
+    boolean isOccupied(int x, int y) {
+        if (x < 0 || y < 0 || x >= cols || y >= rows) return false;
+        return isOccupied(y * cols + x);
+    }
+
+    /** The i-th 64-cell word of the bitset (cells 64 * i to 64 * i + 63, low bit first). */
+    long word(int i) { return bits[i]; }
+
+    /** Bulk-writes the bit words. */
+    void writeTo(ByteBuffer buf) {
+        buf.asLongBuffer().put(bits);
+        buf.position(buf.position() + 8 * bits.length);
+    }
+
+    /** Restores words written by {@link #writeTo} and recounts the occupied cells. */
+    void readFrom(ByteBuffer buf) {
+        buf.asLongBuffer().get(bits);
+        buf.position(buf.position() + 8 * bits.length);
+        int n = 0;
+        for (long w : bits) n += Long.bitCount(w);
+        occupied = n;
+    }
+
+    /** Bytes used by {@link #writeTo}. */
+    int byteSize() { return 8 * bits.length; }
+
+    /** Number of occupied cells. */
+    int occupiedCount() { return occupied; }
+}
@@ -0,0 +1,329 @@
+import java.io.IOException;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.function.LongConsumer;
+
+/**
+ * Memory-mapped playback of a replay file written by ReplayRecorder.
+ *
+ * Opening scans the records once to index the snapshots (tick, offset and
+ * the last input tick before each). seek(tick) then restores the nearest
+ * snapshot at or before the tick and re-simulates forward, so any tick is
+ * reached in at most one snapshot interval of engine steps. A torn tail
+ * from an interrupted recording is ignored. Usage:
+ *   java -cp out ReplayFile &lt;file&gt; [tick]           inspect, verify and seek
+ *   java -cp out ReplayFile record &lt;file&gt; [seed]    record a headless greedy game
+ */
+final class ReplayFile {
+    final int cols, rows, initialLength, snapshotInterval;
+    final long seed;
+
+    private final ByteBuffer map;
+    private final int recordsStart;
+
+    // Snapshot index as parallel primitive arrays, sorted by tick
+    private long[] snapTick = new long[16];
+    private int[] snapOffset = new int[16];       // Offset of the snapshot state bytes
+    private int[] snapNext = new int[16];         // Offset of the record after the snapshot
+    private long[] snapLastInput = new long[16];  // Absolute tick of the last input before it
+    private int snapCount;
+
+    private long lastTick;       // Last tick the file has information about
+    private int endOutcome = -1; // Outcome from the END record, -1 if the recording was cut short
+
+    private ReplayFile(ByteBuffer map) {
+        this.map = map;
+        ByteBuffer b = map.duplicate();
+        if (b.getInt() != ReplayFormat.MAGIC) throw new IllegalArgumentException("Not a replay file");
+        byte version = b.get();
+        if (version != ReplayFormat.VERSION) throw new IllegalArgumentException("Unsupported replay version " + version);
+        cols = ReplayFormat.getVarInt(b);
+        rows = ReplayFormat.getVarInt(b);
+        seed = b.getLong();
+        initialLength = ReplayFormat.getVarInt(b);
+        snapshotInterval = ReplayFormat.getVarInt(b);
+        recordsStart = b.position();
+        index(b);
+    }
+
+    /** Maps a replay file read-only and indexes its snapshots. */
+    static ReplayFile open(Path file) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, 0, ch.size());
+            return new ReplayFile(map);
+        }
+    }
+
+    /** One pass over the records, skipping snapshot payloads, stopping at a torn tail. */
+    private void index(ByteBuffer b) {
+        long lastInput = 0;
+        try {
+            while (b.hasRemaining()) {
+                int start = b.position();
+                byte tag = b.get();
+                if (tag == ReplayFormat.INPUT) {
+                    lastInput += ReplayFormat.getVarLong(b);
+                    b.get();
+                    lastTick = Math.max(lastTick, lastInput);
+                } else if (tag == ReplayFormat.SNAPSHOT) {
+                    long tick = ReplayFormat.getVarLong(b);
+                    int size = ReplayFormat.getVarInt(b);
+                    int offset = b.position();
+                    if (size > b.remaining()) { b.position(start); break; }
+                    b.position(offset + size);
+                    addSnapshot(tick, offset, b.position(), lastInput);
+                    lastTick = Math.max(lastTick, tick);
+                } else if (tag == ReplayFormat.END) {
+                    lastTick = ReplayFormat.getVarLong(b);
+                    endOutcome = b.get();
+                    break;
+                } else {
+                    break; // Garbage after a crash
+                }
+            }
+        } catch (BufferUnderflowException torn) {
+            // Incomplete last record: everything before it is still valid
+        }
+    }
+
+    private void addSnapshot(long tick, int offset, int next, long lastInput) {
+        if (snapCount == snapTick.length) {
+            int n = snapCount * 2;
+            snapTick = java.util.Arrays.copyOf(snapTick, n);
+            snapOffset = java.util.Arrays.copyOf(snapOffset, n);
+            snapNext = java.util.Arrays.copyOf(snapNext, n);
+            snapLastInput = java.util.Arrays.copyOf(snapLastInput, n);
+        }
+        snapTick[snapCount] = tick;
+        snapOffset[snapCount] = offset;
+        snapNext[snapCount] = next;
+        snapLastInput[snapCount] = lastInput;
+        snapCount++;
+    }
+
+    /** Last tick covered by the recording. */
+    long lastTick() { return lastTick; }
+
+    /** Outcome of the recorded game (DIED or WON), or -1 if it was cut short. */
+    int endOutcome() { return endOutcome; }
+
+    int snapshotCount() { return snapCount; }
+
+    /** A new game positioned at the given tick (clamped to the recording). */
+    CustomSnakeLogic seek(long tick) {
+        CustomSnakeLogic game = new CustomSnakeLogic(cols, rows, seed);
+        seekInto(game, tick);
+        return game;
+    }
+
+    /**
+     * Puts game (created for this board) into its state at tick: restores the
+     * nearest snapshot at or before it and steps forward from there.
+     * Returns the tick actually reached.
+     */
+    long seekInto(CustomSnakeLogic game, long tick) {
+        long target = Math.max(0, Math.min(tick, lastTick));
+
+        // Binary search for the last snapshot with snapTick <= target
+        int lo = 0, hi = snapCount - 1, found = -1;
+        while (lo <= hi) {
+            int mid = (lo + hi) >>> 1;
+            if (snapTick[mid] <= target) { found = mid; lo = mid + 1; }
+            else hi = mid - 1;
+        }
+        return seekFrom(found, game, target);
+    }
+
+    /** Restores snapshot number found (-1 = the initial state) into game and steps it to target. */
+    private long seekFrom(int found, CustomSnakeLogic game, long target) {
+        long t;
+        long lastInput;
+        ByteBuffer b = map.duplicate();
+        if (found < 0) {
+            game.readState(initialState());
+            t = 0;
+            lastInput = 0;
+            b.position(recordsStart);
+        } else {
+            game.readState(snapshot(found));
+            t = snapTick[found];
+            lastInput = snapLastInput[found];
+            b.position(snapNext[found]);
+        }
+        return simulate(game, b, t, lastInput, target, null);
+    }
+
+    /**
+     * Plays the whole recording into game from tick 0, calling onTick with
+     * the tick number after every step (and once with 0 for the start), for
+     * tools that need every frame rather than a seek.
+     */
+    void playAll(CustomSnakeLogic game, LongConsumer onTick) {
+        game.readState(initialState());
+        onTick.accept(0);
+        simulate(game, recordsFrom(), 0, 0, lastTick(), onTick);
+    }
+
+    /** Steps game from tick t to target, applying the recorded inputs read from b; onTick may be null. */
+    private long simulate(CustomSnakeLogic game, ByteBuffer b, long t, long lastInput, long target, LongConsumer onTick) {
+        try {
+            while (t < target && b.hasRemaining()) {
+                byte tag = b.get();
+                if (tag == ReplayFormat.INPUT) {
+                    long inputTick = lastInput + ReplayFormat.getVarLong(b);
+                    int action = b.get();
+                    lastInput = inputTick;
+                    while (t + 1 < inputTick && t < target) {
+                        game.step(CustomSnakeLogic.NONE);
+                        t++;
+                        if (onTick != null) onTick.accept(t);
+                    }
+                    if (t == target) break;
+                    game.step(action);
+                    t++;
+                    if (onTick != null) onTick.accept(t);
+                } else if (tag == ReplayFormat.SNAPSHOT) {
+                    ReplayFormat.getVarLong(b);
+                    int size = ReplayFormat.getVarInt(b);
+                    b.position(b.position() + size);
+                } else {
+                    break; // END or torn tail: no more inputs
+                }
+            }
+        } catch (BufferUnderflowException torn) {
+            // Torn tail: the remaining ticks had no recorded input
+        }
+        while (t < target) {
+            game.step(CustomSnakeLogic.NONE);
+            t++;
+            if (onTick != null) onTick.accept(t);
+        }
+        return t;
+    }
+
+    /** State of a fresh game at tick 0, rebuilt from the header. */
+    private ByteBuffer initialState() {
+        CustomSnakeLogic fresh = new CustomSnakeLogic(cols, rows, seed);
+        fresh.createSnake(initialLength);
+        fresh.spawnFood();
+        ByteBuffer buf = ByteBuffer.allocate(fresh.stateSize());
+        fresh.writeState(buf);
+        return buf.flip();
+    }
+
+    /**
+     * Replays the whole recording from tick 0 without using snapshots and
+     * checks the live state against every stored snapshot byte for byte,
+     * then checks that stepping on from each snapshot reaches the next one
+     * (the path seek() takes). Returns the number of snapshots verified.
+     */
+    int verify() {
+        CustomSnakeLogic game = new CustomSnakeLogic(cols, rows, seed);
+        CustomSnakeLogic resumed = new CustomSnakeLogic(cols, rows, seed);
+        game.readState(initialState());
+        ByteBuffer b = map.duplicate();
+        b.position(recordsStart);
+        long t = 0, lastInput = 0;
+        for (int i = 0; i < snapCount; i++) {
+            // Re-simulate up to the snapshot, reading inputs from where the previous pass stopped
+            t = simulate(game, b, t, lastInput, snapTick[i], null);
+            lastInput = snapLastInput[i];
+            b.position(snapNext[i]);
+
+            if (!matchesSnapshot(game, i)) {
+                throw new IllegalStateException("Replay diverged from snapshot at tick " + snapTick[i]);
+            }
+            if (i > 0) {
+                seekFrom(i - 1, resumed, snapTick[i]);
+                if (!matchesSnapshot(resumed, i)) {
+                    throw new IllegalStateException("Seek diverged from snapshot at tick " + snapTick[i]);
+                }
+            }
+        }
+        return snapCount;
+    }
+
+    private boolean matchesSnapshot(CustomSnakeLogic game, int i) {
+        ByteBuffer live = ByteBuffer.allocate(game.stateSize());
+        game.writeState(live);
+        return live.flip().equals(snapshot(i));
+    }
+
+    /** Snapshot i unpacked into a writeState image. */
+    private ByteBuffer snapshot(int i) {
+        ByteBuffer b = map.duplicate();
+        b.position(snapOffset[i]);
+        return ReplayFormat.getSnapshot(b, snapNext[i] - snapOffset[i], cols, rows);
+    }
+
+    public static void main(String[] args) throws IOException {
+        if (args.length >= 2 && args[0].equals("record")) {
+            long seed = args.length > 2 ? Long.parseLong(args[2]) : System.nanoTime();
+            recordGreedyGame(Paths.get(args[1]), seed);
+            return;
+        }
+        if (args.length < 1) {
+            System.out.println("usage: ReplayFile <file> [tick] | ReplayFile record <file> [seed]");
+            return;
+        }
+
+        ReplayFile replay = open(Paths.get(args[0]));
+        System.out.printf("%dx%d board, seed %d, %d ticks, %d snapshots every %d ticks, outcome %s%n",
+                replay.cols, replay.rows, replay.seed, replay.lastTick(), replay.snapshotCount(),
+                replay.snapshotInterval, replay.endOutcome() < 0 ? "cut short"
+                        : replay.endOutcome() == CustomSnakeLogic.WON ? "won" : "died");
+        System.out.println("verified " + replay.verify() + " snapshots");
+
+        // Fast-forward the whole game headlessly, from tick 0 without snapshots
+        CustomSnakeLogic game = new CustomSnakeLogic(replay.cols, replay.rows, replay.seed);
+        int rounds = 20;
+        long t0 = System.nanoTime();
+        for (int i = 0; i < rounds; i++) {
+            game.readState(replay.initialState());
+            replay.simulate(game, replay.recordsFrom(), 0, 0, replay.lastTick(), null);
+        }
+        double secs = (System.nanoTime() - t0) / 1e9;
+        System.out.printf("fast-forward: %.0f ticks/s, final score %d%n", rounds * replay.lastTick() / secs, game.score);
+
+        // Seek latency to random ticks
+        long tick = args.length > 1 ? Long.parseLong(args[1]) : replay.lastTick() / 2;
+        SnakeRandom rnd = new SnakeRandom(1);
+        int seeks = 1000;
+        t0 = System.nanoTime();
+        for (int i = 0; i < seeks; i++) replay.seekInto(game, rnd.nextInt((int) Math.max(1, replay.lastTick())));
+        double seekUs = (System.nanoTime() - t0) / 1e3 / seeks;
+        replay.seekInto(game, tick);
+        System.out.printf("seek: %.1f us average; at tick %d: score %d, length %d, head (%d, %d)%n",
+                seekUs, tick, game.score, game.length(), game.headX(), game.headY());
+    }
+
+    private ByteBuffer recordsFrom() {
+        ByteBuffer b = map.duplicate();
+        b.position(recordsStart);
+        return b;
+    }
+
+    /** Plays one headless game with the greedy policy and records it. */
+    private static void recordGreedyGame(Path file, long seed) throws IOException {
+        CustomSnakeLogic game = new CustomSnakeLogic(40, 25, seed);
+        game.createSnake(3);
+        game.spawnFood();
+        SnakePolicy policy = new SnakePolicy.Greedy();
+        try (ReplayRecorder rec = new ReplayRecorder(file, game, 3, ReplayFormat.DEFAULT_SNAPSHOT_INTERVAL)) {
+            int outcome = CustomSnakeLogic.MOVED;
+            long sinceFood = 0;
+            while (outcome != CustomSnakeLogic.DIED && outcome != CustomSnakeLogic.WON && sinceFood < 2000) {
+                int action = policy.decide(game);
+                outcome = game.step(action);
+                rec.record(action, game, outcome);
+                sinceFood = outcome == CustomSnakeLogic.ATE ? 0 : sinceFood + 1;
+            }
+            System.out.printf("recorded %d ticks, score %d, to %s%n", rec.ticks(), game.score, file);
+        }
+    }
+}
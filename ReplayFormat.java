@@ -0,0 +1,187 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Layout of replay files (.snkr), shared by ReplayRecorder and ReplayFile.
+ *
+ * <pre>
+ * header   : "SNKR" magic, version byte, cols, rows (varints), seed (8 bytes),
+ *            initial length, snapshot interval (varints)
+ * records  : INPUT    tag, tick delta since the previous input (varint), action byte;
+ *                     only actions that turn the snake are stored
+ *            SNAPSHOT tag, tick (varint), snapshot length (varint), packed state (see putSnapshot)
+ *            END      tag, final tick (varint), outcome byte
+ * </pre>
+ *
+ * The file is append-only: a recording cut short by a crash is still
+ * readable up to its last complete record.
+ */
+final class ReplayFormat {
+    static final int MAGIC = 0x534E4B52; // "SNKR"
+    static final byte VERSION = 3; // 3: bit-packed snapshots
+
+    static final byte INPUT = 1;
+    static final byte SNAPSHOT = 2;
+    static final byte END = 3;
+
+    static final int DEFAULT_SNAPSHOT_INTERVAL = 256;
+
+    private ReplayFormat() {}
+
+    /** Writes a non-negative long as an unsigned LEB128 varint. */
+    static void putVarLong(ByteBuffer buf, long v) {
+        while ((v & ~0x7FL) != 0) {
+            buf.put((byte) ((v & 0x7F) | 0x80));
+            v >>>= 7;
+        }
+        buf.put((byte) v);
+    }
+
+    /** Reads an unsigned LEB128 varint. */
+    static long getVarLong(ByteBuffer buf) {
+        long v = 0;
+        int shift = 0;
+        byte b;
+        do {
+            b = buf.get();
+            v |= (long) (b & 0x7F) << shift;
+            shift += 7;
+        } while (b < 0);
+        return v;
+    }
+
+    static int getVarInt(ByteBuffer buf) {
+        return (int) getVarLong(buf);
+    }
+
+    // ==== SNAPSHOTS ====
+    // A CustomSnakeLogic.writeState image, packed: the header as is, the body as its tail
+    // cell plus 2 bits per step towards the head, and the free-cell slot order at
+    // ceil(log2(cells)) bits per slot. The occupancy words are left out; they follow from
+    // the body. A 40x25 game packs into about 1.3 KB instead of 8.2 KB.
+
+    /** Packs state (a writeState image, position 0 to limit) for a cols x rows board into out. */
+    static void putSnapshot(ByteBuffer out, ByteBuffer state, int cols, int rows) {
+        int cells = cols * rows;
+        for (int i = 0; i < CustomSnakeLogic.STATE_HEADER_BYTES; i++) out.put(state.get(i));
+        int n = state.getInt(CustomSnakeLogic.STATE_HEADER_BYTES - 4);
+        int at = CustomSnakeLogic.STATE_HEADER_BYTES;
+        if (n > 0) {
+            int prev = state.getInt(at);
+            putVarLong(out, prev);
+            BitWriter steps = new BitWriter(out, 2);
+            for (int i = 1; i < n; i++) {
+                int c = state.getInt(at + 4 * i);
+                steps.put(c == prev - cols ? 0 : c == prev + cols ? 1 : c == prev - 1 ? 2 : 3);
+                prev = c;
+            }
+            steps.finish();
+        }
+        at += 4 * n;
+        if (at == state.limit()) return; // Giant board: no free-cell slots in the state
+
+        putVarLong(out, state.getInt(at));
+        BitWriter slots = new BitWriter(out, slotBits(cells));
+        for (int i = 0; i < cells; i++) slots.put(state.getInt(at + 4 + 4 * i));
+        slots.finish();
+    }
+
+    /** Unpacks a snapshot of size bytes from in into a writeState image ready for readState. */
+    static ByteBuffer getSnapshot(ByteBuffer in, int size, int cols, int rows) {
+        int cells = cols * rows, end = in.position() + size;
+        ByteBuffer header = in.duplicate();
+        header.limit(header.position() + CustomSnakeLogic.STATE_HEADER_BYTES);
+        in.position(header.limit());
+        int n = header.getInt(header.limit() - 4);
+        boolean compact = (long) cells > FreeCellSet.MAX_CELLS;
+        int words = (cells + 63) >>> 6;
+        ByteBuffer state = ByteBuffer.allocate(CustomSnakeLogic.STATE_HEADER_BYTES + 4 * n
+                + (compact ? 0 : 4 + 4 * cells + 8 * words));
+        state.put(header);
+
+        long[] occupancy = compact ? null : new long[words];
+        if (n > 0) {
+            int c = getVarInt(in);
+            BitReader steps = new BitReader(in, 2);
+            for (int i = 0; i < n; i++) {
+                if (i > 0) {
+                    int step = (int) steps.next();
+                    c += step == 0 ? -cols : step == 1 ? cols : step == 2 ? -1 : 1;
+                }
+                state.putInt(c);
+                if (occupancy != null) occupancy[c >>> 6] |= 1L << c;
+            }
+            steps.finish();
+        }
+        if (!compact) {
+            state.putInt(getVarInt(in));
+            BitReader slots = new BitReader(in, slotBits(cells));
+            for (int i = 0; i < cells; i++) state.putInt((int) slots.next());
+            slots.finish();
+            for (long w : occupancy) state.putLong(w);
+        }
+        if (in.position() != end) throw new IllegalStateException("Snapshot size mismatch");
+        return state.flip();
+    }
+
+    /** Bits per free-cell slot: enough for the largest cell index. */
+    private static int slotBits(int cells) {
+        return Math.max(1, 32 - Integer.numberOfLeadingZeros(cells - 1));
+    }
+
+    /** Writes fixed-width values low bit first, padding the last byte with zeros. */
+    private static final class BitWriter {
+        private final ByteBuffer out;
+        private final int width;
+        private long acc;
+        private int bits;
+
+        BitWriter(ByteBuffer out, int width) {
+            this.out = out;
+            this.width = width;
+        }
+
+        void put(long v) {
+            acc |= v << bits;
+            bits += width;
+            for (; bits >= 8; bits -= 8, acc >>>= 8) out.put((byte) acc);
+        }
+
+        void finish() {
+            if (bits > 0) out.put((byte) acc);
+            acc = 0;
+            bits = 0;
+        }
+    }
+
+    /** Reads fixed-width values written low bit first by putSnapshot. */
+    private static final class BitReader {
+        private final ByteBuffer in;
+        private final int width;
+        private final long mask;
+        private long acc;
+        private int bits;
+
+        BitReader(ByteBuffer in, int width) {
+            this.in = in;
+            this.width = width;
+            this.mask = (1L << width) - 1;
+        }
+
+        long next() {
+            while (bits < width) {
+                acc |= (long) (in.get() & 0xFF) << bits;
+                bits += 8;
+            }
+            long v = acc & mask;
+            acc >>>= width;
+            bits -= width;
+            return v;
+        }
+
+        /** Drops the padding bits of the last byte. */
+        void finish() {
+            acc = 0;
+            bits = 0;
+        }
+    }
+}
@@ -0,0 +1,111 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Records a game as its seed plus the actions passed to step(), varint
+ * encoded into an append-only file (see ReplayFormat). A full engine
+ * snapshot is written every snapshotInterval ticks so playback can seek
+ * without re-simulating from the start.
+ *
+ * Records are staged in a heap buffer and written when it fills up, so a
+ * tick normally costs a few byte puts. Not thread-safe: call it from the
+ * thread that steps the game.
+ */
+final class ReplayRecorder implements AutoCloseable {
+    private static final int BUFFER_BYTES = 64 * 1024;
+
+    private final FileChannel channel;
+    private final int snapshotInterval;
+    private ByteBuffer buf = ByteBuffer.allocate(BUFFER_BYTES);
+    private ByteBuffer state, packed; // Snapshot scratch, grown with the snake
+    private long tick;
+    private long lastInputTick;
+    private int heading; // Before the tick being recorded
+    private boolean ended;
+
+    /** Starts a recording of a game that was just created with createSnake(initialLength) and spawnFood(). */
+    ReplayRecorder(Path file, CustomSnakeLogic game, int initialLength, int snapshotInterval) throws IOException {
+        this.channel = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        this.snapshotInterval = snapshotInterval;
+        this.heading = game.currentAction();
+
+        buf.putInt(ReplayFormat.MAGIC);
+        buf.put(ReplayFormat.VERSION);
+        ReplayFormat.putVarLong(buf, game.cols);
+        ReplayFormat.putVarLong(buf, game.rows);
+        buf.putLong(game.seed);
+        ReplayFormat.putVarLong(buf, initialLength);
+        ReplayFormat.putVarLong(buf, snapshotInterval);
+    }
+
+    /** Records one tick that was just played with step(action) and returned outcome. */
+    void record(int action, CustomSnakeLogic game, int outcome) throws IOException {
+        if (ended) return;
+        tick++;
+        // Pressing the current heading changes nothing, so only real turns are stored
+        if (action != CustomSnakeLogic.NONE && action != heading) {
+            ensureRoom(1 + 10 + 1);
+            buf.put(ReplayFormat.INPUT);
+            ReplayFormat.putVarLong(buf, tick - lastInputTick);
+            buf.put((byte) action);
+            lastInputTick = tick;
+        }
+        heading = game.currentAction();
+
+        if (outcome == CustomSnakeLogic.DIED || outcome == CustomSnakeLogic.WON) {
+            ensureRoom(1 + 10 + 1);
+            buf.put(ReplayFormat.END);
+            ReplayFormat.putVarLong(buf, tick);
+            buf.put((byte) outcome);
+            ended = true;
+            flush();
+        } else if (tick % snapshotInterval == 0) {
+            // Packed through two reused scratch buffers; the packed size goes before the bytes
+            int size = game.stateSize();
+            if (state == null || state.capacity() < size) {
+                state = ByteBuffer.allocate(size);
+                packed = ByteBuffer.allocate(size + 16);
+            }
+            state.clear();
+            game.writeState(state);
+            state.flip();
+            packed.clear();
+            ReplayFormat.putSnapshot(packed, state, game.cols, game.rows);
+            packed.flip();
+            ensureRoom(1 + 10 + 5 + packed.remaining());
+            buf.put(ReplayFormat.SNAPSHOT);
+            ReplayFormat.putVarLong(buf, tick);
+            ReplayFormat.putVarLong(buf, packed.remaining());
+            buf.put(packed);
+        }
+    }
+
+    /** Ticks recorded so far. */
+    long ticks() { return tick; }
+
+    /** Makes room for n more bytes, flushing (and growing for oversized snapshots) as needed. */
+    private void ensureRoom(int n) throws IOException {
+        if (buf.remaining() >= n) return;
+        flush();
+        if (buf.capacity() < n) buf = ByteBuffer.allocate(Math.max(n, BUFFER_BYTES));
+    }
+
+    private void flush() throws IOException {
+        buf.flip();
+        while (buf.hasRemaining()) channel.write(buf);
+        buf.clear();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            flush();
+        } finally {
+            channel.close();
+        }
+    }
+}
@@ -0,0 +1,81 @@
+import java.nio.ByteBuffer;
+
+/**
+ * Reusable save slot holding a whole game: the panel's speed state followed
+ * by the engine state from CustomSnakeLogic.writeState, in one fixed-layout
+ * direct buffer.
+ *
+ * Layout (big-endian): baseDelay, currentDelay, level (ints), then the
+ * engine state. The buffer grows to the largest save seen (at most a full
+ * board) and is then reused, so steady-state saving copies no arrays into
+ * new memory and is cheap enough to run every tick for rollback. The only
+ * allocations are the IntBuffer / LongBuffer views the bulk copies go
+ * through, a few dozen bytes per call, which escape analysis usually
+ * removes on save. Absolute putInt loops would avoid them but halve the
+ * copy speed. Growing instead of sizing for a full board up front keeps a
+ * quick-save slot small on giant boards.
+ */
+final class SaveState {
+    static final int SPEED_BYTES = 4 + 4 + 4;
+    private static final int INITIAL_BYTES = 64 * 1024;
+
+    final int cols, rows;
+    private final long maxBytes;
+    private ByteBuffer buf;
+    private int baseDelay, currentDelay, level;
+    private boolean empty = true;
+
+    SaveState(int cols, int rows) {
+        this.cols = cols;
+        this.rows = rows;
+        this.maxBytes = SPEED_BYTES + CustomSnakeLogic.maxStateSize(cols, rows);
+        if (maxBytes > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException("A " + cols + "x" + rows + " board is too big to save");
+        }
+        this.buf = ByteBuffer.allocateDirect((int) Math.min(maxBytes, INITIAL_BYTES));
+    }
+
+    /** Makes room for a save of the given size, doubling so repeated growth stays rare. */
+    private void ensureCapacity(long bytes) {
+        if (bytes <= buf.capacity()) return;
+        long n = Math.max(bytes, Math.min(maxBytes, 2L * buf.capacity()));
+        buf = ByteBuffer.allocateDirect((int) n);
+    }
+
+    /** Overwrites the slot with the game and its speed state. */
+    void save(CustomSnakeLogic game, int baseDelay, int currentDelay, int level) {
+        ensureCapacity(SPEED_BYTES + (long) game.stateSize());
+        buf.clear();
+        buf.putInt(baseDelay).putInt(currentDelay).putInt(level);
+        game.writeState(buf);
+        buf.flip();
+        this.baseDelay = baseDelay;
+        this.currentDelay = currentDelay;
+        this.level = level;
+        empty = false;
+    }
+
+    /** Puts game (created for this board size) back into the saved state. */
+    void restore(CustomSnakeLogic game) {
+        if (empty) throw new IllegalStateException("Nothing saved");
+        buf.position(SPEED_BYTES);
+        game.readState(buf);
+        buf.rewind();
+    }
+
+    boolean isEmpty() { return empty; }
+
+    int baseDelay() { return baseDelay; }
+
+    int currentDelay() { return currentDelay; }
+
+    int level() { return level; }
+
+    /** Bytes used by the current save. */
+    int size() { return buf.limit(); }
+
+    /** True if both slots hold the same bytes (the buffer position is always 0 between calls). */
+    boolean sameAs(SaveState other) {
+        return buf.equals(other.buf);
+    }
+}
@@ -0,0 +1,240 @@
+/**
+ * A batch of games under the CustomSnakeLogic rules, stored as flat
+ * primitive arrays rather than one engine object per game.
+ *
+ * Per-game scalars (head coordinates, heading, ring cursors, food, score,
+ * generator state) are one array each, indexed by game. The bodies share
+ * one int[] of rings, the occupancy bits one long[] and the free-cell sets
+ * one pair of int[], each game owning a fixed-size slice. stepAll() plays one
+ * tick of every game in phases, each a loop over the arrays: turn, aim,
+ * then collide, move and eat. The aim loop is plain element-wise int
+ * arithmetic that C2 can vectorize; the others are short gathers.
+ *
+ * Games follow exactly the scalar rules, including food placement (the
+ * same SplitMix64 draw over the same free-cell slot order), so the same
+ * seed and actions play the same game as CustomSnakeLogic; SnakeBatchCheck
+ * verifies that. A game that died or was won stays as it ended until it is
+ * reset.
+ */
+final class SnakeBatch {
+    static final int START_LENGTH = 3;
+    static final int MAX_CELLS = 1 << 16; // Cell indices fit a char
+
+    final int games, cols, rows, cells;
+    private final int cap, mask, words; // Ring slots (power of two >= cells) and bit words per game
+
+    // ==== PER-GAME STATE, indexed by game ====
+    final int[] headX, headY;      // Kept next to the ring so moving needs no division
+    final int[] dirX, dirY;
+    final int[] food, score;
+    final int[] outcome;           // Of the last tick: MOVED, ATE, DIED or WON; the last two stay
+    private final int[] head, tail, length; // Ring cursors within the game's slice
+    private final boolean[] grow;  // Keep the tail on the next move
+    private final long[] rng;      // SnakeRandom state
+    private final int[] freeSize;
+    private final int[] next;      // Scratch: cell each head moves to, -1 when off the board
+
+    // ==== SLICED STATE, game g owning [g * cap, ...), [g * words, ...) and [g * cells, ...) ====
+    // Cells are stored as 16-bit chars, which halves the bytes the random slice accesses pull in
+    private final char[] ring;
+    private final long[] occ;
+    private final char[] free, pos; // Same dense layout as FreeCellSet
+
+    SnakeBatch(int games, int cols, int rows) {
+        this.games = games;
+        this.cols = cols;
+        this.rows = rows;
+        this.cells = cols * rows;
+        this.cap = Integer.highestOneBit(Math.max(1, cells - 1)) << 1;
+        this.mask = cap - 1;
+        this.words = (cells + 63) >>> 6;
+        if (cells > MAX_CELLS) throw new IllegalArgumentException("boards are limited to " + MAX_CELLS + " cells");
+        if ((long) games * Math.max(cap, 2 * cells) > Integer.MAX_VALUE) {
+            throw new IllegalArgumentException(games + " games of " + cols + "x" + rows + " do not fit in one array");
+        }
+        headX = new int[games];
+        headY = new int[games];
+        dirX = new int[games];
+        dirY = new int[games];
+        food = new int[games];
+        score = new int[games];
+        outcome = new int[games];
+        head = new int[games];
+        tail = new int[games];
+        length = new int[games];
+        grow = new boolean[games];
+        rng = new long[games];
+        freeSize = new int[games];
+        next = new int[games];
+        ring = new char[games * cap];
+        occ = new long[games * words];
+        free = new char[games * cells];
+        pos = new char[games * cells];
+    }
+
+    /** Starts game g as new CustomSnakeLogic(cols, rows, seed) with createSnake(3) and spawnFood() would. */
+    void reset(int g, long seed) {
+        rng[g] = seed;
+        int fb = g * cells;
+        for (int c = 0; c < cells; c++) {
+            free[fb + c] = (char) c;
+            pos[fb + c] = (char) c;
+        }
+        freeSize[g] = cells;
+        for (int w = g * words, end = w + words; w < end; w++) occ[w] = 0L;
+
+        // Head first, each following segment one cell to the left; ring slot 0 is the tail
+        int x = cols / 2, y = rows / 2, rb = g * cap;
+        for (int i = 0; i < START_LENGTH; i++) {
+            int c = y * cols + x - i;
+            ring[rb + START_LENGTH - 1 - i] = (char) c;
+            setOccupied(g, c);
+            removeFree(g, c);
+        }
+        head[g] = START_LENGTH - 1;
+        tail[g] = 0;
+        length[g] = START_LENGTH;
+        headX[g] = x;
+        headY[g] = y;
+        dirX[g] = 1;
+        dirY[g] = 0;
+        score[g] = 0;
+        grow[g] = false;
+        outcome[g] = CustomSnakeLogic.MOVED;
+        food[g] = sampleFree(g);
+    }
+
+    /** Resets game g with seed + g for every game. */
+    void resetAll(long seed) {
+        for (int g = 0; g < games; g++) reset(g, seed + g);
+    }
+
+    /**
+     * Plays one tick of every game still running, action g (NONE..RIGHT)
+     * going to game g, and leaves each result in outcome[g].
+     */
+    void stepAll(int[] actions) {
+        // 1. Turn, rejecting reversals onto the neck like changeDirection
+        for (int g = 0; g < games; g++) {
+            int a = actions[g];
+            if (a == CustomSnakeLogic.NONE || outcome[g] >= CustomSnakeLogic.DIED) continue;
+            int dx = CustomSnakeLogic.ACTION_DX[a], dy = CustomSnakeLogic.ACTION_DY[a];
+            if (length[g] > 1) {
+                // The neck is on the board, so only an on-board target can be it; no division needed
+                int tx = headX[g] + dx, ty = headY[g] + dy;
+                if (tx >= 0 && ty >= 0 && tx < cols && ty < rows
+                        && ring[g * cap + ((head[g] - 1) & mask)] == ty * cols + tx) continue;
+            }
+            dirX[g] = dx;
+            dirY[g] = dy;
+        }
+
+        // 2. Aim: the cell each head moves to, -1 off the board (element-wise, no branches on data)
+        int cols = this.cols, rows = this.rows;
+        for (int g = 0; g < games; g++) {
+            int nx = headX[g] + dirX[g], ny = headY[g] + dirY[g];
+            boolean inside = nx >= 0 & ny >= 0 & nx < cols & ny < rows;
+            next[g] = inside ? ny * cols + nx : -1;
+        }
+
+        // 3. Collide, move and eat: the tail cell is free unless the snake grows this move.
+        // Arrays in locals so the loop keeps them in registers across the slice writes
+        char[] ring = this.ring;
+        int[] head = this.head, tail = this.tail, food = this.food, outcome = this.outcome;
+        long[] occ = this.occ;
+        boolean[] grow = this.grow;
+        int cap = this.cap, mask = this.mask, words = this.words;
+        for (int g = 0; g < games; g++) {
+            if (outcome[g] >= CustomSnakeLogic.DIED) continue;
+            int nc = next[g], rb = g * cap, ob = g * words;
+            if (nc < 0) {
+                outcome[g] = CustomSnakeLogic.DIED;
+                continue;
+            }
+            long bit = 1L << nc;
+            int tc = ring[rb + tail[g]];
+            if ((occ[ob + (nc >>> 6)] & bit) != 0 && (grow[g] || nc != tc)) {
+                outcome[g] = CustomSnakeLogic.DIED;
+                continue;
+            }
+            if (grow[g]) {
+                grow[g] = false;
+                length[g]++;
+            } else {
+                tail[g] = (tail[g] + 1) & mask;
+                occ[ob + (tc >>> 6)] &= ~(1L << tc);
+                addFree(g, tc);
+            }
+            int h = (head[g] + 1) & mask;
+            head[g] = h;
+            ring[rb + h] = (char) nc;
+            occ[ob + (nc >>> 6)] |= bit;
+            removeFree(g, nc);
+            headX[g] += dirX[g];
+            headY[g] += dirY[g];
+            if (nc != food[g]) { // food is never -1 here: a full board means the game was won
+                outcome[g] = CustomSnakeLogic.MOVED;
+                continue;
+            }
+
+            // Eat: grow on the next move, score and respawn the food
+            grow[g] = true;
+            score[g] += 5;
+            int f = sampleFree(g);
+            food[g] = f;
+            outcome[g] = f >= 0 ? CustomSnakeLogic.ATE : CustomSnakeLogic.WON;
+        }
+    }
+
+    int length(int g) { return length[g]; }
+
+    /** Packed cell of the i-th segment of game g counted from the head. */
+    int segmentAt(int g, int i) { return ring[g * cap + ((head[g] - i) & mask)]; }
+
+    boolean isOccupied(int g, int c) { return (occ[g * words + (c >>> 6)] & (1L << c)) != 0; }
+
+    int freeCount(int g) { return freeSize[g]; }
+
+    private void setOccupied(int g, int c) { occ[g * words + (c >>> 6)] |= 1L << c; }
+
+    // ==== FREE CELLS, as in FreeCellSet ====
+
+    private void removeFree(int g, int c) {
+        int fb = g * cells, p = pos[fb + c];
+        if (p < freeSize[g]) swapFree(fb, p, --freeSize[g]);
+    }
+
+    private void addFree(int g, int c) {
+        int fb = g * cells, p = pos[fb + c];
+        if (p >= freeSize[g]) swapFree(fb, p, freeSize[g]++);
+    }
+
+    private void swapFree(int fb, int a, int b) {
+        char ca = free[fb + a], cb = free[fb + b];
+        free[fb + a] = cb;
+        pos[fb + cb] = (char) a;
+        free[fb + b] = ca;
+        pos[fb + ca] = (char) b;
+    }
+
+    /** FreeCellSet.sample with SnakeRandom.nextInt inlined on rng[g]; -1 when the board is full. */
+    private int sampleFree(int g) {
+        int bound = freeSize[g];
+        if (bound == 0) return -1;
+        long m = (nextLong(g) >>> 32) * bound;
+        if ((m & 0xFFFFFFFFL) < bound) {
+            long threshold = (0x100000000L - bound) % bound;
+            while ((m & 0xFFFFFFFFL) < threshold) {
+                m = (nextLong(g) >>> 32) * bound;
+            }
+        }
+        return free[g * cells + (int) (m >>> 32)];
+    }
+
+    private long nextLong(int g) {
+        long z = (rng[g] += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+}
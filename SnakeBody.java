@@ -0,0 +1,112 @@
+import java.nio.ByteBuffer;
+import java.nio.IntBuffer;
+
+/**
+ * Snake body stored as packed cell indices (y * cols + x) in a growable
+ * circular array, replacing the SegmentNode chain on the hot path.
+ *
+ * The head cursor points at the newest segment and the tail cursor at the
+ * oldest one, so pushing a head, popping the tail and growing are all O(1).
+ * The backing array only reallocates when the snake outgrows it (capacity
+ * doubles), which means a steady-state tick never allocates.
+ */
+class SnakeBody {
+    private int[] cells;   // Ring storage, length is always a power of two
+    private int mask;      // cells.length - 1, used instead of modulo
+    private int head;      // Index of the head segment
+    private int tail;      // Index of the tail segment
+    private int length;    // Number of live segments
+
+    SnakeBody(int initialCapacity) {
+        int cap = 1;
+        while (cap < Math.max(2, initialCapacity)) cap <<= 1;
+        cells = new int[cap];
+        mask = cap - 1;
+        clear();
+    }
+
+    /** Drops every segment without releasing the backing array. */
+    void clear() {
+        head = mask; // The first push lands on index 0
+        tail = 0;
+        length = 0;
+    }
+
+    /** Adds a new head segment (O(1), amortized over capacity doubling). */
+    void pushHead(int cell) {
+        if (length == cells.length) ensureCapacity(length + 1);
+        head = (head + 1) & mask;
+        cells[head] = cell;
+        length++;
+    }
+
+    /** Removes the tail segment and returns its cell (O(1)). */
+    int popTail() {
+        int cell = cells[tail];
+        tail = (tail + 1) & mask;
+        length--;
+        return cell;
+    }
+
+    /** Appends a segment behind the current tail, used when building the snake. */
+    void pushTail(int cell) {
+        if (length == cells.length) ensureCapacity(length + 1);
+        if (length == 0) {
+            pushHead(cell);
+            return;
+        }
+        tail = (tail - 1) & mask;
+        cells[tail] = cell;
+        length++;
+    }
+
+    int headCell() { return cells[head]; }
+
+    int tailCell() { return cells[tail]; }
+
+    int length() { return length; }
+
+    int capacity() { return cells.length; }
+
+    /** Returns the i-th segment counted from the head (0 = head). */
+    int segmentAt(int i) {
+        return cells[(head - i) & mask];
+    }
+
+    /** Bulk-writes the segments tail first (at most two array copies). */
+    void writeTo(ByteBuffer buf) {
+        IntBuffer out = buf.asIntBuffer();
+        int first = Math.min(length, cells.length - tail);
+        out.put(cells, tail, first);
+        out.put(cells, 0, length - first);
+        buf.position(buf.position() + 4 * length);
+    }
+
+    /** Replaces the body with n segments read tail first, as written by {@link #writeTo}. */
+    void readFrom(ByteBuffer buf, int n) {
+        clear();
+        ensureCapacity(n);
+        buf.asIntBuffer().get(cells, 0, n);
+        buf.position(buf.position() + 4 * n);
+        tail = 0;
+        head = (n - 1) & mask;
+        length = n;
+    }
+
+    /** Grows the ring so it can hold at least minCapacity segments, keeping order. */
+    void ensureCapacity(int minCapacity) {
+        if (minCapacity <= cells.length) return;
+        int cap = cells.length;
+        while (cap < minCapacity) cap <<= 1;
+
+        // Unroll the ring tail-first into the new array
+        int[] grown = new int[cap];
+        for (int i = 0; i < length; i++) {
+            grown[i] = cells[(tail + i) & mask];
+        }
+        cells = grown;
+        mask = cap - 1;
+        tail = 0;
+        head = (length - 1) & mask;
+    }
+}
@@ -0,0 +1,189 @@
+import java.io.IOException;
+import java.lang.invoke.VarHandle;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Vectorized environment for training agents on the real CustomSnakeLogic
+ * rules: reset(seeds) starts a batch of games and step(actions) plays one
+ * tick in each of them.
+ *
+ * Observations, rewards and done flags go straight into one shared buffer,
+ * either a caller's direct ByteBuffer or a memory-mapped file, so a trainer
+ * in another process can read them in place. After a step only the cells
+ * that changed (new head, old head, vacated tail, food) are rewritten.
+ * Layout, in native byte order from the buffer's position:
+ *   header (64 bytes): int magic "SNKE", version, batch, cols, rows, planes,
+ *       observation, reward, done and score offsets, long step count
+ *   observations: uint8[batch][3][rows][cols], planes BODY, HEAD, FOOD, 1 = set
+ *   rewards: float32[batch], the score gained (5 per food) minus 1 on death
+ *   dones: uint8[batch], DONE_NO, DONE_DIED, DONE_WON or DONE_TRUNCATED
+ *   scores: int32[batch], score of the game the step was played in
+ * The step count is written last, after a release fence, so a reader that
+ * sees it change sees the whole step. A finished game restarts in the same
+ * step with the previous seed + batch, and its observation is the new game's.
+ */
+final class SnakeEnv {
+    static final int PLANES = 3, BODY = 0, HEAD = 1, FOOD = 2;
+    static final int DONE_NO = 0, DONE_DIED = 1, DONE_WON = 2, DONE_TRUNCATED = 3;
+    static final float DEATH_REWARD = -1f;
+    static final int MAGIC = 0x534E4B45, VERSION = 1, HEADER_BYTES = 64;
+    private static final int STEP_COUNT_AT = 40;
+    private static final int START_LENGTH = 3;
+
+    final int batch, cols, rows, cells;
+    final int obsOffset, rewardOffset, doneOffset, scoreOffset, bytes;
+    private final ByteBuffer buf;
+    private final CustomSnakeLogic[] games;
+    private final long[] seeds;
+    private final int[] head, food, sinceFood;
+    private final int starveLimit;
+    private final byte[] zeros;
+    private long steps;
+
+    /** An environment writing into buf from its position on; needs {@link #bytesFor} bytes. */
+    SnakeEnv(int batch, int cols, int rows, ByteBuffer buf) {
+        if (!buf.isDirect()) throw new IllegalArgumentException("buffer must be direct or mapped");
+        long size = bytesFor(batch, cols, rows);
+        if (buf.remaining() < size) {
+            throw new IllegalArgumentException("buffer has " + buf.remaining() + " bytes, the layout needs " + size);
+        }
+        this.batch = batch;
+        this.cols = cols;
+        this.rows = rows;
+        this.cells = cols * rows;
+        this.obsOffset = HEADER_BYTES;
+        this.rewardOffset = align8(obsOffset + batch * PLANES * cells);
+        this.doneOffset = rewardOffset + 4 * batch;
+        this.scoreOffset = align8(doneOffset + batch);
+        this.bytes = (int) size;
+        this.buf = buf.slice().order(ByteOrder.nativeOrder());
+
+        games = new CustomSnakeLogic[batch];
+        for (int i = 0; i < batch; i++) games[i] = new CustomSnakeLogic(cols, rows, i);
+        seeds = new long[batch];
+        head = new int[batch];
+        food = new int[batch];
+        sinceFood = new int[batch];
+        starveLimit = 2 * cells; // Same as HeadlessRunner: a policy circling without eating
+        zeros = new byte[PLANES * cells];
+
+        this.buf.putInt(0, MAGIC).putInt(4, VERSION).putInt(8, batch).putInt(12, cols).putInt(16, rows)
+                .putInt(20, PLANES).putInt(24, obsOffset).putInt(28, rewardOffset).putInt(32, doneOffset)
+                .putInt(36, scoreOffset).putLong(STEP_COUNT_AT, 0);
+    }
+
+    /** An environment in a memory-mapped file (created or resized), for a trainer that maps the same file. */
+    static SnakeEnv mapped(Path file, int batch, int cols, int rows) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.CREATE, StandardOpenOption.READ,
+                StandardOpenOption.WRITE)) {
+            return new SnakeEnv(batch, cols, rows, ch.map(FileChannel.MapMode.READ_WRITE, 0, bytesFor(batch, cols, rows)));
+        }
+    }
+
+    /** Buffer size the layout needs for batch games on a cols x rows board. */
+    static long bytesFor(int batch, int cols, int rows) {
+        long obs = (long) batch * PLANES * cols * rows;
+        long rewards = align8(HEADER_BYTES + obs), scores = align8(rewards + 5L * batch); // As in the constructor
+        long size = scores + 4L * batch;
+        if (size > Integer.MAX_VALUE) throw new IllegalArgumentException("batch too large for one buffer: " + size + " bytes");
+        return size;
+    }
+
+    /** Starts game i with seeds[i] for every game and writes the first observations. */
+    void reset(long[] seeds) {
+        if (seeds.length != batch) throw new IllegalArgumentException(seeds.length + " seeds for a batch of " + batch);
+        for (int i = 0; i < batch; i++) {
+            this.seeds[i] = seeds[i];
+            startGame(i);
+            buf.putFloat(rewardOffset + 4 * i, 0f);
+            buf.put(doneOffset + i, (byte) DONE_NO);
+            buf.putInt(scoreOffset + 4 * i, 0);
+        }
+        publish();
+    }
+
+    /** Plays one tick in every game, action i (CustomSnakeLogic.NONE..RIGHT) going to game i. */
+    void step(int[] actions) {
+        if (actions.length != batch) throw new IllegalArgumentException(actions.length + " actions for a batch of " + batch);
+        for (int i = 0; i < batch; i++) {
+            CustomSnakeLogic game = games[i];
+            int before = game.score;
+            int outcome = game.step(actions[i]);
+            float reward = game.score - before;
+            int done = DONE_NO;
+            if (outcome == CustomSnakeLogic.DIED) {
+                done = DONE_DIED;
+                reward += DEATH_REWARD;
+            } else if (outcome == CustomSnakeLogic.WON) {
+                done = DONE_WON;
+            } else if (outcome == CustomSnakeLogic.ATE) {
+                sinceFood[i] = 0;
+            } else if (++sinceFood[i] >= starveLimit) {
+                done = DONE_TRUNCATED;
+            }
+            buf.putFloat(rewardOffset + 4 * i, reward);
+            buf.put(doneOffset + i, (byte) done);
+            buf.putInt(scoreOffset + 4 * i, game.score);
+
+            if (done != DONE_NO) {
+                seeds[i] += batch;
+                startGame(i);
+            } else {
+                updatePlanes(i, game);
+            }
+        }
+        publish();
+    }
+
+    /** Steps taken since construction (resets count as one). */
+    long steps() { return steps; }
+
+    /** Game i as it is now, for checks; do not step it directly. */
+    CustomSnakeLogic game(int i) { return games[i]; }
+
+    /** Index in the buffer of cell c of plane p for game i. */
+    int obsIndex(int i, int plane, int c) { return obsOffset + (i * PLANES + plane) * cells + c; }
+
+    /** The engine reseeded in place, as new CustomSnakeLogic(cols, rows, seed) would start, and its planes redrawn. */
+    private void startGame(int i) {
+        CustomSnakeLogic game = games[i];
+        game.rand.setState(seeds[i]);
+        game.createSnake(START_LENGTH);
+        game.spawnFood();
+        sinceFood[i] = 0;
+
+        buf.put(obsIndex(i, BODY, 0), zeros);
+        for (int s = 0, n = game.length(); s < n; s++) buf.put(obsIndex(i, BODY, game.segmentAt(s)), (byte) 1);
+        head[i] = game.headCell();
+        buf.put(obsIndex(i, HEAD, head[i]), (byte) 1);
+        food[i] = game.food;
+        if (food[i] >= 0) buf.put(obsIndex(i, FOOD, food[i]), (byte) 1);
+    }
+
+    /** Rewrites only the cells the last step changed; the vacated tail goes first as the head may move onto it. */
+    private void updatePlanes(int i, CustomSnakeLogic game) {
+        int vacated = game.vacatedCell();
+        if (vacated >= 0) buf.put(obsIndex(i, BODY, vacated), (byte) 0);
+        buf.put(obsIndex(i, HEAD, head[i]), (byte) 0);
+        int h = game.headCell();
+        buf.put(obsIndex(i, BODY, h), (byte) 1);
+        buf.put(obsIndex(i, HEAD, h), (byte) 1);
+        head[i] = h;
+        if (game.food != food[i]) {
+            if (food[i] >= 0) buf.put(obsIndex(i, FOOD, food[i]), (byte) 0);
+            if (game.food >= 0) buf.put(obsIndex(i, FOOD, game.food), (byte) 1);
+            food[i] = game.food;
+        }
+    }
+
+    private void publish() {
+        VarHandle.releaseFence();
+        buf.putLong(STEP_COUNT_AT, ++steps);
+    }
+
+    private static int align8(long n) { return (int) ((n + 7) & ~7L); } // Sizes are checked below 2 GB first
+}
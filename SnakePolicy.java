@@ -0,0 +1,37 @@
+/**
+ * Chooses the next action for a game, e.g. for headless simulation.
+ * Implementations may keep scratch state but must not modify the game.
+ */
+interface SnakePolicy {
+
+    /** Returns one of the CustomSnakeLogic action constants (NONE keeps the heading). */
+    int decide(CustomSnakeLogic game);
+
+    /**
+     * Baseline policy: among the moves that do not die this tick, take the one
+     * that gets closest to the food (Manhattan distance), keeping the current
+     * heading on ties. Cheap and allocation-free, but it can trap itself.
+     */
+    final class Greedy implements SnakePolicy {
+        @Override
+        public int decide(CustomSnakeLogic game) {
+            int hx = game.headX(), hy = game.headY();
+            int fx = game.food >= 0 ? game.cellX(game.food) : hx;
+            int fy = game.food >= 0 ? game.cellY(game.food) : hy;
+
+            int best = CustomSnakeLogic.NONE;
+            int bestDist = Integer.MAX_VALUE;
+            int current = game.currentAction();
+            for (int a = CustomSnakeLogic.UP; a <= CustomSnakeLogic.RIGHT; a++) {
+                if (game.isFatal(a)) continue;
+                int d = Math.abs(hx + CustomSnakeLogic.ACTION_DX[a] - fx)
+                        + Math.abs(hy + CustomSnakeLogic.ACTION_DY[a] - fy);
+                if (d < bestDist || (d == bestDist && a == current)) {
+                    best = a;
+                    bestDist = d;
+                }
+            }
+            return best;
+        }
+    }
+}
@@ -0,0 +1,39 @@
+/**
+ * Small seedable random generator (SplitMix64) for the game engine.
+ *
+ * Unlike a shared java.util.Random its whole state is one long, so a game can
+ * be replayed from its seed and the generator can be saved and restored
+ * exactly. Not thread-safe: every game owns its own instance.
+ */
+class SnakeRandom {
+    private long state;
+
+    SnakeRandom(long seed) {
+        this.state = seed;
+    }
+
+    /** Full generator state, for save states and replays. */
+    long getState() { return state; }
+
+    void setState(long state) { this.state = state; }
+
+    long nextLong() {
+        long z = (state += 0x9E3779B97F4A7C15L);
+        z = (z ^ (z >>> 30)) * 0xBF58476D1CE4E5B9L;
+        z = (z ^ (z >>> 27)) * 0x94D049BB133111EBL;
+        return z ^ (z >>> 31);
+    }
+
+    /** Uniform int in [0, bound), without modulo bias (Lemire's method). */
+    int nextInt(int bound) {
+        if (bound <= 0) throw new IllegalArgumentException("bound must be positive");
+        long m = (nextLong() >>> 32) * bound;
+        if ((m & 0xFFFFFFFFL) < bound) {
+            long threshold = (0x100000000L - bound) % bound;
+            while ((m & 0xFFFFFFFFL) < threshold) {
+                m = (nextLong() >>> 32) * bound;
+            }
+        }
+        return (int) (m >>> 32);
+    }
+}
@@ -0,0 +1,36 @@
+/**
+ * Tick delay as a function of score: every 5 points is one level, each level
+ * takes 5 ms off the base delay, up to levelCap levels and never below
+ * minDelay. Shared by the game panel and the simulators so tuning runs use
+ * exactly the curve players get.
+ */
+final class SpeedCurve {
+    static final int POINTS_PER_LEVEL = 5;
+    static final int MS_PER_LEVEL = 5;
+
+    final int baseDelay, minDelay, levelCap;
+
+    SpeedCurve(int baseDelay, int minDelay, int levelCap) {
+        this.baseDelay = baseDelay;
+        this.minDelay = minDelay;
+        this.levelCap = levelCap;
+    }
+
+    /** Base delay in ms for a difficulty name from the menu ("Easy", "Normal", "Hard"). */
+    static int baseDelayFor(String difficulty) {
+        return switch (difficulty) {
+            case "Easy" -> 240;
+            case "Hard" -> 120;
+            default -> 180;
+        };
+    }
+
+    int level(int score) {
+        return Math.min(levelCap, score / POINTS_PER_LEVEL);
+    }
+
+    /** Delay in ms between ticks at the given score. */
+    int delayFor(int score) {
+        return Math.max(minDelay, baseDelay - level(score) * MS_PER_LEVEL);
+    }
+}
@@ -0,0 +1,210 @@
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.GraphicsConfiguration;
+import java.awt.GraphicsEnvironment;
+import java.awt.RenderingHints;
+import java.awt.Transparency;
+import java.awt.image.BufferedImage;
+
+/**
+ * Pre-rendered images for everything the board draws: body, head and tail
+ * (one per direction), food, an empty cell and the large countdown and
+ * end-of-game texts. Built once per cell size and theme in the screen's
+ * compatible format, so the renderers only ever blit with drawImage and
+ * text is never laid out or rasterized while playing.
+ */
+final class SpriteAtlas {
+
+    /** Colours of one look of the board. */
+    static final class Theme {
+        final String name;
+        final Color outline, body, eye, food, shine, countdown, lose, win;
+
+        Theme(String name, Color outline, Color body, Color eye, Color food, Color shine,
+              Color countdown, Color lose, Color win) {
+            this.name = name;
+            this.outline = outline;
+            this.body = body;
+            this.eye = eye;
+            this.food = food;
+            this.shine = shine;
+            this.countdown = countdown;
+            this.lose = lose;
+            this.win = win;
+        }
+    }
+
+    static final Theme CLASSIC = new Theme("Classic", BoardRenderer.SNAKE_OUTLINE, BoardRenderer.SNAKE_BODY,
+            Color.BLACK, BoardRenderer.FOOD, BoardRenderer.FOOD_SHINE,
+            new Color(255, 255, 0, 180), Color.RED.darker(), Color.GREEN);
+    static final Theme AMBER = new Theme("Amber", new Color(150, 80, 0), new Color(255, 170, 0),
+            new Color(60, 20, 0), new Color(90, 160, 255), Color.WHITE,
+            new Color(255, 170, 0, 180), new Color(255, 90, 40), new Color(255, 220, 120));
+    static final Theme[] THEMES = {CLASSIC, AMBER};
+
+    // Text sprites: 0..3 are the countdown digits
+    static final int TEXT_GO = 4, TEXT_GAME_OVER = 5, TEXT_WIN = 6;
+    private static final Font COUNTDOWN_FONT = new Font("Consolas", Font.BOLD, 80);
+    private static final Font END_FONT = new Font("Consolas", Font.BOLD, 46);
+    private static final String[] TEXTS = {"0", "1", "2", "3", "GO!", "GAME OVER", "YOU WIN!"};
+
+    final int cell;
+    final Theme theme;
+    final BufferedImage body, blank, food;
+    private final BufferedImage[] heads = new BufferedImage[5], tails = new BufferedImage[5]; // By action, NONE unused
+    private final BufferedImage[] text = new BufferedImage[TEXTS.length];
+    private final int[] textAscent = new int[TEXTS.length];
+    private static volatile SpriteAtlas last;
+
+    private SpriteAtlas(int cell, Theme theme) {
+        this.cell = cell;
+        this.theme = theme;
+        GraphicsConfiguration gc = GraphicsEnvironment.isHeadless() ? null
+                : GraphicsEnvironment.getLocalGraphicsEnvironment().getDefaultScreenDevice().getDefaultConfiguration();
+
+        blank = image(gc, cell, cell);
+        Graphics2D g = blank.createGraphics();
+        g.setColor(Color.BLACK);
+        g.fillRect(0, 0, cell, cell);
+        g.dispose();
+
+        // Food is composed onto the empty cell, so drawing it is one opaque blit
+        food = image(gc, cell, cell);
+        g = food.createGraphics();
+        g.setColor(Color.BLACK);
+        g.fillRect(0, 0, cell, cell);
+        g.setRenderingHint(RenderingHints.KEY_ANTIALIASING, RenderingHints.VALUE_ANTIALIAS_ON);
+        g.setColor(theme.food);
+        g.fillOval(3, 3, cell - 6, cell - 6);
+        g.setColor(theme.shine);
+        g.fillOval(4, 4, 3, 3);
+        g.dispose();
+
+        body = image(gc, cell, cell);
+        g = body.createGraphics();
+        paintSegment(g, 0, 0, cell, cell);
+        g.dispose();
+
+        for (int a = CustomSnakeLogic.UP; a <= CustomSnakeLogic.RIGHT; a++) {
+            heads[a] = image(gc, cell, cell);
+            g = heads[a].createGraphics();
+            paintSegment(g, 0, 0, cell, cell);
+            paintEyes(g, a);
+            g.dispose();
+
+            tails[a] = image(gc, cell, cell);
+            g = tails[a].createGraphics();
+            g.setColor(Color.BLACK);
+            g.fillRect(0, 0, cell, cell);
+            paintTail(g, a);
+            g.dispose();
+        }
+
+        // Large texts, rasterized once with the panel's fonts onto the black field they are shown
+        // on, so showing one is an opaque copy rather than a blend over its whole box
+        Graphics probe = new BufferedImage(1, 1, BufferedImage.TYPE_INT_RGB).getGraphics();
+        for (int i = 0; i < TEXTS.length; i++) {
+            Font font = i <= TEXT_GO ? COUNTDOWN_FONT : END_FONT;
+            Color color = i <= TEXT_GO ? theme.countdown : i == TEXT_WIN ? theme.win : theme.lose;
+            FontMetrics fm = probe.getFontMetrics(font);
+            int w = Math.max(1, fm.stringWidth(TEXTS[i])), h = Math.max(1, fm.getAscent() + fm.getDescent());
+            text[i] = image(gc, w, h);
+            textAscent[i] = fm.getAscent();
+            g = text[i].createGraphics();
+            g.setColor(Color.BLACK);
+            g.fillRect(0, 0, w, h);
+            g.setRenderingHint(RenderingHints.KEY_TEXT_ANTIALIASING, RenderingHints.VALUE_TEXT_ANTIALIAS_ON);
+            g.setFont(font);
+            g.setColor(color);
+            g.drawString(TEXTS[i], 0, fm.getAscent());
+            g.dispose();
+        }
+        probe.dispose();
+    }
+
+    /**
+     * The atlas for cell size and theme: current if it already matches, else
+     * the last one built (e.g. by the start-up warm-up thread) if that does,
+     * otherwise a freshly built one. Atlases are immutable once built.
+     */
+    static SpriteAtlas ensure(SpriteAtlas current, int cell, Theme theme) {
+        if (current != null && current.cell == cell && current.theme == theme) return current;
+        SpriteAtlas shared = last;
+        if (shared != null && shared.cell == cell && shared.theme == theme) return shared;
+        return last = new SpriteAtlas(cell, theme);
+    }
+
+    /** Head looking towards the given action (UP..RIGHT); NONE looks right like a fresh snake. */
+    BufferedImage head(int action) { return heads[action == CustomSnakeLogic.NONE ? CustomSnakeLogic.RIGHT : action]; }
+
+    /** Tail whose thick end points towards the given action, i.e. at the segment it follows. */
+    BufferedImage tail(int action) { return tails[action == CustomSnakeLogic.NONE ? CustomSnakeLogic.RIGHT : action]; }
+
+    /** Sprite showing what the model has on cell c right now. */
+    BufferedImage sprite(CustomSnakeLogic game, int c) {
+        if (!game.isOccupiedCell(c)) return c == game.food ? food : blank;
+        if (c == game.headCell()) return head(game.currentAction());
+        int n = game.length();
+        if (n > 1 && c == game.tailCell()) return tail(actionBetween(game, c, game.segmentAt(n - 2)));
+        return body;
+    }
+
+    /** Blits text sprite id centred on x with its baseline at y. */
+    void drawText(Graphics g, int id, int x, int y) {
+        BufferedImage img = text[id];
+        g.drawImage(img, x - img.getWidth() / 2, y - textAscent[id], null);
+    }
+
+    /** Action that leads from cell a to its neighbour b. */
+    static int actionBetween(CustomSnakeLogic game, int a, int b) {
+        int dx = game.cellX(b) - game.cellX(a), dy = game.cellY(b) - game.cellY(a);
+        if (dx > 0) return CustomSnakeLogic.RIGHT;
+        if (dx < 0) return CustomSnakeLogic.LEFT;
+        return dy < 0 ? CustomSnakeLogic.UP : CustomSnakeLogic.DOWN;
+    }
+
+    private void paintSegment(Graphics g, int x, int y, int w, int h) {
+        int inset = inset();
+        g.setColor(theme.outline);
+        g.fillRect(x, y, w, h);
+        g.setColor(theme.body);
+        g.fillRect(x + inset, y + inset, w - 2 * inset, h - 2 * inset);
+    }
+
+    /** Two eyes on the leading half of the head. */
+    private void paintEyes(Graphics g, int action) {
+        if (cell < 6) return;
+        int e = Math.max(2, cell / 6), near = cell / 4, far = cell - near - e;
+        int front = action == CustomSnakeLogic.UP || action == CustomSnakeLogic.LEFT ? near : far;
+        g.setColor(theme.eye);
+        if (action == CustomSnakeLogic.UP || action == CustomSnakeLogic.DOWN) {
+            g.fillRect(near, front, e, e);
+            g.fillRect(far, front, e, e);
+        } else {
+            g.fillRect(front, near, e, e);
+            g.fillRect(front, far, e, e);
+        }
+    }
+
+    /** A narrower segment filling the half of the cell on the side it follows. */
+    private void paintTail(Graphics g, int action) {
+        int side = cell >= 8 ? cell / 4 : 0, len = cell - cell / 3;
+        switch (action) {
+            case CustomSnakeLogic.UP -> paintSegment(g, side, 0, cell - 2 * side, len);
+            case CustomSnakeLogic.DOWN -> paintSegment(g, side, cell - len, cell - 2 * side, len);
+            case CustomSnakeLogic.LEFT -> paintSegment(g, 0, side, len, cell - 2 * side);
+            default -> paintSegment(g, cell - len, side, len, cell - 2 * side);
+        }
+    }
+
+    private int inset() { return cell >= 8 ? 2 : cell >= 4 ? 1 : 0; }
+
+    /** Opaque screen-compatible image so blits to the window need no conversion; plain RGB when headless. */
+    private static BufferedImage image(GraphicsConfiguration gc, int w, int h) {
+        if (gc != null) return gc.createCompatibleImage(w, h, Transparency.OPAQUE);
+        return new BufferedImage(w, h, BufferedImage.TYPE_INT_RGB);
+    }
+}
@@ -0,0 +1,56 @@
+import java.time.Instant;
+
+/**
+ * Start-up timeline for AASnakeGame --startup-profile.
+ *
+ * Each milestone is stamped the first time it is reached and the timeline
+ * is printed at the end, so formatting does not load classes in between:
+ * milliseconds since the JVM process started (from the OS, so with its
+ * clock resolution) and since main() was entered. The profiled run starts a
+ * Normal game by itself, skipping the countdown, and exits at the first frame
+ * of the running game, so it can be scripted and doubles as the training run
+ * for an AppCDS archive. When the profile is off, mark() is a single
+ * volatile read.
+ */
+final class StartupProfile {
+    static final int MAIN = 0, WINDOW_SHOWN = 1, MENU_PAINTED = 2, GAME_PANEL = 3, FIRST_GAME_FRAME = 4;
+    private static final String[] NAMES = {
+            "main() entered", "window shown", "menu painted (frame visible)", "game panel created", "first game frame"};
+
+    private static volatile boolean enabled;
+    private static long mainNanos;
+    private static final long[] reachedMillis = new long[NAMES.length];
+    private static final long[] reachedNanos = new long[NAMES.length];
+
+    private StartupProfile() {}
+
+    /** Turns the profile on and records MAIN; call first thing in main(). */
+    static void enable() {
+        reachedMillis[MAIN] = System.currentTimeMillis();
+        reachedNanos[MAIN] = mainNanos = System.nanoTime();
+        enabled = true;
+    }
+
+    static boolean enabled() { return enabled; }
+
+    /** Stamps the milestone the first time it is reached; the first game frame prints the timeline and exits. */
+    static void mark(int milestone) {
+        if (!enabled) return;
+        synchronized (reachedNanos) {
+            if (reachedNanos[milestone] != 0) return;
+            reachedMillis[milestone] = System.currentTimeMillis();
+            reachedNanos[milestone] = System.nanoTime();
+        }
+        if (milestone != FIRST_GAME_FRAME) return;
+        long processStartMillis = ProcessHandle.current().info().startInstant()
+                .map(Instant::toEpochMilli).orElse(reachedMillis[MAIN]);
+        System.out.printf("startup-profile: %d CPU(s), %s, %s%n", Runtime.getRuntime().availableProcessors(),
+                System.getProperty("java.vm.version"), System.getProperty("java.vm.info", ""));
+        for (int m = 0; m < NAMES.length; m++) {
+            if (reachedNanos[m] == 0) continue; // No window when headless
+            System.out.printf("startup-profile: %-30s %6d ms since JVM start, %6d ms since main%n", NAMES[m],
+                    reachedMillis[m] - processStartMillis, (reachedNanos[m] - mainNanos) / 1_000_000);
+        }
+        System.exit(0);
+    }
+}
@@ -0,0 +1,258 @@
+import com.sun.management.GarbageCollectionNotificationInfo;
+import jdk.jfr.Category;
+import jdk.jfr.Event;
+import jdk.jfr.EventType;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+import jdk.jfr.Timespan;
+
+import javax.management.NotificationEmitter;
+import javax.management.openmbean.CompositeData;
+import java.io.IOException;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Performance instrumentation for the game panel: tick duration, paint
+ * duration, how late each tick starts against the target delay, the
+ * allocation rate and GC pauses, all in fixed-bucket LatencyHistograms.
+ *
+ * The numbers surface three ways: a one-second text summary for the
+ * on-screen overlay, custom JFR events (snake.Tick, snake.Paint) whenever
+ * a flight recording is running, and a periodic CSV or JSON-lines dump.
+ * When disabled the panel pays one field read per tick and frame; nothing
+ * is timed, recorded or allocated. Start enabled with
+ * -Dsnake.telemetry=on, or -Dsnake.telemetry=&lt;file.csv|file.json&gt; to also
+ * dump every -Dsnake.telemetry.interval seconds (default 5).
+ *
+ * Ticks and paints are recorded by the thread that runs them, which is the
+ * loop thread under active rendering and the EDT otherwise (the panel skips
+ * timing Swing paints while the loop presents frames), so each histogram
+ * has one writer. The sampler thread only reads, so summaries may be a
+ * sample or two behind.
+ */
+final class Telemetry {
+    private static final long SAMPLE_MILLIS = 1000;
+
+    volatile boolean enabled;
+
+    final LatencyHistogram tick = new LatencyHistogram();
+    final LatencyHistogram paint = new LatencyHistogram();
+    final LatencyHistogram late = new LatencyHistogram();    // Tick start past the target interval
+    final LatencyHistogram gcPause = new LatencyHistogram(); // Written by the JMX notification thread
+
+    private long lastTickStart;
+    private volatile long targetNanos;
+    private final AtomicLong errors = new AtomicLong(); // Bumped from the loop thread and the EDT
+
+    // ==== SAMPLER ====
+    private final Runnable onSample;
+    private final Path dumpFile;
+    private final boolean json;
+    private final int dumpEverySamples;
+    private Thread sampler;
+    private volatile String overlayLine1, overlayLine2;
+    private volatile double allocBytesPerSec;
+    private long lastAllocBytes, lastSampleNanos;
+
+    /** Configured from the snake.telemetry properties; onSample runs after each 1 s sample (sampler thread). */
+    static Telemetry fromSystemProperties(Runnable onSample) {
+        String mode = System.getProperty("snake.telemetry", "off");
+        int interval = Integer.getInteger("snake.telemetry.interval", 5);
+        boolean on = !mode.equals("off");
+        Path file = on && !mode.equals("on") ? Paths.get(mode) : null;
+        Telemetry t = new Telemetry(onSample, file, interval);
+        if (on) t.setEnabled(true);
+        return t;
+    }
+
+    Telemetry(Runnable onSample, Path dumpFile, int dumpIntervalSeconds) {
+        this.onSample = onSample;
+        this.dumpFile = dumpFile;
+        this.json = dumpFile != null && dumpFile.toString().endsWith(".json");
+        this.dumpEverySamples = Math.max(1, dumpIntervalSeconds);
+    }
+
+    /** Turns recording on or off; the sampler thread and GC listener start the first time it is enabled. */
+    synchronized void setEnabled(boolean on) {
+        enabled = on;
+        if (on && sampler == null) {
+            listenForGc();
+            sampler = new Thread(this::sampleLoop, "snake-telemetry");
+            sampler.setDaemon(true);
+            sampler.start();
+        }
+    }
+
+    /** Time stamp to pass to {@link #tickDone}, or 0 when disabled. */
+    long tickStart() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    /** Records a tick that began at start (from tickStart) with the given target delay. */
+    void tickDone(long start, int delayMs) {
+        if (start == 0) return;
+        long end = System.nanoTime();
+        long target = delayMs * 1_000_000L;
+        targetNanos = target;
+        tick.record(end - start);
+        long interval = lastTickStart == 0 ? target : start - lastTickStart;
+        lastTickStart = start;
+        late.record(interval - target); // Catch-up ticks come early and count as 0
+        if (JfrTypes.TICK.isEnabled()) {
+            TickEvent e = new TickEvent();
+            e.tickTime = end - start;
+            e.interval = interval;
+            e.target = target;
+            e.commit();
+        }
+    }
+
+    /** Time stamp to pass to {@link #paintDone}, or 0 when disabled. */
+    long paintStart() {
+        return enabled ? System.nanoTime() : 0;
+    }
+
+    void paintDone(long start) {
+        if (start == 0) return;
+        long t = System.nanoTime() - start;
+        paint.record(t);
+        if (JfrTypes.PAINT.isEnabled()) {
+            PaintEvent e = new PaintEvent();
+            e.paintTime = t;
+            e.commit();
+        }
+    }
+
+    /** Counts an exception the game caught and carried on from, and prints it as before. */
+    void error(Exception ex) {
+        errors.incrementAndGet();
+        ex.printStackTrace();
+    }
+
+    String overlayLine1() { return overlayLine1; }
+
+    String overlayLine2() { return overlayLine2; }
+
+    // ==== SAMPLING AND DUMPS (sampler thread) ====
+
+    private void sampleLoop() {
+        long samples = 0;
+        while (true) {
+            try {
+                Thread.sleep(SAMPLE_MILLIS);
+            } catch (InterruptedException ex) {
+                return;
+            }
+            if (!enabled) continue;
+            sampleAllocation();
+            overlayLine1 = String.format("tick p50 %.2f p99 %.2f ms | paint p50 %.2f p99 %.2f ms | late p99 %.1f of %d ms",
+                    ms(tick.percentile(0.5)), ms(tick.percentile(0.99)), ms(paint.percentile(0.5)),
+                    ms(paint.percentile(0.99)), ms(late.percentile(0.99)), targetNanos / 1_000_000);
+            overlayLine2 = String.format("alloc %.2f MB/s | gc %d, p99 pause %.1f ms | errors %d",
+                    allocBytesPerSec / 1e6, gcPause.count(), ms(gcPause.percentile(0.99)), errors.get());
+            if (dumpFile != null && ++samples % dumpEverySamples == 0) dump();
+            if (onSample != null) onSample.run();
+        }
+    }
+
+    /** Bytes allocated per second by all live threads since the last sample. */
+    private void sampleAllocation() {
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long total = 0;
+        for (long b : threads.getThreadAllocatedBytes(threads.getAllThreadIds())) total += Math.max(0, b);
+        long now = System.nanoTime();
+        if (lastSampleNanos != 0) {
+            // Threads that exited take their counts with them; never report a negative rate
+            allocBytesPerSec = Math.max(0, total - lastAllocBytes) * 1e9 / (now - lastSampleNanos);
+        }
+        lastAllocBytes = total;
+        lastSampleNanos = now;
+    }
+
+    private void listenForGc() {
+        for (GarbageCollectorMXBean gc : ManagementFactory.getGarbageCollectorMXBeans()) {
+            if (!(gc instanceof NotificationEmitter)) continue;
+            ((NotificationEmitter) gc).addNotificationListener((n, handback) -> {
+                if (!n.getType().equals(GarbageCollectionNotificationInfo.GARBAGE_COLLECTION_NOTIFICATION)) return;
+                GarbageCollectionNotificationInfo info =
+                        GarbageCollectionNotificationInfo.from((CompositeData) n.getUserData());
+                if (enabled) gcPause.record(info.getGcInfo().getDuration() * 1_000_000L);
+            }, null, null);
+        }
+    }
+
+    /** Appends one cumulative CSV row (header first) or JSON object line to the dump file. */
+    private void dump() {
+        String line;
+        if (json) {
+            line = String.format("{\"timeMs\":%d,\"ticks\":%d,\"tickP50Us\":%.1f,\"tickP99Us\":%.1f,\"tickMaxUs\":%.1f,"
+                            + "\"paintP50Us\":%.1f,\"paintP99Us\":%.1f,\"lateP50Ms\":%.3f,\"lateP99Ms\":%.3f,"
+                            + "\"targetMs\":%d,\"allocMBs\":%.3f,\"gcCount\":%d,\"gcP99Ms\":%.3f,\"gcMaxMs\":%.3f,"
+                            + "\"errors\":%d}%n",
+                    System.currentTimeMillis(), tick.count(), us(tick.percentile(0.5)), us(tick.percentile(0.99)),
+                    us(tick.max()), us(paint.percentile(0.5)), us(paint.percentile(0.99)),
+                    ms(late.percentile(0.5)), ms(late.percentile(0.99)), targetNanos / 1_000_000,
+                    allocBytesPerSec / 1e6, gcPause.count(), ms(gcPause.percentile(0.99)), ms(gcPause.max()), errors.get());
+        } else {
+            line = String.format("%d,%d,%.1f,%.1f,%.1f,%.1f,%.1f,%.3f,%.3f,%d,%.3f,%d,%.3f,%.3f,%d%n",
+                    System.currentTimeMillis(), tick.count(), us(tick.percentile(0.5)), us(tick.percentile(0.99)),
+                    us(tick.max()), us(paint.percentile(0.5)), us(paint.percentile(0.99)),
+                    ms(late.percentile(0.5)), ms(late.percentile(0.99)), targetNanos / 1_000_000,
+                    allocBytesPerSec / 1e6, gcPause.count(), ms(gcPause.percentile(0.99)), ms(gcPause.max()), errors.get());
+        }
+        try {
+            if (!json && !Files.exists(dumpFile)) {
+                line = "time_ms,ticks,tick_p50_us,tick_p99_us,tick_max_us,paint_p50_us,paint_p99_us,"
+                        + "late_p50_ms,late_p99_ms,target_ms,alloc_mb_s,gc_count,gc_p99_ms,gc_max_ms,errors\n" + line;
+            }
+            Files.write(dumpFile, line.getBytes(StandardCharsets.UTF_8),
+                    StandardOpenOption.CREATE, StandardOpenOption.APPEND);
+        } catch (IOException ex) {
+            ex.printStackTrace();
+        }
+    }
+
+    private static double ms(long nanos) { return nanos / 1e6; }
+
+    private static double us(long nanos) { return nanos / 1e3; }
+
+    // ==== JFR EVENTS ====
+    // Committed only while a recording has them enabled, e.g. java -XX:StartFlightRecording ...
+
+    /**
+     * Event type handles, in a holder so the JFR machinery (reflection over
+     * the annotations, proxies) only loads once telemetry records something,
+     * not at start-up.
+     */
+    private static final class JfrTypes {
+        static final EventType TICK = EventType.getEventType(TickEvent.class);
+        static final EventType PAINT = EventType.getEventType(PaintEvent.class);
+    }
+
+    @Name("snake.Tick")
+    @Label("Snake Tick")
+    @Category("Snake")
+    @StackTrace(false)
+    static final class TickEvent extends Event {
+        @Label("Tick Time") @Timespan long tickTime;
+        @Label("Interval") @Timespan long interval;
+        @Label("Target Interval") @Timespan long target;
+    }
+
+    @Name("snake.Paint")
+    @Label("Snake Paint")
+    @Category("Snake")
+    @StackTrace(false)
+    static final class PaintEvent extends Event {
+        @Label("Paint Time") @Timespan long paintTime;
+    }
+}
@@ -0,0 +1,197 @@
+import java.awt.Color;
+import java.awt.Graphics;
+import java.awt.Graphics2D;
+import java.awt.Rectangle;
+import java.awt.image.BufferedImage;
+
+/**
+ * Scrolling view of a board too big for one back buffer (up to
+ * 10,000 x 10,000 cells), with a camera that keeps the head centred.
+ *
+ * The board is cut into TILE x TILE cell tiles. Only tiles under the
+ * viewport are rendered, into a fixed pool of images sized to cover the
+ * viewport plus one tile of slack; the least recently drawn tile is reused
+ * when the camera reaches a new one. A tile starts from the cached static
+ * background (a faint guide grid, since a black field would hide the
+ * scrolling) and then gets the snake and food cells inside it. Like
+ * BoardRenderer, a tick only repaints the cells it changed, and only if
+ * their tile is in the pool. Memory depends on the viewport, not the board:
+ * one int per tile for the slot map plus the pool.
+ */
+class TiledBoardRenderer {
+    static final int TILE = 16;      // Cells per tile side
+    static final int GUIDE_EVERY = 8; // Guide line spacing in cells (divides TILE)
+
+    private static final Color GUIDE = new Color(28, 28, 28);
+    private static final Color OUTSIDE = new Color(45, 45, 45);
+
+    final int cols, rows, cell;
+    final int viewW, viewH; // Viewport size in pixels
+    private final int tilesX, tilesY, tilePx;
+
+    private final BufferedImage background; // Static tile content, drawn under every tile
+    private SpriteAtlas atlas;
+
+    // ==== TILE POOL ====
+    private final int[] slotOfTile;        // Tile id (ty * tilesX + tx) -> pool slot, -1 if not cached
+    private final int[] tileOfSlot;        // Pool slot -> tile id, -1 if free
+    private final long[] lastUsed;         // Frame number a slot was last drawn in, for LRU eviction
+    private final BufferedImage[] images;
+    private final Graphics2D[] graphics;
+    private long frame;
+    private long tileRenders;              // Tiles rendered from the model so far (cache misses)
+
+    // Camera: board pixel at the viewport's top-left corner; may lie outside the board near a wall
+    private int camX, camY;
+
+    // Reused so drawing never allocates
+    private final Rectangle savedClip = new Rectangle();
+
+    TiledBoardRenderer(int cols, int rows, int cell, int viewW, int viewH) {
+        this.cols = cols;
+        this.rows = rows;
+        this.cell = cell;
+        this.viewW = viewW;
+        this.viewH = viewH;
+        this.tilePx = TILE * cell;
+        this.tilesX = (cols + TILE - 1) / TILE;
+        this.tilesY = (rows + TILE - 1) / TILE;
+
+        int pool = (viewW / tilePx + 2) * (viewH / tilePx + 2);
+        slotOfTile = new int[tilesX * tilesY];
+        java.util.Arrays.fill(slotOfTile, -1);
+        tileOfSlot = new int[pool];
+        java.util.Arrays.fill(tileOfSlot, -1);
+        lastUsed = new long[pool];
+        images = new BufferedImage[pool];
+        graphics = new Graphics2D[pool];
+        for (int i = 0; i < pool; i++) {
+            images[i] = new BufferedImage(tilePx, tilePx, BufferedImage.TYPE_INT_RGB);
+            graphics[i] = images[i].createGraphics();
+        }
+
+        background = new BufferedImage(tilePx, tilePx, BufferedImage.TYPE_INT_RGB);
+        Graphics g = background.getGraphics();
+        g.setColor(Color.BLACK);
+        g.fillRect(0, 0, tilePx, tilePx);
+        g.setColor(GUIDE);
+        for (int i = 0; i < TILE; i += GUIDE_EVERY) {
+            g.drawLine(i * cell, 0, i * cell, tilePx - 1);
+            g.drawLine(0, i * cell, tilePx - 1, i * cell);
+        }
+        g.dispose();
+        atlas = SpriteAtlas.ensure(null, cell, SpriteAtlas.CLASSIC);
+    }
+
+    /** Switches to another atlas (theme) of the same cell size; call redrawAll afterwards. */
+    void setAtlas(SpriteAtlas atlas) {
+        if (atlas.cell != cell) throw new IllegalArgumentException("atlas is for cell " + atlas.cell + ", not " + cell);
+        this.atlas = atlas;
+    }
+
+    /** Drops every cached tile, used when a game (re)starts or is loaded. */
+    void redrawAll(CustomSnakeLogic game) {
+        for (int i = 0; i < tileOfSlot.length; i++) {
+            if (tileOfSlot[i] >= 0) slotOfTile[tileOfSlot[i]] = -1;
+            tileOfSlot[i] = -1;
+        }
+        follow(game);
+    }
+
+    /** Centres the camera on the head. */
+    void follow(CustomSnakeLogic game) {
+        int h = game.headCell();
+        camX = game.cellX(h) * cell + cell / 2 - viewW / 2;
+        camY = game.cellY(h) * cell + cell / 2 - viewH / 2;
+    }
+
+    /** Repaints one cell in its cached tile; tiles off the pool are rendered fresh when they come into view. */
+    void paintCell(CustomSnakeLogic game, int c) {
+        if (c < 0) return;
+        int x = c % cols, y = c / cols;
+        int slot = slotOfTile[(y / TILE) * tilesX + x / TILE];
+        if (slot < 0) return;
+        drawCell(graphics[slot], game, c, (x % TILE) * cell, (y % TILE) * cell);
+    }
+
+    /** Draws the viewport with its top-left corner at (x0, y0) of g, clipped to the viewport. */
+    void drawViewport(Graphics g, CustomSnakeLogic game, int x0, int y0) {
+        frame++;
+        Rectangle clip = g.getClipBounds(savedClip);
+        boolean hadClip = clip != null;
+        g.clipRect(x0, y0, viewW, viewH);
+
+        int tx0 = Math.floorDiv(camX, tilePx), ty0 = Math.floorDiv(camY, tilePx);
+        int tx1 = Math.floorDiv(camX + viewW - 1, tilePx), ty1 = Math.floorDiv(camY + viewH - 1, tilePx);
+        g.setColor(OUTSIDE);
+        for (int ty = ty0; ty <= ty1; ty++) {
+            for (int tx = tx0; tx <= tx1; tx++) {
+                int px = x0 + tx * tilePx - camX, py = y0 + ty * tilePx - camY;
+                if (tx < 0 || ty < 0 || tx >= tilesX || ty >= tilesY) {
+                    g.fillRect(px, py, tilePx, tilePx);
+                    continue;
+                }
+                g.drawImage(images[slotFor(game, tx, ty)], px, py, null);
+            }
+        }
+
+        if (hadClip) g.setClip(savedClip.x, savedClip.y, savedClip.width, savedClip.height);
+        else g.setClip(null);
+    }
+
+    /** Pool slot holding tile (tx, ty), rendering it into the least recently used slot on a miss. */
+    private int slotFor(CustomSnakeLogic game, int tx, int ty) {
+        int id = ty * tilesX + tx;
+        int slot = slotOfTile[id];
+        if (slot < 0) {
+            slot = 0;
+            for (int i = 1; i < lastUsed.length; i++) {
+                if (lastUsed[i] < lastUsed[slot]) slot = i;
+            }
+            if (tileOfSlot[slot] >= 0) slotOfTile[tileOfSlot[slot]] = -1;
+            tileOfSlot[slot] = id;
+            slotOfTile[id] = slot;
+            renderTile(game, slot, tx, ty);
+        }
+        lastUsed[slot] = frame;
+        return slot;
+    }
+
+    /** Renders a tile from scratch: cached background, then any part beyond the board edge, then cells. */
+    private void renderTile(CustomSnakeLogic game, int slot, int tx, int ty) {
+        tileRenders++;
+        Graphics2D g = graphics[slot];
+        g.drawImage(background, 0, 0, null);
+        int cx0 = tx * TILE, cy0 = ty * TILE;
+        int w = Math.min(TILE, cols - cx0), h = Math.min(TILE, rows - cy0);
+        if (w < TILE || h < TILE) {
+            g.setColor(OUTSIDE);
+            g.fillRect(w * cell, 0, tilePx - w * cell, tilePx);
+            g.fillRect(0, h * cell, tilePx, tilePx - h * cell);
+        }
+        for (int y = 0; y < h; y++) {
+            int c = (cy0 + y) * cols + cx0;
+            for (int x = 0; x < w; x++, c++) {
+                if (game.isOccupiedCell(c) || c == game.food) drawCell(g, game, c, x * cell, y * cell);
+            }
+        }
+    }
+
+    /** Paints a cell at tile pixel (px, py): a snake or food sprite, else its background slice. */
+    private void drawCell(Graphics2D g, CustomSnakeLogic game, int c, int px, int py) {
+        if (game.isOccupiedCell(c) || c == game.food) {
+            g.drawImage(atlas.sprite(game, c), px, py, null);
+            return;
+        }
+        g.drawImage(background, px, py, px + cell, py + cell, px, py, px + cell, py + cell, null);
+    }
+
+    /** Tiles rendered from the model so far, i.e. pool misses. */
+    long tileRenders() { return tileRenders; }
+
+    /** Bytes held by the tile pool, the slot map and the background, for footprint reports. */
+    long footprintBytes() {
+        long px = (long) tilePx * tilePx;
+        return (images.length + 1) * px * 4 + slotOfTile.length * 4L + tileOfSlot.length * 12L;
+    }
+}
@@ -0,0 +1,67 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+import java.lang.management.ManagementFactory;
+
+/**
+ * Allocation regression check for the tick and paint hot paths.
+ *
+ * Drives the game panel along a Hamiltonian cycle (so the snake can grow
+ * without dying), painting every tick into an offscreen image, and reads this thread's allocated bytes from the HotSpot
+ * ThreadMXBean. Exits with status 1 if the steady state allocates more than
+ * the budget (zero by default). Run with
+ *   javac -d out *.java bench/*.java && java -Djava.awt.headless=true -cp out AllocationCheck
+ */
+public class AllocationCheck {
+
+    private static final int WARMUP_TICKS = 50_000;
+    private static final int MEASURED_TICKS = 100_000;
+
+    public static void main(String[] args) {
+        long budget = args.length > 0 ? Long.parseLong(args[0]) : 0L;
+
+        com.sun.management.ThreadMXBean threads =
+                (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long tid = Thread.currentThread().getId();
+
+        AASnakeGame panel = new AASnakeGame();
+        CustomSnakeLogic game = new CustomSnakeLogic(40, 25, 1L);
+        HamiltonianCycle cycle = new HamiltonianCycle(40, 25);
+        game.layOnCycle(cycle, 3);
+        game.spawnFood();
+        panel.attachGame(game);
+        panel.setSize(panel.getPreferredSize());
+
+        BufferedImage frame = new BufferedImage(panel.getWidth(), panel.getHeight(), BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = frame.createGraphics();
+
+        for (int i = 0; i < WARMUP_TICKS; i++) tickAndPaint(game, cycle, panel, g);
+
+        long before = threads.getThreadAllocatedBytes(tid);
+        for (int i = 0; i < MEASURED_TICKS; i++) tickAndPaint(game, cycle, panel, g);
+        long allocated = threads.getThreadAllocatedBytes(tid) - before;
+
+        // Calling the MXBean itself can cost a few bytes; measure and subtract it
+        long probe0 = threads.getThreadAllocatedBytes(tid);
+        long overhead = threads.getThreadAllocatedBytes(tid) - probe0;
+        allocated = Math.max(0, allocated - overhead);
+
+        g.dispose();
+        System.out.printf("Allocated %d bytes over %d ticks (%.3f bytes/tick), budget %d%n",
+                allocated, MEASURED_TICKS, allocated / (double) MEASURED_TICKS, budget);
+        if (allocated > budget) {
+            System.out.println("FAIL: tick + paint hot path allocates");
+            System.exit(1);
+        }
+        System.out.println("OK");
+    }
+
+    /** One game tick followed by one full frame, as the Swing timer + paintComponent would do. */
+    private static void tickAndPaint(CustomSnakeLogic game, HamiltonianCycle cycle, AASnakeGame panel, Graphics2D g) {
+        int h = game.headCell(), n = cycle.next(h);
+        game.changeDirection(game.cellX(n) - game.cellX(h), game.cellY(n) - game.cellY(h));
+
+        panel.tick();
+        if (game.checkCollision() || game.isBoardFull()) throw new IllegalStateException("Game ended during the check");
+        panel.paintComponent(g);
+    }
+}
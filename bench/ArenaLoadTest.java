@@ -0,0 +1,168 @@
+import java.io.IOException;
+import java.net.InetAddress;
+import java.net.InetSocketAddress;
+import java.net.StandardSocketOptions;
+import java.nio.ByteBuffer;
+import java.nio.channels.SelectionKey;
+import java.nio.channels.Selector;
+import java.nio.channels.SocketChannel;
+
+/**
+ * Load generator for ArenaServer: starts a server on a free loopback port,
+ * connects 10, 100 and 1000 headless bot clients (all on one Selector
+ * thread) that turn at random, and reports per arena size:
+ *   - server tick time (arena tick + encode + broadcast to every socket),
+ *   - delivery latency from the start of a tick to a bot reading its frame,
+ *   - outgoing bandwidth, in total and per client per tick.
+ * Bot 0 also keeps a mirror Arena from the frames it gets; after the run
+ * its checksum must match the server's, or the program exits with status 1.
+ *
+ *   java -cp out ArenaLoadTest [seconds] [tickMs] [counts...]
+ */
+public class ArenaLoadTest {
+    private static final long WARMUP_NANOS = 1_000_000_000L;
+
+    public static void main(String[] args) throws Exception {
+        int seconds = args.length > 0 ? Integer.parseInt(args[0]) : 5;
+        int tickMs = args.length > 1 ? Integer.parseInt(args[1]) : 50;
+        int[] counts = {10, 100, 1000};
+        if (args.length > 2) {
+            counts = new int[args.length - 2];
+            for (int i = 2; i < args.length; i++) counts[i - 2] = Integer.parseInt(args[i]);
+        }
+
+        System.out.printf("%d s per run after %.0f s warm-up, tick %d ms, %d CPU(s)%n%n",
+                seconds, WARMUP_NANOS / 1e9, tickMs, Runtime.getRuntime().availableProcessors());
+        boolean ok = true;
+        for (int n : counts) ok &= run(n, seconds, tickMs);
+        if (!ok) System.exit(1);
+    }
+
+    /** About 200 cells per snake at the panel's 16:10 aspect. */
+    private static boolean run(int n, int seconds, int tickMs) throws Exception {
+        int cols = Math.max(40, (int) Math.sqrt(n * 200 * 1.6)), rows = cols * 10 / 16;
+        Arena arena = new Arena(cols, rows, n, ArenaServer.defaultFood(n), 42);
+        ArenaServer server = new ArenaServer(arena, 0, tickMs);
+        Thread serverThread = new Thread(server, "arena-server");
+        serverThread.start();
+
+        Selector selector = Selector.open();
+        Bot[] bots = new Bot[n];
+        InetSocketAddress address = new InetSocketAddress(InetAddress.getLoopbackAddress(), server.port());
+        for (int i = 0; i < n; i++) {
+            SocketChannel ch = SocketChannel.open(address);
+            ch.setOption(StandardSocketOptions.TCP_NODELAY, true);
+            ch.configureBlocking(false);
+            bots[i] = new Bot(ch, i, i == 0);
+            ch.register(selector, SelectionKey.OP_READ, bots[i]);
+        }
+
+        LatencyHistogram delivery = new LatencyHistogram();
+        ByteBuffer action = ByteBuffer.allocateDirect(1);
+        long start = System.nanoTime(), measureFrom = start + WARMUP_NANOS;
+        long end = measureFrom + seconds * 1_000_000_000L;
+        boolean[] measuring = {false};
+        while (System.nanoTime() < end) {
+            if (!measuring[0] && System.nanoTime() >= measureFrom) {
+                measuring[0] = true;
+                server.resetStats();
+            }
+            selector.select(key -> {
+                Bot bot = (Bot) key.attachment();
+                try {
+                    bot.read(measuring[0] ? delivery : null, action);
+                } catch (IOException ex) {
+                    key.cancel();
+                }
+            }, 10);
+        }
+
+        // Stop the server, then let the mirror drain everything that was sent before it closed
+        server.stop();
+        serverThread.join();
+        long drainUntil = System.nanoTime() + 5_000_000_000L;
+        Bot observer = bots[0];
+        while (!observer.eof && System.nanoTime() < drainUntil) {
+            try {
+                observer.read(null, action);
+            } catch (IOException ex) {
+                break;
+            }
+        }
+        for (Bot b : bots) b.ch.close();
+        selector.close();
+
+        double secs = seconds; // Stats were reset when measuring started
+        long frames = server.ticks();
+        boolean inSync = observer.mirror != null && observer.mirror.checksum() == arena.checksum();
+        System.out.printf("%d snakes on %dx%d: %d ticks (%.1f/s), %d alive at the end, %d dropped%n",
+                n, cols, rows, frames, frames / secs, arena.aliveCount(), server.dropped());
+        System.out.printf("  bandwidth: %.1f KB/s out, %.0f B per tick per client%n",
+                server.bytesSent() / secs / 1e3, frames == 0 ? 0.0 : (double) server.bytesSent() / frames / n);
+        System.out.println("  " + server.tickTime.summary("Server tick"));
+        System.out.println("  " + delivery.summary("Tick -> bot"));
+        System.out.printf("  mirror: tick %d vs server %d, %s%n%n", observer.mirror == null ? -1 : observer.mirror.currentTick(),
+                arena.currentTick(), inSync ? "in sync" : "MISMATCH");
+        return inSync;
+    }
+
+    /** A headless client that reads frames and sometimes turns. */
+    private static final class Bot {
+        final SocketChannel ch;
+        final SnakeRandom rand;
+        final boolean observe;
+        ByteBuffer in = ByteBuffer.allocate(64 * 1024);
+        Arena mirror; // Only for the observer
+        boolean eof;
+
+        Bot(SocketChannel ch, int id, boolean observe) {
+            this.ch = ch;
+            this.rand = new SnakeRandom(id * 7919L + 1);
+            this.observe = observe;
+        }
+
+        /** Reads what is there and handles every complete frame; records delivery when given a histogram. */
+        void read(LatencyHistogram delivery, ByteBuffer action) throws IOException {
+            if (ch.read(in) < 0) {
+                eof = true;
+                return;
+            }
+            long now = System.nanoTime();
+            in.flip();
+            while (in.remaining() >= 4) {
+                int len = in.getInt(in.position());
+                if (in.remaining() < 4 + len) {
+                    if (4 + len > in.capacity()) grow(4 + len);
+                    break;
+                }
+                int frameEnd = in.position() + 4 + len;
+                in.position(in.position() + 4);
+                byte type = in.get();
+                if (type == ArenaProtocol.TICK) {
+                    if (delivery != null) delivery.record(now - ArenaProtocol.tickNanos(in));
+                    if (rand.nextInt(8) == 0) {
+                        action.clear();
+                        action.put((byte) (CustomSnakeLogic.UP + rand.nextInt(4))).flip();
+                        ch.write(action);
+                    }
+                }
+                if (observe) {
+                    if (mirror == null) {
+                        int[] size = ArenaProtocol.peekSnapshot(in);
+                        mirror = new Arena(size[0], size[1], size[2], size[3], 0);
+                    }
+                    ArenaProtocol.apply(mirror, type, in.slice().limit(frameEnd - in.position()));
+                }
+                in.position(frameEnd);
+            }
+            in.compact();
+        }
+
+        private void grow(int size) {
+            ByteBuffer bigger = ByteBuffer.allocate(Integer.highestOneBit(size) << 1);
+            bigger.put(in);
+            bigger.flip();
+            in = bigger;
+        }
+    }
+}
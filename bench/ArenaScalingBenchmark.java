@@ -0,0 +1,71 @@
+import java.util.concurrent.ForkJoinPool;
+
+/**
+ * Many-bot arena: ticks per second of Arena.tick() with its phases on 1, 2,
+ * 4, ... threads, for arenas of 1000 and 4000 bots (about 250 cells each).
+ * Every run starts from the same seed and plays the same number of ticks;
+ * a running hash of the checksum after every tick must be identical for
+ * every thread count, or the program exits with status 1.
+ *
+ *   java -cp out ArenaScalingBenchmark [ticks] [maxThreads] [snakeCounts...]
+ */
+public class ArenaScalingBenchmark {
+
+    public static void main(String[] args) {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 500;
+        int maxThreads = args.length > 1 ? Integer.parseInt(args[1]) : Runtime.getRuntime().availableProcessors();
+        int[] counts = {1000, 4000};
+        if (args.length > 2) {
+            counts = new int[args.length - 2];
+            for (int i = 2; i < args.length; i++) counts[i - 2] = Integer.parseInt(args[i]);
+        }
+        System.out.printf("%d ticks per run, %d CPU(s)%n", ticks, Runtime.getRuntime().availableProcessors());
+
+        boolean ok = true;
+        for (int n : counts) {
+            int cols = (int) Math.sqrt(n * 250 * 1.6), rows = cols * 10 / 16;
+            System.out.printf("%n%d bots on %dx%d, %d food%n", n, cols, rows, ArenaServer.defaultFood(n));
+            System.out.printf("%8s %12s %10s %10s %22s%n", "threads", "ticks/s", "speedup", "alive", "trail hash");
+            // One untimed game first, so the serial row is not the one paying for the JIT
+            Arena warm = new Arena(cols, rows, n, ArenaServer.defaultFood(n), 7);
+            for (int i = 0; i < n; i++) warm.joinBot();
+            for (int i = 0; i < ticks; i++) warm.tick();
+
+            double base = 0;
+            long expected = 0;
+            // Thread counts 1, 2, 4, ... up to maxThreads; 0 is the plain loop without a pool
+            for (int threads = 0; ; threads = threads == 0 ? 1 : Math.min(maxThreads, threads * 2)) {
+                ForkJoinPool pool = threads == 0 ? null : new ForkJoinPool(threads);
+                Arena arena = new Arena(cols, rows, n, ArenaServer.defaultFood(n), 42);
+                arena.useThreads(pool);
+                for (int i = 0; i < n; i++) arena.joinBot();
+                for (int i = 0; i < ticks / 5; i++) arena.tick(); // Warm-up, part of the hashed game
+
+                long trail = 0, nanos = 0;
+                for (int i = 0; i < ticks; i++) {
+                    long t0 = System.nanoTime();
+                    arena.tick();
+                    nanos += System.nanoTime() - t0;
+                    trail = trail * 31 + arena.checksum(); // Not timed: serial and as big as every body
+                }
+                double secs = nanos / 1e9;
+                if (pool != null) pool.shutdown();
+
+                double rate = ticks / secs;
+                if (threads == 0) {
+                    base = rate;
+                    expected = trail;
+                }
+                boolean same = trail == expected;
+                ok &= same;
+                System.out.printf("%8s %12.1f %9.2fx %10d %22d%s%n", threads == 0 ? "serial" : threads, rate, rate / base,
+                        arena.aliveCount(), trail, same ? "" : "  MISMATCH");
+                if (threads >= maxThreads) break;
+            }
+        }
+        if (!ok) {
+            System.out.println("FAIL: thread count changed the game");
+            System.exit(1);
+        }
+    }
+}
@@ -0,0 +1,54 @@
+/**
+ * Plays seeded games with the Autopilot and reports how well it plays and
+ * how long each decision takes, on the default board and on a 200x200
+ * board. Games on the big board are capped at a tick count so a run stays
+ * short. Run with
+ *   javac -d out *.java bench/*.java && java -cp out AutopilotBenchmark [games]
+ */
+public class AutopilotBenchmark {
+
+    private static final int[][] GRIDS = {{40, 25}, {200, 200}};
+    private static final long[] TICK_CAPS = {Long.MAX_VALUE, 50_000};
+
+    public static void main(String[] args) {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 20;
+        SpeedCurve speed = new SpeedCurve(SpeedCurve.baseDelayFor("Normal"), 40, 30);
+
+        for (int g = 0; g < GRIDS.length; g++) {
+            int cols = GRIDS[g][0], rows = GRIDS[g][1];
+
+            // Warm the JIT up with a separate pilot so the reported latencies are steady state
+            Autopilot warm = new Autopilot(cols, rows);
+            for (int i = 0; i < 3; i++) play(cols, rows, 1000 + i, warm, speed, TICK_CAPS[g], new GameStats());
+
+            Autopilot pilot = new Autopilot(cols, rows);
+            GameStats stats = new GameStats();
+            for (int i = 0; i < games; i++) play(cols, rows, i, pilot, speed, TICK_CAPS[g], stats);
+
+            System.out.printf("%dx%d, %d games%s%n", cols, rows, games,
+                    TICK_CAPS[g] == Long.MAX_VALUE ? "" : " capped at " + TICK_CAPS[g] + " ticks");
+            System.out.println("  " + stats.summary());
+            System.out.println("  " + pilot.latencyReport());
+        }
+    }
+
+    /** HeadlessRunner.playOut with a tick cap for boards too big to finish. */
+    private static void play(int cols, int rows, long seed, SnakePolicy policy, SpeedCurve speed, long cap,
+                             GameStats stats) {
+        CustomSnakeLogic game = new CustomSnakeLogic(cols, rows, seed);
+        game.createSnake(3);
+        game.spawnFood();
+
+        long ticks = 0, ms = 0, sinceFood = 0;
+        long starveLimit = 2L * cols * rows;
+        int outcome = CustomSnakeLogic.MOVED;
+        while (outcome != CustomSnakeLogic.DIED && outcome != CustomSnakeLogic.WON
+                && sinceFood < starveLimit && ticks < cap) {
+            ms += speed.delayFor(game.score);
+            outcome = game.step(policy.decide(game));
+            ticks++;
+            sinceFood = outcome == CustomSnakeLogic.ATE ? 0 : sinceFood + 1;
+        }
+        stats.add(game, ticks, ms, outcome == CustomSnakeLogic.WON);
+    }
+}
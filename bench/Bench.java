@@ -0,0 +1,108 @@
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.util.List;
+
+/**
+ * Minimal JMH-style harness for the benchmark programs in this folder.
+ *
+ * JMH itself refuses benchmark classes in the default package, and every
+ * game class lives there, so this mirrors the parts we need: time-boxed
+ * warmup and measurement iterations, ns/op with a 99.9% error estimate, and
+ * a GC profiler (allocated bytes per op from the HotSpot ThreadMXBean plus
+ * collector count and time during measurement).
+ */
+final class Bench {
+
+    /** One benchmark invocation; return something derived from the work so the JIT keeps it. */
+    interface Op {
+        long run();
+    }
+
+    // Iteration settings, overridable with -Dbench.warmup / -Dbench.iterations / -Dbench.time (ms)
+    static final int WARMUP = Integer.getInteger("bench.warmup", 3);
+    static final int ITERATIONS = Integer.getInteger("bench.iterations", 5);
+    static final long ITERATION_NANOS = Long.getLong("bench.time", 300L) * 1_000_000L;
+
+    static volatile long blackhole;
+
+    private static final com.sun.management.ThreadMXBean THREADS =
+            (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+    private static final List<GarbageCollectorMXBean> GCS = ManagementFactory.getGarbageCollectorMXBeans();
+
+    private Bench() {}
+
+    /** Prints the column headers matching {@link #run}. */
+    static void header() {
+        System.out.printf("%-22s %-40s %12s %10s %12s %8s %8s%n",
+                "Benchmark", "Params", "ns/op", "error", "B/op", "gc.count", "gc.ms");
+    }
+
+    /** Warms up, measures and prints one line; returns the mean ns/op. */
+    static double run(String name, String params, Op op) {
+        long batch = calibrate(op);
+        for (int i = 0; i < WARMUP; i++) iteration(op, batch);
+
+        double[] samples = new double[ITERATIONS];
+        long tid = Thread.currentThread().getId();
+        long alloc0 = THREADS.getThreadAllocatedBytes(tid);
+        long gcCount0 = gcCount(), gcTime0 = gcTime();
+        long ops = 0;
+        for (int i = 0; i < ITERATIONS; i++) {
+            samples[i] = iteration(op, batch);
+            ops += batch;
+        }
+        long allocated = THREADS.getThreadAllocatedBytes(tid) - alloc0;
+        long gcCount = gcCount() - gcCount0, gcTime = gcTime() - gcTime0;
+
+        double mean = 0;
+        for (double s : samples) mean += s;
+        mean /= samples.length;
+        double var = 0;
+        for (double s : samples) var += (s - mean) * (s - mean);
+        double sd = samples.length > 1 ? Math.sqrt(var / (samples.length - 1)) : 0;
+        double error = 3.29 * sd / Math.sqrt(samples.length); // ~99.9% normal interval
+
+        System.out.printf("%-22s %-40s %12.2f %10.2f %12.2f %8d %8d%n",
+                name, params, mean, error, allocated / (double) ops, gcCount, gcTime);
+        return mean;
+    }
+
+    /** Finds a batch size that takes roughly one iteration's time. */
+    private static long calibrate(Op op) {
+        long batch = 1;
+        while (true) {
+            long t0 = System.nanoTime();
+            runBatch(op, batch);
+            long elapsed = System.nanoTime() - t0;
+            if (elapsed >= ITERATION_NANOS / 4 || batch >= (1L << 40)) {
+                return Math.max(1, batch * ITERATION_NANOS / Math.max(1, elapsed));
+            }
+            batch *= 4;
+        }
+    }
+
+    /** Runs one timed batch and returns ns/op. */
+    private static double iteration(Op op, long batch) {
+        long t0 = System.nanoTime();
+        runBatch(op, batch);
+        return (System.nanoTime() - t0) / (double) batch;
+    }
+
+    private static void runBatch(Op op, long batch) {
+        long sink = 0;
+        for (long i = 0; i < batch; i++) sink += op.run();
+        blackhole = sink;
+    }
+
+    private static long gcCount() {
+        long n = 0;
+        for (GarbageCollectorMXBean gc : GCS) n += Math.max(0, gc.getCollectionCount());
+        return n;
+    }
+
+    private static long gcTime() {
+        long n = 0;
+        for (GarbageCollectorMXBean gc : GCS) n += Math.max(0, gc.getCollectionTime());
+        return n;
+    }
+}
@@ -0,0 +1,127 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Benchmark suite for the engine hot paths (move, checkCollision, spawnFood)
+ * and the renderer, over grid sizes from 40x25 to 1000x1000, snake lengths
+ * from 3 to the full board and several fill ratios. Long snakes are laid on
+ * a Hamiltonian cycle and steered along it, so every op is a legal tick.
+ * Run with
+ *   java -Djava.awt.headless=true -cp out EngineBenchmarks [name-filter]
+ */
+public class EngineBenchmarks {
+
+    private static final int[][] GRIDS = {{40, 25}, {200, 200}, {1000, 1000}};
+    private static final int[] LENGTHS = {3, 100, 10_000, Integer.MAX_VALUE}; // MAX = full board
+    private static final double[] FILL_RATIOS = {0.1, 0.5, 0.9, 0.99};
+    private static final int MAX_IMAGE_PX = 1000; // Cell size shrinks on big grids to keep the image sane
+
+    public static void main(String[] args) {
+        String filter = args.length > 0 ? args[0] : "";
+        Bench.header();
+
+        for (int[] grid : GRIDS) {
+            int cols = grid[0], rows = grid[1];
+            HamiltonianCycle cycle = new HamiltonianCycle(cols, rows);
+
+            for (int len : LENGTHS) {
+                // "Full" is one short of the board so the head always has the vacated tail cell to enter
+                int n = Math.min(len, cols * rows - 1);
+                if (len != Integer.MAX_VALUE && len >= cols * rows) continue;
+                String params = String.format("grid=%dx%d length=%d", cols, rows, n);
+
+                if (matches("move", filter)) {
+                    CustomSnakeLogic game = laidOut(cols, rows, cycle, n);
+                    Bench.run("move", params, () -> {
+                        steer(game, cycle);
+                        game.move();
+                        return game.headCell();
+                    });
+                }
+                if (matches("checkCollision", filter)) {
+                    CustomSnakeLogic game = laidOut(cols, rows, cycle, n);
+                    Bench.run("checkCollision", params, () -> {
+                        steer(game, cycle);
+                        game.move();
+                        return game.checkCollision() ? 1 : 0;
+                    });
+                }
+                if (matches("draw.full", filter)) {
+                    CustomSnakeLogic game = laidOut(cols, rows, cycle, n);
+                    int cell = cellFor(cols, rows);
+                    BoardRenderer renderer = new BoardRenderer(cols, rows, cell);
+                    BufferedImage img = new BufferedImage(cols * cell, rows * cell, BufferedImage.TYPE_INT_RGB);
+                    Graphics2D g = img.createGraphics();
+                    Bench.run("draw.full", params + " cell=" + cell, () -> {
+                        steer(game, cycle);
+                        game.move();
+                        renderer.drawFull(g, game, 0);
+                        return game.headCell();
+                    });
+                    g.dispose();
+                }
+                if (matches("draw.sprites", filter)) {
+                    CustomSnakeLogic game = laidOut(cols, rows, cycle, n);
+                    int cell = cellFor(cols, rows);
+                    BoardRenderer renderer = new BoardRenderer(cols, rows, cell);
+                    BufferedImage img = new BufferedImage(cols * cell, rows * cell, BufferedImage.TYPE_INT_RGB);
+                    Graphics2D g = img.createGraphics();
+                    Bench.run("draw.sprites", params + " cell=" + cell, () -> {
+                        steer(game, cycle);
+                        game.move();
+                        renderer.drawSprites(g, game, 0);
+                        return game.headCell();
+                    });
+                    g.dispose();
+                }
+                if (matches("draw.dirty", filter)) {
+                    CustomSnakeLogic game = laidOut(cols, rows, cycle, n);
+                    int cell = cellFor(cols, rows);
+                    BoardRenderer renderer = new BoardRenderer(cols, rows, cell);
+                    renderer.redrawAll(game);
+                    Bench.run("draw.dirty", params + " cell=" + cell, () -> {
+                        steer(game, cycle);
+                        game.move();
+                        renderer.paintCell(game, game.headCell());
+                        renderer.paintCell(game, game.segmentAt(1));
+                        renderer.paintCell(game, game.vacatedCell());
+                        renderer.paintCell(game, game.tailCell());
+                        return game.headCell();
+                    });
+                }
+            }
+
+            if (matches("spawnFood", filter)) {
+                for (double ratio : FILL_RATIOS) {
+                    int n = (int) Math.min(cols * (long) rows - 1, Math.round(cols * (double) rows * ratio));
+                    CustomSnakeLogic game = laidOut(cols, rows, cycle, n);
+                    Bench.run("spawnFood", String.format("grid=%dx%d fill=%.2f", cols, rows, ratio), () -> {
+                        game.spawnFood();
+                        return game.food;
+                    });
+                }
+            }
+        }
+    }
+
+    private static boolean matches(String name, String filter) {
+        return filter.isEmpty() || name.contains(filter);
+    }
+
+    private static CustomSnakeLogic laidOut(int cols, int rows, HamiltonianCycle cycle, int len) {
+        CustomSnakeLogic game = new CustomSnakeLogic(cols, rows, 42L);
+        game.layOnCycle(cycle, len);
+        game.spawnFood();
+        return game;
+    }
+
+    /** Turns the snake towards the next cell on the cycle. */
+    private static void steer(CustomSnakeLogic game, HamiltonianCycle cycle) {
+        int h = game.headCell(), next = cycle.next(h);
+        game.changeDirection(game.cellX(next) - game.cellX(h), game.cellY(next) - game.cellY(h));
+    }
+
+    private static int cellFor(int cols, int rows) {
+        return Math.max(1, Math.min(25, MAX_IMAGE_PX / Math.max(cols, rows)));
+    }
+}
@@ -0,0 +1,64 @@
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Heap footprint and frame time on boards from 40x25 up to 10,000 x 10,000
+ * with a short snake, using the configuration the panel picks for each size:
+ * the compact engine state (FreeCellIndex) past FreeCellSet.MAX_CELLS, and
+ * the scrolling TiledBoardRenderer once the board is bigger than the window.
+ * A frame is one tick along the Hamiltonian cycle, the changed cells painted
+ * into their tiles, the camera moved and the viewport drawn.
+ *
+ *   java -Xmx2g -cp out GiantBoardBenchmark
+ */
+public class GiantBoardBenchmark {
+    private static final int[][] GRIDS = {{40, 25}, {1000, 1000}, {4000, 4000}, {10_000, 10_000}};
+    private static final int CELL = 25, VIEW_W = 1000, VIEW_H = 625;
+    private static final int LENGTH = 1000;
+
+    public static void main(String[] args) {
+        Bench.header();
+        BufferedImage screen = new BufferedImage(VIEW_W, VIEW_H, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = screen.createGraphics();
+        for (int[] grid : GRIDS) {
+            int cols = grid[0], rows = grid[1];
+            HamiltonianCycle cycle = new HamiltonianCycle(cols, rows);
+
+            long before = usedHeap();
+            CustomSnakeLogic game = new CustomSnakeLogic(cols, rows, 1);
+            game.layOnCycle(cycle, Math.min(LENGTH, cols * rows / 2));
+            game.spawnFood();
+            long engineBytes = usedHeap() - before;
+
+            TiledBoardRenderer tiles = new TiledBoardRenderer(cols, rows, CELL, VIEW_W, VIEW_H);
+            tiles.redrawAll(game);
+            tiles.drawViewport(g, game, 0, 0);
+            String params = String.format("grid=%dx%d length=%d", cols, rows, game.length());
+
+            double frame = Bench.run("frame", params, () -> {
+                int h = game.headCell(), next = cycle.next(h);
+                game.changeDirection(game.cellX(next) - game.cellX(h), game.cellY(next) - game.cellY(h));
+                int outcome = game.step(CustomSnakeLogic.NONE);
+                tiles.paintCell(game, game.headCell());
+                tiles.paintCell(game, game.segmentAt(1));
+                tiles.paintCell(game, game.vacatedCell());
+                tiles.paintCell(game, game.tailCell());
+                if (outcome == CustomSnakeLogic.ATE) tiles.paintCell(game, game.food);
+                tiles.follow(game);
+                tiles.drawViewport(g, game, 0, 0);
+                return outcome;
+            });
+            System.out.printf("  -> engine %.1f MB (%s, state %d bytes), tiles %.1f MB, %.1f us/frame, %d tile renders%n",
+                    engineBytes / 1e6, (long) cols * rows > FreeCellSet.MAX_CELLS ? "compact" : "dense",
+                    game.stateSize(), tiles.footprintBytes() / 1e6, frame / 1e3, tiles.tileRenders());
+        }
+        g.dispose();
+    }
+
+    /** Used heap after a full collection; good to about a megabyte, which is all this needs. */
+    private static long usedHeap() {
+        Runtime rt = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) System.gc();
+        return rt.totalMemory() - rt.freeMemory();
+    }
+}
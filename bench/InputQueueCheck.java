@@ -0,0 +1,47 @@
+/**
+ * Stress check for the InputQueue hand-off between two threads: a producer
+ * pushes sequence numbers as fast as the ring accepts them while the
+ * consumer checks that every one arrives exactly once and in order, and
+ * records the producer-to-consumer delay in a LatencyHistogram. Exits with
+ * status 1 on a lost, duplicated or reordered entry. Run with
+ *   javac -d out *.java bench/*.java && java -cp out InputQueueCheck [count]
+ */
+public class InputQueueCheck {
+
+    public static void main(String[] args) throws InterruptedException {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        InputQueue queue = new InputQueue(16);
+        LatencyHistogram handoff = new LatencyHistogram();
+
+        // Sequence numbers start at 1 because 0 is CustomSnakeLogic.NONE, the empty answer
+        Thread producer = new Thread(() -> {
+            for (int i = 1; i <= count; ) {
+                if (queue.offer(i, System.nanoTime())) i++;
+                else Thread.yield(); // Ring full; yield so this also works on a single core
+            }
+        }, "producer");
+
+        long t0 = System.nanoTime();
+        producer.start();
+        int expected = 1;
+        while (expected <= count) {
+            int v = queue.poll();
+            if (v == CustomSnakeLogic.NONE) {
+                Thread.yield();
+                continue;
+            }
+            handoff.record(System.nanoTime() - queue.polledStamp());
+            if (v != expected) {
+                System.out.printf("FAIL: got %d, expected %d%n", v, expected);
+                System.exit(1);
+            }
+            expected++;
+        }
+        double secs = (System.nanoTime() - t0) / 1e9;
+        producer.join();
+
+        System.out.printf("%d entries through a %d-slot ring in %.2f s (%.1f M/s), in order%n",
+                count, 16, secs, count / secs / 1e6);
+        System.out.println(handoff.summary("Hand-off"));
+    }
+}
@@ -0,0 +1,34 @@
+import java.util.List;
+import jdk.jfr.EventType;
+import jdk.jfr.SettingDescriptor;
+
+/**
+ * Checks that the telemetry JFR events keep their annotations: name, label,
+ * category and no stack traces. A declaration slipped in between the
+ * annotations and the event class silently moves them onto the wrong type.
+ * Exits with status 1 on a mismatch.
+ *   javac -d out *.java bench/*.java && java -cp out JfrEventCheck
+ */
+public class JfrEventCheck {
+
+    public static void main(String[] args) {
+        boolean ok = check(Telemetry.TickEvent.class, "snake.Tick", "Snake Tick")
+                & check(Telemetry.PaintEvent.class, "snake.Paint", "Snake Paint");
+        if (!ok) System.exit(1);
+    }
+
+    private static boolean check(Class<? extends jdk.jfr.Event> event, String name, String label) {
+        EventType type = EventType.getEventType(event);
+        // @StackTrace(false) shows up as the default of the event's stackTrace setting
+        String stackTrace = "?";
+        for (SettingDescriptor s : type.getSettingDescriptors()) {
+            if (s.getName().equals("stackTrace")) stackTrace = s.getDefaultValue();
+        }
+        boolean ok = type.getName().equals(name) && label.equals(type.getLabel())
+                && type.getCategoryNames().equals(List.of("Snake")) && stackTrace.equals("false");
+        System.out.printf("%s %-22s name %s, label %s, category %s, stack trace %s%n", ok ? "ok  " : "FAIL",
+                event.getSimpleName(), type.getName(), type.getLabel(), type.getCategoryNames(),
+                stackTrace.equals("false") ? "off" : "on");
+        return ok;
+    }
+}
@@ -0,0 +1,158 @@
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.List;
+
+/**
+ * Leaderboard with millions of games: batched append throughput, top-K and
+ * personal-best queries against a full scan of the log, reopening with a
+ * clean index, and crash recovery (dirty index plus a torn tail record).
+ * Also compares fsync-per-game with the writer's batching when sync is on.
+ * Exits with status 1 if the index disagrees with the scan.
+ *
+ *   java -cp out LeaderboardBenchmark [games] [players]
+ */
+public class LeaderboardBenchmark {
+
+    public static void main(String[] args) throws Exception {
+        int games = args.length > 0 ? Integer.parseInt(args[0]) : 2_000_000;
+        int players = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        Path dir = Files.createTempDirectory("leaderboard");
+        SnakeRandom rand = new SnakeRandom(42);
+
+        // Append, batched by the writer thread (no fsync)
+        Leaderboard board = Leaderboard.open(dir, false);
+        long t0 = System.nanoTime();
+        for (int i = 0; i < games; i++) {
+            Leaderboard.Entry e = entry(i, rand, players);
+            while (!board.submit(e)) Thread.yield(); // Queue full: let the writer catch up
+        }
+        board.flush();
+        double secs = (System.nanoTime() - t0) / 1e9;
+        System.out.printf("append: %d games in %.2f s (%.0f games/s), %d batches (%.0f games/batch), log %.1f MB%n",
+                games, secs, games / secs, board.batches(), (double) games / board.batches(),
+                Files.size(dir.resolve("scores.log")) / 1e6);
+
+        // Queries from the index against a scan of the whole log
+        Bench.header();
+        String params = "games=" + games;
+        Bench.run("top10", params, () -> {
+            try {
+                return board.top(2, 10).size();
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        Bench.run("personalBest", params, () -> {
+            try {
+                return board.personalBest("player17", 1).score;
+            } catch (IOException ex) {
+                throw new UncheckedIOException(ex);
+            }
+        });
+        Bench.run("bestScore", params, () -> board.bestScore(0));
+        long s0 = System.nanoTime();
+        int[] scanned = scanTop(dir.resolve("scores.log"), 2, 10);
+        System.out.printf("full log scan for the same top 10: %.1f ms%n", (System.nanoTime() - s0) / 1e6);
+        List<Leaderboard.Entry> top = board.top(2, 10);
+        for (int i = 0; i < 10; i++) {
+            if (top.get(i).score != scanned[i]) {
+                System.out.printf("FAIL: index top %d is %d, scan says %d%n", i, top.get(i).score, scanned[i]);
+                System.exit(1);
+            }
+        }
+        System.out.println("Hard top 3:");
+        for (int i = 0; i < 3; i++) System.out.println("  " + top.get(i));
+
+        // Clean reopen only maps the index
+        board.close();
+        t0 = System.nanoTime();
+        Leaderboard reopened = Leaderboard.open(dir, false);
+        System.out.printf("reopen (clean index): %.1f ms, %d games, note: %s%n",
+                (System.nanoTime() - t0) / 1e6, reopened.size(), reopened.recoveryNote());
+
+        // Crash: the index stays dirty (never closed) and the last record is half written
+        try (FileChannel log = FileChannel.open(dir.resolve("scores.log"), StandardOpenOption.WRITE)) {
+            log.write(ByteBuffer.allocate(Leaderboard.RECORD_BYTES / 2), log.size());
+        }
+        t0 = System.nanoTime();
+        Leaderboard recovered = Leaderboard.open(dir, false);
+        System.out.printf("recover (dirty index, torn tail): %.1f ms, %d games, note: %s%n",
+                (System.nanoTime() - t0) / 1e6, recovered.size(), recovered.recoveryNote());
+        if (recovered.size() != games || recovered.top(2, 1).get(0).score != scanned[0]) {
+            System.out.println("FAIL: recovery lost games");
+            System.exit(1);
+        }
+        recovered.close();
+
+        // fsync per game vs. per batch
+        Path syncDir = Files.createTempDirectory("leaderboard-sync");
+        try (Leaderboard synced = Leaderboard.open(syncDir, true)) {
+            int n = 200;
+            t0 = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                synced.submit(entry(i, rand, players));
+                synced.flush(); // One game per batch, like a player finishing games one by one
+            }
+            double one = (System.nanoTime() - t0) / 1e9;
+            long before = synced.batches();
+            n = 20_000;
+            t0 = System.nanoTime();
+            for (int i = 0; i < n; i++) {
+                while (!synced.submit(entry(i, rand, players))) Thread.yield();
+            }
+            synced.flush();
+            double batched = (System.nanoTime() - t0) / 1e9;
+            System.out.printf("fsync: %.0f games/s one per batch, %.0f games/s batched (%d batches for %d games)%n",
+                    200 / one, n / batched, synced.batches() - before, n);
+        }
+        deleteAll(dir);
+        deleteAll(syncDir);
+    }
+
+    private static Leaderboard.Entry entry(int i, SnakeRandom rand, int players) {
+        int score = 5 * rand.nextInt(400);
+        return new Leaderboard.Entry(i % 3, score, 3 + score / 5, 1000 + rand.nextInt(600_000),
+                rand.nextLong(), 1_700_000_000_000L + i, "player" + (i % players));
+    }
+
+    /** Top k scores of a difficulty by reading every record of the log. */
+    private static int[] scanTop(Path logPath, int difficulty, int k) throws IOException {
+        int[] top = new int[k];
+        java.util.Arrays.fill(top, -1);
+        ByteBuffer buf = ByteBuffer.allocateDirect(4096 * Leaderboard.RECORD_BYTES);
+        try (FileChannel log = FileChannel.open(logPath, StandardOpenOption.READ)) {
+            log.position(8);
+            while (log.read(buf) > 0 || buf.position() > 0) {
+                buf.flip();
+                while (buf.remaining() >= Leaderboard.RECORD_BYTES) {
+                    int p = buf.position();
+                    int score = buf.getInt(p + 8);
+                    if (buf.get(p + 4) == difficulty && score > top[k - 1]) {
+                        int at = k - 1;
+                        while (at > 0 && top[at - 1] < score) {
+                            top[at] = top[at - 1];
+                            at--;
+                        }
+                        top[at] = score;
+                    }
+                    buf.position(p + Leaderboard.RECORD_BYTES);
+                }
+                buf.compact();
+                if (buf.position() == 0 && log.position() >= log.size()) break;
+            }
+        }
+        return top;
+    }
+
+    private static void deleteAll(Path dir) throws IOException {
+        try (var files = Files.list(dir)) {
+            for (Path p : (Iterable<Path>) files::iterator) Files.delete(p);
+        }
+        Files.delete(dir);
+    }
+}
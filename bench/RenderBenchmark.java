@@ -0,0 +1,101 @@
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Frame time of the old full-board repaint against the dirty-cell back
+ * buffer, at several snake lengths. The snake follows a Hamiltonian cycle
+ * so it survives every tick. Run with
+ *   javac -d out *.java bench/*.java && java -Djava.awt.headless=true -cp out RenderBenchmark
+ */
+public class RenderBenchmark {
+
+    private static final int COLS = 40, ROWS = 25, CELL = 25, STATS = 50;
+    private static final int[] LENGTHS = {3, 10, 100, 500, 990};
+    private static final int FRAMES = 5_000;
+
+    public static void main(String[] args) {
+        int w = COLS * CELL, h = ROWS * CELL;
+        BufferedImage screen = new BufferedImage(w, h + STATS, BufferedImage.TYPE_INT_RGB);
+        Graphics2D sg = screen.createGraphics();
+        HamiltonianCycle cycle = new HamiltonianCycle(COLS, ROWS);
+
+        System.out.printf("Board %dx%d, cell %dpx, %d frames per point%n", COLS, ROWS, CELL, FRAMES);
+        System.out.printf("%8s %16s %16s %10s%n", "length", "full us/frame", "dirty us/frame", "speedup");
+
+        for (int len : LENGTHS) {
+            CustomSnakeLogic game = new CustomSnakeLogic(COLS, ROWS, 1L);
+            BoardRenderer board = new BoardRenderer(COLS, ROWS, CELL);
+
+            // Warm up both paths, then time them on the same game
+            for (int i = 0; i < 3; i++) {
+                runFull(game, cycle, len, board, sg, w, h, FRAMES / 5);
+                runDirty(game, cycle, len, board, sg, FRAMES / 5);
+            }
+            double full = runFull(game, cycle, len, board, sg, w, h, FRAMES);
+            double dirty = runDirty(game, cycle, len, board, sg, FRAMES);
+            System.out.printf("%8d %16.1f %16.1f %9.1fx%n", len, full / 1000, dirty / 1000, full / dirty);
+        }
+        sg.dispose();
+    }
+
+    /** The original path: clear the panel, stats bar, border, every segment. Returns ns/frame. */
+    private static double runFull(CustomSnakeLogic game, HamiltonianCycle cycle, int len, BoardRenderer board,
+                                  Graphics2D g, int w, int h, int frames) {
+        reset(game, cycle, len);
+        long t0 = System.nanoTime();
+        for (int i = 0; i < frames; i++) {
+            step(game, cycle);
+            g.setColor(Color.BLACK);
+            g.fillRect(0, 0, w, h + STATS);
+            g.setColor(Color.DARK_GRAY);
+            g.fillRect(0, 0, w, STATS);
+            g.setColor(Color.WHITE);
+            g.drawRect(0, STATS, w - 1, h - 1);
+            board.drawFull(g, game, STATS);
+        }
+        return (System.nanoTime() - t0) / (double) frames;
+    }
+
+    /** Dirty-cell path: redraw changed cells into the back buffer and copy only those rectangles. */
+    private static double runDirty(CustomSnakeLogic game, HamiltonianCycle cycle, int len,
+                                   BoardRenderer board, Graphics2D g, int frames) {
+        reset(game, cycle, len);
+        board.redrawAll(game);
+        long t0 = System.nanoTime();
+        for (int i = 0; i < frames; i++) {
+            int oldFood = game.food;
+            step(game, cycle);
+            blitCell(board, game, g, game.headCell());
+            blitCell(board, game, g, game.segmentAt(1));
+            blitCell(board, game, g, game.vacatedCell());
+            blitCell(board, game, g, game.tailCell());
+            if (game.food != oldFood) {
+                blitCell(board, game, g, oldFood);
+                blitCell(board, game, g, game.food);
+            }
+        }
+        g.setClip(null);
+        return (System.nanoTime() - t0) / (double) frames;
+    }
+
+    private static void blitCell(BoardRenderer board, CustomSnakeLogic game, Graphics2D g, int c) {
+        if (c < 0) return;
+        board.paintCell(game, c);
+        g.setClip((c % COLS) * CELL, STATS + (c / COLS) * CELL, CELL, CELL);
+        g.drawImage(board.image(), 0, STATS, null);
+    }
+
+    private static void reset(CustomSnakeLogic game, HamiltonianCycle cycle, int len) {
+        game.layOnCycle(cycle, len);
+        game.spawnFood();
+    }
+
+    /** One tick following the cycle; food is respawned but the snake never grows. */
+    private static void step(CustomSnakeLogic game, HamiltonianCycle cycle) {
+        int h = game.headCell(), n = cycle.next(h);
+        game.changeDirection(game.cellX(n) - game.cellX(h), game.cellY(n) - game.cellY(h));
+        game.move();
+        if (game.headOnFood()) game.spawnFood();
+    }
+}
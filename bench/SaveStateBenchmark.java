@@ -0,0 +1,43 @@
+/**
+ * Cost of a full save-state round trip (SaveState.save / restore) with the
+ * snake covering the whole board but one food cell, the worst case for the
+ * body section. Prints microseconds per snapshot so it can be compared with the tick
+ * budget (40 ms at top speed) when snapshotting every tick for rollback.
+ *
+ *   java -cp out SaveStateBenchmark
+ */
+public class SaveStateBenchmark {
+    private static final int[][] GRIDS = {{40, 25}, {200, 200}, {1000, 1000}};
+
+    public static void main(String[] args) {
+        Bench.header();
+        for (int[] grid : GRIDS) {
+            int cols = grid[0], rows = grid[1];
+            HamiltonianCycle cycle = new HamiltonianCycle(cols, rows);
+            CustomSnakeLogic game = new CustomSnakeLogic(cols, rows, 1);
+            game.layOnCycle(cycle, cols * rows - 1);
+            game.spawnFood();
+            CustomSnakeLogic copy = new CustomSnakeLogic(cols, rows, 1);
+
+            SaveState slot = new SaveState(cols, rows);
+            String params = String.format("grid=%dx%d length=%d", cols, rows, game.length());
+
+            double save = Bench.run("save", params, () -> {
+                slot.save(game, 180, 120, 12);
+                return slot.size();
+            });
+            double restore = Bench.run("restore", params, () -> {
+                slot.restore(copy);
+                return copy.headCell();
+            });
+            System.out.printf("  -> %.2f us/snapshot, %.2f us/restore, %d bytes%n",
+                    save / 1e3, restore / 1e3, slot.size());
+
+            // The copy must match the original exactly
+            SaveState check = new SaveState(cols, rows);
+            check.save(copy, 180, 120, 12);
+            slot.save(game, 180, 120, 12);
+            if (!check.sameAs(slot)) throw new IllegalStateException("Restored state differs on " + params);
+        }
+    }
+}
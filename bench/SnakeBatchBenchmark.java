@@ -0,0 +1,98 @@
+/**
+ * Game-ticks per second on one thread: N CustomSnakeLogic objects stepped
+ * one after another against one SnakeBatch.stepAll() over the same N games.
+ * Both sides steer every snake along a Hamiltonian cycle with a per-cell
+ * action table, so the policy costs one lookup and the games are the same
+ * (SnakeBatchCheck verifies the rules match); a game that ends restarts in
+ * place with the next seed.
+ *
+ *   java -cp out SnakeBatchBenchmark [seconds] [cols] [rows] [games...]
+ */
+public class SnakeBatchBenchmark {
+
+    public static void main(String[] args) {
+        double seconds = args.length > 0 ? Double.parseDouble(args[0]) : 2.0;
+        int cols = args.length > 1 ? Integer.parseInt(args[1]) : 40;
+        int rows = args.length > 2 ? Integer.parseInt(args[2]) : 25;
+        int[] sizes = {64, 1024, 4096};
+        if (args.length > 3) {
+            sizes = new int[args.length - 3];
+            for (int i = 3; i < args.length; i++) sizes[i - 3] = Integer.parseInt(args[i]);
+        }
+
+        // Action towards the next cycle cell, for every cell
+        HamiltonianCycle hc = new HamiltonianCycle(cols, rows);
+        CustomSnakeLogic probe = new CustomSnakeLogic(cols, rows, 0);
+        int[] steer = new int[cols * rows];
+        for (int c = 0; c < steer.length; c++) steer[c] = SpriteAtlas.actionBetween(probe, c, hc.next(c));
+
+        System.out.printf("%dx%d board, %.1f s per run, 1 thread (%d CPU(s))%n", cols, rows, seconds,
+                Runtime.getRuntime().availableProcessors());
+        System.out.printf("%8s %18s %18s %8s%n", "games", "scalar ticks/s", "batch ticks/s", "ratio");
+        for (int n : sizes) {
+            double scalar = scalar(n, cols, rows, steer, seconds * 0.3); // Warm-up
+            scalar = scalar(n, cols, rows, steer, seconds);
+            double batch = batch(n, cols, rows, steer, seconds * 0.3);
+            batch = batch(n, cols, rows, steer, seconds);
+            System.out.printf("%8d %18.0f %18.0f %7.2fx%n", n, scalar, batch, batch / scalar);
+        }
+    }
+
+    private static double scalar(int n, int cols, int rows, int[] steer, double seconds) {
+        CustomSnakeLogic[] games = new CustomSnakeLogic[n];
+        long[] seeds = new long[n];
+        for (int g = 0; g < n; g++) {
+            seeds[g] = g;
+            games[g] = new CustomSnakeLogic(cols, rows, g);
+            games[g].createSnake(SnakeBatch.START_LENGTH);
+            games[g].spawnFood();
+        }
+        long ticks = 0, t0 = System.nanoTime(), end = t0 + (long) (seconds * 1e9);
+        long check = 0;
+        while (System.nanoTime() < end) {
+            for (int r = 0; r < 16; r++) {
+                for (int g = 0; g < n; g++) {
+                    CustomSnakeLogic game = games[g];
+                    int outcome = game.step(steer[game.headCell()]);
+                    if (outcome == CustomSnakeLogic.DIED || outcome == CustomSnakeLogic.WON) {
+                        check += game.score;
+                        // Reseeded in place, as SnakeBatch.reset does, so neither side allocates
+                        seeds[g] += n;
+                        game.rand.setState(seeds[g]);
+                        game.createSnake(SnakeBatch.START_LENGTH);
+                        game.spawnFood();
+                    }
+                }
+            }
+            ticks += 16L * n;
+        }
+        Bench.blackhole = check;
+        return ticks / ((System.nanoTime() - t0) / 1e9);
+    }
+
+    private static double batch(int n, int cols, int rows, int[] steer, double seconds) {
+        SnakeBatch batch = new SnakeBatch(n, cols, rows);
+        batch.resetAll(0);
+        long[] seeds = new long[n];
+        for (int g = 0; g < n; g++) seeds[g] = g;
+        int[] actions = new int[n];
+        long ticks = 0, t0 = System.nanoTime(), end = t0 + (long) (seconds * 1e9);
+        long check = 0;
+        while (System.nanoTime() < end) {
+            for (int r = 0; r < 16; r++) {
+                for (int g = 0; g < n; g++) actions[g] = steer[batch.headY[g] * cols + batch.headX[g]];
+                batch.stepAll(actions);
+                for (int g = 0; g < n; g++) {
+                    if (batch.outcome[g] >= CustomSnakeLogic.DIED) {
+                        check += batch.score[g];
+                        seeds[g] += n;
+                        batch.reset(g, seeds[g]);
+                    }
+                }
+            }
+            ticks += 16L * n;
+        }
+        Bench.blackhole = check;
+        return ticks / ((System.nanoTime() - t0) / 1e9);
+    }
+}
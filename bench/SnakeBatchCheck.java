@@ -0,0 +1,103 @@
+/**
+ * Differential check of SnakeBatch against CustomSnakeLogic: the same seeds
+ * and actions go to a batch and to one scalar engine per game, and after
+ * every tick each game's outcome, score, food, heading, free-cell count and
+ * every body segment must agree. Finished games restart in both with the
+ * next seed. Actions are mostly safe random turns with some arbitrary ones
+ * (reversals, walls), plus a board small enough to be won by following a
+ * Hamiltonian cycle. Exits with status 1 at the first difference.
+ *
+ *   java -cp out SnakeBatchCheck [ticks] [games]
+ */
+public class SnakeBatchCheck {
+
+    public static void main(String[] args) {
+        int ticks = args.length > 0 ? Integer.parseInt(args[0]) : 5000;
+        int games = args.length > 1 ? Integer.parseInt(args[1]) : 1000;
+        boolean ok = check(40, 25, games, ticks, false)
+                & check(7, 5, games, ticks, false)
+                & check(4, 4, Math.min(games, 64), ticks, true)
+                & check(6, 4, Math.min(games, 64), ticks, true);
+        if (!ok) System.exit(1);
+    }
+
+    private static boolean check(int cols, int rows, int games, int ticks, boolean cycle) {
+        SnakeBatch batch = new SnakeBatch(games, cols, rows);
+        CustomSnakeLogic[] scalar = new CustomSnakeLogic[games];
+        long[] seeds = new long[games];
+        for (int g = 0; g < games; g++) {
+            seeds[g] = g;
+            scalar[g] = new CustomSnakeLogic(cols, rows, seeds[g]);
+            scalar[g].createSnake(SnakeBatch.START_LENGTH);
+            scalar[g].spawnFood();
+            batch.reset(g, seeds[g]);
+        }
+        HamiltonianCycle hc = cycle ? new HamiltonianCycle(cols, rows) : null;
+        SnakeRandom rnd = new SnakeRandom(cols * 31 + rows);
+        int[] actions = new int[games];
+        long compared = 0, died = 0, won = 0, ate = 0;
+
+        for (int t = 0; t < ticks; t++) {
+            for (int g = 0; g < games; g++) actions[g] = choose(scalar[g], hc, rnd);
+            batch.stepAll(actions);
+            for (int g = 0; g < games; g++) {
+                int expected = scalar[g].step(actions[g]);
+                String diff = compare(batch, g, scalar[g], expected);
+                if (diff != null) {
+                    System.out.printf("FAIL %dx%d: game %d (seed %d) tick %d: %s%n", cols, rows, g, seeds[g], t, diff);
+                    return false;
+                }
+                compared++;
+                if (expected == CustomSnakeLogic.ATE) ate++;
+                if (expected == CustomSnakeLogic.DIED || expected == CustomSnakeLogic.WON) {
+                    if (expected == CustomSnakeLogic.DIED) died++;
+                    else won++;
+                    seeds[g] += games;
+                    scalar[g] = new CustomSnakeLogic(cols, rows, seeds[g]);
+                    scalar[g].createSnake(SnakeBatch.START_LENGTH);
+                    scalar[g].spawnFood();
+                    batch.reset(g, seeds[g]);
+                    String fresh = compare(batch, g, scalar[g], CustomSnakeLogic.MOVED);
+                    if (fresh != null) {
+                        System.out.printf("FAIL %dx%d: game %d reset to seed %d: %s%n", cols, rows, g, seeds[g], fresh);
+                        return false;
+                    }
+                }
+            }
+        }
+        System.out.printf("ok   %dx%d: %d games x %d ticks, %d game-ticks compared, %d meals, %d died, %d won%n",
+                cols, rows, games, ticks, compared, ate, died, won);
+        return true;
+    }
+
+    /** Towards the next cycle cell when there is a cycle, else a random safe turn; one in 16 is any action. */
+    private static int choose(CustomSnakeLogic game, HamiltonianCycle hc, SnakeRandom rnd) {
+        if (rnd.nextInt(16) == 0) return rnd.nextInt(5);
+        if (hc != null) {
+            int h = game.headCell(), n = hc.next(h);
+            return SpriteAtlas.actionBetween(game, h, n);
+        }
+        int first = rnd.nextInt(4);
+        for (int k = 0; k < 4; k++) {
+            int a = 1 + (first + k) % 4;
+            if (!game.isFatal(a)) return a;
+        }
+        return CustomSnakeLogic.NONE;
+    }
+
+    private static String compare(SnakeBatch b, int g, CustomSnakeLogic s, int expected) {
+        if (b.outcome[g] != expected) return "outcome " + b.outcome[g] + " != " + expected;
+        if (expected == CustomSnakeLogic.DIED) return null; // The scalar body stays put, nothing more to compare
+        if (b.score[g] != s.score) return "score " + b.score[g] + " != " + s.score;
+        if (b.food[g] != s.food) return "food " + b.food[g] + " != " + s.food;
+        if (b.dirX[g] != s.dirX || b.dirY[g] != s.dirY) return "heading differs";
+        if (b.length(g) != s.length()) return "length " + b.length(g) + " != " + s.length();
+        if (b.freeCount(g) != s.cols * s.rows - s.length()) return "free cells " + b.freeCount(g);
+        for (int i = 0; i < s.length(); i++) {
+            int c = s.segmentAt(i);
+            if (b.segmentAt(g, i) != c || !b.isOccupied(g, c)) return "segment " + i + " " + b.segmentAt(g, i) + " != " + c;
+        }
+        if (b.headX[g] != s.headX() || b.headY[g] != s.headY()) return "head coordinates differ";
+        return null;
+    }
+}
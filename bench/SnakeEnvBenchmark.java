@@ -0,0 +1,113 @@
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Steps per second of SnakeEnv at batch sizes 1 to 4096 on 40x25, writing
+ * into a direct buffer or, with a file argument, a memory-mapped file.
+ * Actions come from a random policy that avoids fatal moves where it can
+ * (so games last a while and also end), chosen outside the timed region.
+ *
+ * After every batch size the observations, rewards and scores are checked
+ * against the engines, reading the file through a second, independent
+ * mapping when there is one, the way a trainer process would; any mismatch
+ * exits with status 1.
+ *
+ *   java -cp out SnakeEnvBenchmark [seconds per batch] [file]
+ */
+public class SnakeEnvBenchmark {
+    private static final int COLS = 40, ROWS = 25;
+
+    public static void main(String[] args) throws IOException {
+        double seconds = args.length > 0 ? Double.parseDouble(args[0]) : 1.0;
+        Path file = args.length > 1 ? Paths.get(args[1]) : null;
+        System.out.printf("%dx%d board, %s, %.1f s per batch size%n", COLS, ROWS,
+                file == null ? "direct buffer" : "mapped " + file, seconds);
+        System.out.printf("%8s %14s %12s %12s %10s%n", "batch", "steps/s", "calls/s", "games/s", "check");
+
+        boolean ok = true;
+        for (int batch = 1; batch <= 4096; batch *= 4) {
+            ByteBuffer shared = file == null ? ByteBuffer.allocateDirect((int) SnakeEnv.bytesFor(batch, COLS, ROWS)) : null;
+            SnakeEnv env = file == null ? new SnakeEnv(batch, COLS, ROWS, shared) : SnakeEnv.mapped(file, batch, COLS, ROWS);
+            long[] seeds = new long[batch];
+            for (int i = 0; i < batch; i++) seeds[i] = i;
+            env.reset(seeds);
+
+            int[] actions = new int[batch];
+            SnakeRandom rnd = new SnakeRandom(batch);
+            ByteBuffer view = file == null ? shared.duplicate().order(ByteOrder.nativeOrder()) : map(file, env.bytes);
+            // Warm-up, then the timed run; only step() is timed
+            long games = 0, calls = 0, nanos = 0;
+            long warmUntil = System.nanoTime() + (long) (seconds * 0.3e9);
+            while (System.nanoTime() < warmUntil) {
+                choose(env, rnd, actions);
+                env.step(actions);
+            }
+            while (nanos < seconds * 1e9) {
+                choose(env, rnd, actions);
+                long t0 = System.nanoTime();
+                env.step(actions);
+                nanos += System.nanoTime() - t0;
+                calls++;
+                for (int i = 0; i < batch; i++) if (view.get(env.doneOffset + i) != SnakeEnv.DONE_NO) games++;
+            }
+            double secs = nanos / 1e9;
+            boolean same = matches(env, view);
+            ok &= same;
+            System.out.printf("%8d %14.0f %12.0f %12.0f %10s%n", batch, calls * batch / secs, calls / secs, games / secs,
+                    same ? "ok" : "MISMATCH");
+        }
+        if (file != null) Files.deleteIfExists(file);
+        if (!ok) {
+            System.out.println("FAIL: shared buffer does not match the games");
+            System.exit(1);
+        }
+    }
+
+    /** A second, read-only mapping of the file, as a trainer process would open it. */
+    private static ByteBuffer map(Path file, int bytes) throws IOException {
+        try (FileChannel ch = FileChannel.open(file, StandardOpenOption.READ)) {
+            MappedByteBuffer map = ch.map(FileChannel.MapMode.READ_ONLY, 0, bytes);
+            return map.order(ByteOrder.nativeOrder());
+        }
+    }
+
+    /** Random action among those that do not kill the snake, NONE if every move does. */
+    private static void choose(SnakeEnv env, SnakeRandom rnd, int[] actions) {
+        for (int i = 0; i < actions.length; i++) {
+            CustomSnakeLogic game = env.game(i);
+            int first = 1 + rnd.nextInt(4);
+            actions[i] = CustomSnakeLogic.NONE;
+            for (int k = 0; k < 4; k++) {
+                int a = 1 + (first - 1 + k) % 4;
+                if (!game.isFatal(a)) {
+                    actions[i] = a;
+                    break;
+                }
+            }
+        }
+    }
+
+    /** Header, every plane cell and every score against a from-scratch rendering of the games. */
+    private static boolean matches(SnakeEnv env, ByteBuffer view) {
+        if (view.getInt(0) != SnakeEnv.MAGIC || view.getInt(8) != env.batch || view.getLong(40) != env.steps()) return false;
+        for (int i = 0; i < env.batch; i++) {
+            CustomSnakeLogic game = env.game(i);
+            if (view.getInt(env.scoreOffset + 4 * i) != game.score && view.get(env.doneOffset + i) == SnakeEnv.DONE_NO) {
+                return false;
+            }
+            for (int c = 0; c < env.cells; c++) {
+                if (view.get(env.obsIndex(i, SnakeEnv.BODY, c)) != (game.isOccupiedCell(c) ? 1 : 0)) return false;
+                if (view.get(env.obsIndex(i, SnakeEnv.HEAD, c)) != (c == game.headCell() ? 1 : 0)) return false;
+                if (view.get(env.obsIndex(i, SnakeEnv.FOOD, c)) != (c == game.food ? 1 : 0)) return false;
+            }
+        }
+        return true;
+    }
+}
@@ -0,0 +1,85 @@
+
+/**
+ * Food spawn latency against board fill ratio: the old rejection-sampling
+ * loop versus FreeCellSet. Run with
+ *   javac -d out *.java bench/*.java && java -cp out SpawnBenchmark
+ */
+public class SpawnBenchmark {
+
+    private static final int COLS = 40, ROWS = 25;
+    private static final int SAMPLES = 200_000;
+    private static final double[] FILL_RATIOS = {0.0, 0.5, 0.75, 0.9, 0.99, 0.999, 1.0};
+
+    // Keeps the JIT from discarding the sampled cells
+    static volatile long blackhole;
+
+    public static void main(String[] args) {
+        int cols = args.length > 0 ? Integer.parseInt(args[0]) : COLS;
+        int rows = args.length > 1 ? Integer.parseInt(args[1]) : ROWS;
+        int total = cols * rows;
+
+        System.out.printf("Board %dx%d (%d cells), %d spawns per point%n", cols, rows, total, SAMPLES);
+        System.out.printf("%8s %10s %18s %18s%n", "fill", "free", "rejection ns/op", "free-set ns/op");
+
+        for (double ratio : FILL_RATIOS) {
+            int taken = (int) Math.round(total * ratio);
+            OccupancyGrid grid = new OccupancyGrid(cols, rows);
+            FreeCellSet free = new FreeCellSet(total);
+            fill(grid, free, taken, new SnakeRandom(42));
+
+            // Warm up both paths before timing
+            SnakeRandom rand = new SnakeRandom(7);
+            long sink = 0;
+            for (int round = 0; round < 3; round++) {
+                if (free.size() > 0) sink += rejection(grid, cols, rows, rand, SAMPLES / 10);
+                sink += freeSet(free, rand, SAMPLES / 10);
+            }
+
+            String rejection;
+            if (free.size() == 0) {
+                rejection = "never returns";
+            } else {
+                long t0 = System.nanoTime();
+                sink += rejection(grid, cols, rows, rand, SAMPLES);
+                rejection = String.format("%.1f", (System.nanoTime() - t0) / (double) SAMPLES);
+            }
+
+            long t1 = System.nanoTime();
+            sink += freeSet(free, rand, SAMPLES);
+            double freeNs = (System.nanoTime() - t1) / (double) SAMPLES;
+
+            blackhole = sink;
+            System.out.printf("%8.3f %10d %18s %18.1f%n", ratio, free.size(), rejection, freeNs);
+        }
+    }
+
+    /** Marks {@code taken} distinct random cells as occupied. */
+    private static void fill(OccupancyGrid grid, FreeCellSet free, int taken, SnakeRandom rand) {
+        for (int i = 0; i < taken; i++) {
+            int c = free.sample(rand);
+            grid.set(c);
+            free.remove(c);
+        }
+    }
+
+    /** The original spawnFood strategy: retry random cells until one is empty. */
+    private static long rejection(OccupancyGrid grid, int cols, int rows, SnakeRandom rand, int n) {
+        long sum = 0;
+        for (int i = 0; i < n; i++) {
+            while (true) {
+                int c = rand.nextInt(rows) * cols + rand.nextInt(cols);
+                if (!grid.isOccupied(c)) {
+                    sum += c;
+                    break;
+                }
+            }
+        }
+        return sum;
+    }
+
+    private static long freeSet(FreeCellSet free, SnakeRandom rand, int n) {
+        long sum = 0;
+        for (int i = 0; i < n; i++) sum += free.sample(rand);
+        return sum;
+    }
+}
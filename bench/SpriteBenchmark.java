@@ -0,0 +1,120 @@
+import java.awt.Color;
+import java.awt.Font;
+import java.awt.FontMetrics;
+import java.awt.Graphics2D;
+import java.awt.image.BufferedImage;
+
+/**
+ * Primitive fills against sprite blits from the SpriteAtlas, at snake
+ * lengths of 100 and 10,000 on a 125x100 board (cells of 8 and 25 px):
+ *   - full: every segment drawn each frame (drawFull vs. drawSprites),
+ *   - dirty: the cells one tick changes, painted into the back buffer,
+ *   - text: the countdown / game-over text with drawString vs. one blit,
+ *   - atlas: the cost of rebuilding the atlas on a cell size or theme change.
+ * The snake follows a Hamiltonian cycle so it never dies. Run with
+ *   java -Djava.awt.headless=true -cp out SpriteBenchmark
+ */
+public class SpriteBenchmark {
+
+    private static final int COLS = 125, ROWS = 100;
+    private static final int[] CELLS = {8, 25};
+    private static final int[] LENGTHS = {100, 10_000};
+
+    public static void main(String[] args) {
+        HamiltonianCycle cycle = new HamiltonianCycle(COLS, ROWS);
+        Bench.header();
+
+        for (int cell : CELLS) {
+            BufferedImage screen = new BufferedImage(COLS * cell, ROWS * cell, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = screen.createGraphics();
+            for (int len : LENGTHS) {
+                String params = String.format("grid=%dx%d length=%d cell=%d", COLS, ROWS, len, cell);
+                CustomSnakeLogic game = laidOut(cycle, len);
+                BoardRenderer renderer = new BoardRenderer(COLS, ROWS, cell);
+
+                Bench.run("full.primitives", params, () -> {
+                    step(game, cycle);
+                    renderer.drawFull(g, game, 0);
+                    return game.headCell();
+                });
+                Bench.run("full.sprites", params, () -> {
+                    step(game, cycle);
+                    renderer.drawSprites(g, game, 0);
+                    return game.headCell();
+                });
+
+                // The pre-atlas dirty path: two fills per snake cell, black fill plus food for the rest
+                Bench.run("dirty.primitives", params, () -> {
+                    step(game, cycle);
+                    fillCell(g, game, game.headCell(), cell);
+                    fillCell(g, game, game.vacatedCell(), cell);
+                    return game.headCell();
+                });
+                renderer.redrawAll(game);
+                Bench.run("dirty.sprites", params, () -> {
+                    step(game, cycle);
+                    renderer.paintCell(game, game.headCell());
+                    renderer.paintCell(game, game.segmentAt(1));
+                    renderer.paintCell(game, game.vacatedCell());
+                    renderer.paintCell(game, game.tailCell());
+                    return game.headCell();
+                });
+            }
+            g.dispose();
+        }
+
+        // Large text: what paintComponent did per countdown / end frame, against one blit
+        BufferedImage screen = new BufferedImage(1000, 675, BufferedImage.TYPE_INT_RGB);
+        Graphics2D g = screen.createGraphics();
+        Font font = new Font("Consolas", Font.BOLD, 46);
+        Color color = Color.RED.darker();
+        FontMetrics fm = g.getFontMetrics(font);
+        Bench.run("text.drawString", "GAME OVER", () -> {
+            g.setColor(color);
+            g.setFont(font);
+            g.drawString("GAME OVER", (1000 - fm.stringWidth("GAME OVER")) / 2, 300);
+            return 0;
+        });
+        SpriteAtlas atlas = SpriteAtlas.ensure(null, 25, SpriteAtlas.CLASSIC);
+        Bench.run("text.sprite", "GAME OVER", () -> {
+            atlas.drawText(g, SpriteAtlas.TEXT_GAME_OVER, 500, 300);
+            return 0;
+        });
+        g.dispose();
+
+        // Rebuild on a theme change (the only time the atlas is built after start-up)
+        int[] flip = {0};
+        Bench.run("atlas.rebuild", "cell=25", () -> {
+            SpriteAtlas.Theme theme = SpriteAtlas.THEMES[flip[0]++ & 1];
+            return SpriteAtlas.ensure(null, 25, theme).cell;
+        });
+    }
+
+    private static void fillCell(Graphics2D g, CustomSnakeLogic game, int c, int cell) {
+        int px = game.cellX(c) * cell, py = game.cellY(c) * cell;
+        if (game.isOccupiedCell(c)) {
+            g.setColor(BoardRenderer.SNAKE_OUTLINE);
+            g.fillRect(px, py, cell, cell);
+            g.setColor(BoardRenderer.SNAKE_BODY);
+            g.fillRect(px + 2, py + 2, cell - 4, cell - 4);
+        } else {
+            g.setColor(Color.BLACK);
+            g.fillRect(px, py, cell, cell);
+        }
+    }
+
+    private static CustomSnakeLogic laidOut(HamiltonianCycle cycle, int len) {
+        CustomSnakeLogic game = new CustomSnakeLogic(COLS, ROWS, 42L);
+        game.layOnCycle(cycle, len);
+        game.spawnFood();
+        return game;
+    }
+
+    /** One tick along the cycle; food is respawned but the snake never grows. */
+    private static void step(CustomSnakeLogic game, HamiltonianCycle cycle) {
+        int h = game.headCell(), n = cycle.next(h);
+        game.changeDirection(game.cellX(n) - game.cellX(h), game.cellY(n) - game.cellY(h));
+        game.move();
+        if (game.headOnFood()) game.spawnFood();
+    }
+}
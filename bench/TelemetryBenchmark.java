@@ -0,0 +1,47 @@
+/**
+ * Cost of the telemetry hooks around one engine tick, disabled and enabled,
+ * against the bare tick. The disabled column is what every player pays.
+ * Run with (add -XX:StartFlightRecording to include JFR event commits)
+ *   javac -d out *.java bench/*.java && java -cp out TelemetryBenchmark
+ */
+public class TelemetryBenchmark {
+
+    public static void main(String[] args) {
+        HamiltonianCycle cycle = new HamiltonianCycle(40, 25);
+        CustomSnakeLogic game = new CustomSnakeLogic(40, 25, 1L);
+        game.layOnCycle(cycle, 500);
+        game.spawnFood();
+        String params = "grid=40x25 length=500";
+
+        Telemetry off = new Telemetry(null, null, 5);
+        Telemetry on = new Telemetry(null, null, 5);
+        on.enabled = true; // Without setEnabled, so no sampler thread competes for the core
+
+        Bench.header();
+        Bench.run("tick.bare", params, () -> {
+            steer(game, cycle);
+            return game.step(CustomSnakeLogic.NONE);
+        });
+        Bench.run("tick.telemetryOff", params, () -> {
+            long t0 = off.tickStart();
+            steer(game, cycle);
+            int outcome = game.step(CustomSnakeLogic.NONE);
+            off.tickDone(t0, 120);
+            return outcome;
+        });
+        Bench.run("tick.telemetryOn", params, () -> {
+            long t0 = on.tickStart();
+            steer(game, cycle);
+            int outcome = game.step(CustomSnakeLogic.NONE);
+            on.tickDone(t0, 120);
+            return outcome;
+        });
+        System.out.println(on.tick.summary("Recorded tick time"));
+    }
+
+    /** Turns the snake towards the next cell on the cycle. */
+    private static void steer(CustomSnakeLogic game, HamiltonianCycle cycle) {
+        int h = game.headCell(), next = cycle.next(h);
+        game.changeDirection(game.cellX(next) - game.cellX(h), game.cellY(next) - game.cellY(h));
+    }
+}